@@ -0,0 +1,31 @@
+package com.iza.jms.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMS benchmarks, recording the results as JSON
+ * Accepts the standard JMH command line options, e.g. a benchmark name pattern
+ * or "-rff results.json" to change the results file (default - jmh-result.json)
+ */
+
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .resultFormat(ResultFormatType.JSON)
+                .result(commandLineOptions.getResult().orElse("jmh-result.json"))
+                .jvmArgsAppend("-Dlogback.configurationFile=logback-benchmarks.xml")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.iza.jms.benchmarks;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.properties.Props;
+import com.iza.jms.scheduler.JobScheduler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Latency from scheduling a job to the start of its run (RUNNING status), per job priority
+ * In the "idle" group the probe job is the only job in the scheduler. In the "saturated" group
+ * a producer thread keeps the queue full of LOW priority jobs, so the score shows how long
+ * a job of each priority waits behind the backlog
+ */
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchLatencyBenchmark {
+
+    private static final Runnable busyTask = () -> Blackhole.consumeCPU(1000);
+
+    @Param({"HIGH", "MEDIUM", "LOW"})
+    private JobPriority priority;
+
+    private JobScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(2)
+                .jobQueueSize(10000)
+                .build());
+        scheduler.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Benchmark
+    @Group("idle")
+    public void enqueueToRunningIdle(Control control) {
+        runProbeJob(control);
+    }
+
+    @Benchmark
+    @Group("saturated")
+    @GroupThreads(1)
+    public void enqueueToRunningSaturated(Control control) {
+        runProbeJob(control);
+    }
+
+    @Benchmark
+    @Group("saturated")
+    @GroupThreads(1)
+    public boolean backgroundLoad() {
+        return scheduler.scheduleJob(Job.newJob(busyTask, "loadJob", JobPriority.LOW));
+    }
+
+    private void runProbeJob(Control control) {
+        AtomicBoolean started = new AtomicBoolean();
+
+        if (!scheduler.scheduleJob(Job.newJob(() -> started.set(true), "probeJob", priority))) {
+            return;
+        }
+
+        while (!started.get() && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.iza.jms.benchmarks;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobIdGenerator;
+import com.iza.jms.job.JobPriority;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating a job with 4 producer threads for each job id generator
+ * Run with "-prof gc" to see the allocation per job
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JobCreationBenchmark {
+
+    private static final Runnable noopTask = () -> { };
+
+    @Param({"SEQUENCE", "SNOWFLAKE"})
+    private String idGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Job.setJobIdGenerator(idGenerator.equals("SNOWFLAKE")
+                ? JobIdGenerator.snowflake(0)
+                : JobIdGenerator.sequence());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Job.setJobIdGenerator(JobIdGenerator.sequence());
+    }
+
+    @Benchmark
+    public Job newJob() {
+        return Job.newJob(noopTask, "job", JobPriority.LOW);
+    }
+}
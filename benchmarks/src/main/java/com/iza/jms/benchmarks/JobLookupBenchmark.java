@@ -0,0 +1,87 @@
+package com.iza.jms.benchmarks;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.properties.Props;
+import com.iza.jms.scheduler.JobScheduler;
+import com.iza.jms.scheduler.QueueOverflowPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of cancelJob and checkIfJobIsDone lookups as the number of jobs retained
+ * by the scheduler grows
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JobLookupBenchmark {
+
+    private static final int BATCH_SIZE = 10000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int retainedJobs;
+
+    private JobScheduler scheduler;
+    private long[] jobIds;
+    private long[] unknownJobIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(Runtime.getRuntime().availableProcessors())
+                .jobQueueSize(BATCH_SIZE)
+                .queueOverflowPolicy(QueueOverflowPolicy.BLOCK)
+                .queueOfferTimeoutMs(60000L)
+                .completedJobRetentionMs(TimeUnit.HOURS.toMillis(1))
+                .completedJobRetentionCount(retainedJobs)
+                .build());
+        scheduler.start();
+
+        jobIds = new long[retainedJobs];
+        unknownJobIds = new long[retainedJobs];
+        for (int scheduled = 0; scheduled < retainedJobs; scheduled += BATCH_SIZE) {
+            List<Job> jobs = new ArrayList<>(BATCH_SIZE);
+            for (int i = scheduled; i < Math.min(retainedJobs, scheduled + BATCH_SIZE); i++) {
+                Job job = Job.newJob(() -> { });
+                jobIds[i] = job.getId();
+                // Generated ids are positive
+                unknownJobIds[i] = ~job.getId();
+                jobs.add(job);
+            }
+            scheduler.scheduleJobs(jobs);
+        }
+
+        while (!scheduler.checkIfJobIsDone(jobIds[retainedJobs - 1])) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Benchmark
+    public boolean checkIfJobIsDone() {
+        return scheduler.checkIfJobIsDone(jobIds[ThreadLocalRandom.current().nextInt(retainedJobs)]);
+    }
+
+    @Benchmark
+    public boolean cancelJob() {
+        return scheduler.cancelJob(jobIds[ThreadLocalRandom.current().nextInt(retainedJobs)], false);
+    }
+
+    @Benchmark
+    public boolean checkIfJobIsDoneUnknown() {
+        return scheduler.checkIfJobIsDone(unknownJobIds[ThreadLocalRandom.current().nextInt(retainedJobs)]);
+    }
+}
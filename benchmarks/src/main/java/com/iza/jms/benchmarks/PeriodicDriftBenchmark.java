@@ -0,0 +1,66 @@
+package com.iza.jms.benchmarks;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.properties.Props;
+import com.iza.jms.scheduler.JobScheduler;
+import com.iza.jms.scheduler.TimerEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drift of periodic jobs: each benchmark invocation waits for the next run of a periodic job,
+ * so the score is the distribution of intervals between consecutive runs
+ * The drift is the difference between the mean interval and the configured period (10 ms),
+ * and the percentiles show the jitter of each timer engine
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class PeriodicDriftBenchmark {
+
+    private static final long PERIOD_MS = 10L;
+
+    @Param({"EXECUTOR", "TIMING_WHEEL"})
+    private TimerEngine timerEngine;
+
+    private JobScheduler scheduler;
+    private Job periodicJob;
+    private final Semaphore runs = new Semaphore(0);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .timerEngine(timerEngine)
+                .timerTickMs(1L)
+                .build());
+        scheduler.start();
+
+        periodicJob = Job.newJob(runs::release, "periodicJob", JobPriority.HIGH, PERIOD_MS, PERIOD_MS);
+        scheduler.scheduleJob(periodicJob);
+    }
+
+    @Setup(Level.Iteration)
+    public void skipPastRuns() {
+        runs.drainPermits();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.cancelJob(periodicJob.getJobId(), false);
+        scheduler.stop();
+    }
+
+    @Benchmark
+    public void awaitNextRun() throws InterruptedException {
+        runs.acquire();
+    }
+}
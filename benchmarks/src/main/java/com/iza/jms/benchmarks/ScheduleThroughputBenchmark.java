@@ -0,0 +1,87 @@
+package com.iza.jms.benchmarks;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.properties.Props;
+import com.iza.jms.scheduler.BatchResult;
+import com.iza.jms.scheduler.JobScheduler;
+import com.iza.jms.scheduler.QueueOverflowPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of job submission with 1 to N producer threads
+ * The queue applies backpressure (BLOCK policy), so the score is the sustained rate
+ * of jobs accepted and run by the scheduler, rather than the rate of rejections
+ * Jobs either do nothing, so that the score is bound by the admission to the queue and
+ * the dispatcher, or burn some CPU, so that the execution stage takes a part of the cost as well
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleThroughputBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Blackhole tokens consumed by each job
+    @Param({"0", "1000"})
+    private long taskWork;
+
+    private Runnable task;
+
+    private JobScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long tokens = taskWork;
+        task = tokens == 0L ? () -> { } : () -> Blackhole.consumeCPU(tokens);
+        scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(Runtime.getRuntime().availableProcessors())
+                .jobQueueSize(100000)
+                .queueOverflowPolicy(QueueOverflowPolicy.BLOCK)
+                .queueOfferTimeoutMs(60000L)
+                .build());
+        scheduler.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean scheduleJob1Producer() {
+        return scheduler.scheduleJob(Job.newJob(task));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean scheduleJob4Producers() {
+        return scheduler.scheduleJob(Job.newJob(task));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean scheduleJobMaxProducers() {
+        return scheduler.scheduleJob(Job.newJob(task));
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult scheduleJobsBatch1Producer() {
+        List<Job> jobs = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            jobs.add(Job.newJob(task));
+        }
+        return scheduler.scheduleJobs(jobs);
+    }
+}
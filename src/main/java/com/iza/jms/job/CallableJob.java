@@ -0,0 +1,111 @@
+package com.iza.jms.job;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Job which runs a callable task computing a value, which can be scheduled to the JMS scheduler
+ * {@link com.iza.jms.scheduler.JobScheduler}
+ * The value computed by the last run is kept by the Job, and the scheduler retains the results
+ * of completed callable jobs for a limited time, so that they can be retrieved by job id
+ *
+ * @param <T> type of the computed value
+ */
+
+public class CallableJob<T> extends Job {
+
+    private final Callable<T> jobCallable;
+    private volatile T jobValue;
+
+    private CallableJob(Callable<T> jobCallable,
+                        String jobName,
+                        JobPriority jobPriority,
+                        JobSchedule jobSchedule,
+                        long initialDelayMs,
+                        long periodMs) {
+        super(null, jobName, jobPriority, jobSchedule, initialDelayMs, periodMs);
+        this.jobCallable = jobCallable;
+    }
+
+    /**
+     * Creates a new CallableJob with low priority and immediate execution
+     *
+     * @param jobCallable the callable task
+     * @return a CallableJob with the specified parameters
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static <T> CallableJob<T> newJob(Callable<T> jobCallable) throws IllegalArgumentException {
+        if (jobCallable == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        return new CallableJob<>(jobCallable, "job", JobPriority.LOW, JobSchedule.IMMEDIATE, 0L, 0L);
+    }
+
+    /**
+     * Creates a new CallableJob with the specified name and priority, and immediate execution
+     *
+     * @param jobCallable the callable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @return a CallableJob with the specified parameters
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static <T> CallableJob<T> newJob(Callable<T> jobCallable,
+                                            String jobName,
+                                            JobPriority jobPriority)
+            throws IllegalArgumentException {
+        if (jobCallable == null || jobName == null || jobPriority == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        return new CallableJob<>(jobCallable, jobName, jobPriority, JobSchedule.IMMEDIATE, 0L, 0L);
+    }
+
+    /**
+     * Creates a new CallableJob with the specified name and priority, executed after the specified delay
+     *
+     * @param jobCallable the callable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param initialDelayMs delay before running the Job task in milliseconds
+     * @return a CallableJob with the specified parameters
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static <T> CallableJob<T> newJob(Callable<T> jobCallable,
+                                            String jobName,
+                                            JobPriority jobPriority,
+                                            long initialDelayMs)
+            throws IllegalArgumentException {
+        if (jobCallable == null || jobName == null || jobPriority == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        if (initialDelayMs <= 0L) {
+            throw new IllegalArgumentException("initial delay must be positive");
+        }
+
+        return new CallableJob<>(jobCallable, jobName, jobPriority, JobSchedule.DELAYED, initialDelayMs, 0L);
+    }
+
+    @Override
+    void runTask() throws Exception {
+        jobValue = null;
+        jobValue = jobCallable.call();
+    }
+
+    public Callable<T> getJobCallable() {
+        return jobCallable;
+    }
+
+    /**
+     * @return value computed by the Job's task, or null if the Job was not run or its run failed
+     */
+
+    @Override
+    public T getJobValue() {
+        return jobValue;
+    }
+}
@@ -0,0 +1,302 @@
+package com.iza.jms.job;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Cron expression of a Job with the CRON schedule {@link JobSchedule#CRON}
+ * Supports expressions of 5 fields (minute, hour, day of month, month, day of week) or 6 fields
+ * (with seconds first), each field being "*", "?" (days only), a value, a range "a-b", a list "a,b"
+ * or a step "*&#47;n", "a/n" or "a-b/n". Months and days of week may be given by their English
+ * three-letter names, Sunday being 0 or 7. The macros @yearly, @annually, @monthly, @weekly, @daily,
+ * @midnight and @hourly are supported as well. If both the day of month and the day of week are
+ * restricted, a day matching either of them matches, as in the standard cron
+ * The expression is compiled once into a bit set of the allowed values per field, so that computing
+ * the next fire time only looks up the next set bits, without parsing the expression again
+ */
+
+public class CronExpression {
+
+    private static final int MAX_SEARCH_YEARS = 8;
+
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN",
+            "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final String expression;
+    private final ZoneId zone;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private CronExpression(String expression, ZoneId zone, String[] fields) {
+        this.expression = expression;
+        this.zone = zone;
+        this.seconds = parseField(fields[0], 0, 59, null);
+        this.minutes = parseField(fields[1], 0, 59, null);
+        this.hours = parseField(fields[2], 0, 23, null);
+        this.daysOfMonth = parseField(fields[3], 1, 31, null);
+        this.months = parseField(fields[4], 1, 12, MONTH_NAMES);
+
+        // Sunday is both 0 and 7
+        long days = parseField(fields[5], 0, 7, DAY_NAMES);
+        this.daysOfWeek = (days & (1L << 7)) != 0L ? (days | 1L) & ~(1L << 7) : days;
+
+        this.daysOfMonthRestricted = !isWildcard(fields[3]);
+        this.daysOfWeekRestricted = !isWildcard(fields[5]);
+    }
+
+    /**
+     * Compiles a cron expression evaluated in the system default time zone
+     *
+     * @param expression cron expression, e.g. "0 * * * *" for the top of every hour
+     * @return the compiled expression
+     * @throws IllegalArgumentException if the expression is invalid or never fires
+     */
+
+    public static CronExpression parse(String expression) throws IllegalArgumentException {
+        return parse(expression, ZoneId.systemDefault());
+    }
+
+    /**
+     * Compiles a cron expression evaluated in the specified time zone
+     *
+     * @param expression cron expression, e.g. "0 0 2 * * MON-FRI" for 2 AM on weekdays
+     * @param zone time zone of the expression
+     * @return the compiled expression
+     * @throws IllegalArgumentException if the expression is invalid or never fires
+     */
+
+    public static CronExpression parse(String expression, ZoneId zone) throws IllegalArgumentException {
+        if (expression == null || zone == null) {
+            throw new IllegalArgumentException("cron expression and time zone cannot be null");
+        }
+
+        String[] fields = expandMacro(expression.trim()).split("\\s+");
+        if (fields.length == 5) {
+            String[] withSeconds = new String[6];
+            withSeconds[0] = "0";
+            System.arraycopy(fields, 0, withSeconds, 1, 5);
+            fields = withSeconds;
+        } else if (fields.length != 6) {
+            throw new IllegalArgumentException("cron expression must have 5 or 6 fields: " + expression);
+        }
+
+        CronExpression cronExpression = new CronExpression(expression, zone, fields);
+        if (cronExpression.nextMatch(LocalDateTime.now(zone)) == null) {
+            throw new IllegalArgumentException("cron expression never fires: " + expression);
+        }
+        return cronExpression;
+    }
+
+    /**
+     * Computes the first fire time strictly after the specified time
+     * Fire times skipped by a daylight saving time gap are moved forward by the gap,
+     * and fire times repeated by an overlap fire once
+     *
+     * @param afterMs time in milliseconds since the epoch
+     * @return the next fire time in milliseconds since the epoch, or -1 if the expression
+     * does not fire within the next years
+     */
+
+    public long nextFireTimeMs(long afterMs) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterMs), zone)
+                .truncatedTo(ChronoUnit.SECONDS)
+                .plusSeconds(1L);
+
+        while (true) {
+            LocalDateTime next = nextMatch(time);
+            if (next == null) {
+                return -1L;
+            }
+
+            ZonedDateTime zoned = next.atZone(zone);
+            if (zoned.toInstant().toEpochMilli() <= afterMs) {
+                zoned = zoned.withLaterOffsetAtOverlap();
+            }
+            long nextMs = zoned.toInstant().toEpochMilli();
+            if (nextMs > afterMs) {
+                return nextMs;
+            }
+            time = next.plusSeconds(1L);
+        }
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Finds the first local time from the specified time (inclusive) matching the expression,
+     * skipping whole months, days, hours and minutes which do not match
+     */
+
+    private LocalDateTime nextMatch(LocalDateTime time) {
+        int maxYear = time.getYear() + MAX_SEARCH_YEARS;
+
+        while (time.getYear() <= maxYear) {
+            if (!isSet(months, time.getMonthValue())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1).plusMonths(1L);
+                continue;
+            }
+            if (!matchesDay(time.toLocalDate())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1L);
+                continue;
+            }
+
+            int hour = nextSet(hours, time.getHour());
+            if (hour < 0) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1L);
+                continue;
+            }
+            if (hour != time.getHour()) {
+                time = time.withHour(hour).withMinute(0).withSecond(0);
+            }
+
+            int minute = nextSet(minutes, time.getMinute());
+            if (minute < 0) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1L);
+                continue;
+            }
+            if (minute != time.getMinute()) {
+                time = time.withMinute(minute).withSecond(0);
+            }
+
+            int second = nextSet(seconds, time.getSecond());
+            if (second < 0) {
+                time = time.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1L);
+                continue;
+            }
+            return time.withSecond(second);
+        }
+        return null;
+    }
+
+    private boolean matchesDay(LocalDate date) {
+        boolean dayOfMonthMatches = isSet(daysOfMonth, date.getDayOfMonth());
+        boolean dayOfWeekMatches = isSet(daysOfWeek, date.getDayOfWeek().getValue() % 7);
+
+        if (daysOfMonthRestricted && daysOfWeekRestricted) {
+            return dayOfMonthMatches || dayOfWeekMatches;
+        }
+        return dayOfMonthMatches && dayOfWeekMatches;
+    }
+
+    private static boolean isSet(long bits, int value) {
+        return (bits & (1L << value)) != 0L;
+    }
+
+    /**
+     * @return the lowest set bit from the specified one (inclusive), or -1 if there is none
+     */
+
+    private static int nextSet(long bits, int from) {
+        long remaining = bits & (-1L << from);
+        return remaining == 0L ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static boolean isWildcard(String field) {
+        return field.equals("*") || field.equals("?");
+    }
+
+    private static String expandMacro(String expression) {
+        switch (expression.toLowerCase(Locale.ROOT)) {
+            case "@yearly":
+            case "@annually":
+                return "0 0 0 1 1 *";
+            case "@monthly":
+                return "0 0 0 1 * *";
+            case "@weekly":
+                return "0 0 0 * * 0";
+            case "@daily":
+            case "@midnight":
+                return "0 0 0 * * *";
+            case "@hourly":
+                return "0 0 * * * *";
+            default:
+                return expression;
+        }
+    }
+
+    /**
+     * Parses a field into a bit set of the allowed values
+     */
+
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0L;
+
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, null, field);
+                range = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (isWildcard(range)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash >= 0) {
+                    from = parseValue(range.substring(0, dash), min, max, names, field);
+                    to = parseValue(range.substring(dash + 1), min, max, names, field);
+                } else {
+                    from = parseValue(range, min, max, names, field);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+
+            if (from > to) {
+                throw new IllegalArgumentException("invalid range in cron field: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, int min, int max, String[] names, String field) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    // Month names start from 1, day names from 0
+                    return i + min;
+                }
+            }
+        }
+
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value in cron field: " + field);
+        }
+
+        if (parsed < min || parsed > max) {
+            throw new IllegalArgumentException("value out of range in cron field: " + field);
+        }
+        return parsed;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -3,7 +3,10 @@ package com.iza.jms.job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Runnable Job which can be scheduled to the JMS scheduler
@@ -17,31 +20,64 @@ public class Job implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(Job.class);
 
+    private static volatile JobIdGenerator jobIdGenerator = JobIdGenerator.sequence();
+
     private final Runnable jobRunnable;
     private final String jobName;
-    private final String jobId;
+    private final long id;
+
+    // Rendered from the id on first use, racing threads render equal strings
+    private String jobId;
 
-    private JobStatus jobStatus;
+    private volatile JobStatus jobStatus;
+    private volatile Exception jobException;
     private final JobPriority jobPriority;
     private final JobSchedule jobSchedule;
 
     private final long initialDelayMs;
     private final long periodMs;
+    private final CronExpression cronExpression;
+    private final long jitterMs;
+
+    private final JobDescriptor jobDescriptor;
+    private volatile RetryPolicy retryPolicy;
+    private volatile String dedupKey;
+    private volatile Set<String> tags = Collections.emptySet();
+    private volatile long timeoutMs;
+
+    Job(Runnable jobRunnable,
+        String jobName,
+        JobPriority jobPriority,
+        JobSchedule jobSchedule,
+        long initialDelayMs,
+        long periodMs) {
+        this(jobRunnable, jobIdGenerator.nextId(), null, jobName, jobPriority, jobSchedule,
+                initialDelayMs, periodMs, null, 0L, null);
+    }
 
     private Job(Runnable jobRunnable,
-               String jobName,
-               JobPriority jobPriority,
-               JobSchedule jobSchedule,
-               long initialDelayMs,
-               long periodMs) {
+                long id,
+                String jobId,
+                String jobName,
+                JobPriority jobPriority,
+                JobSchedule jobSchedule,
+                long initialDelayMs,
+                long periodMs,
+                CronExpression cronExpression,
+                long jitterMs,
+                JobDescriptor jobDescriptor) {
         this.jobRunnable = jobRunnable;
         this.jobName = jobName;
-        this.jobId = UUID.randomUUID().toString();
+        this.id = id;
+        this.jobId = jobId;
         this.jobStatus = JobStatus.CREATED;
         this.jobPriority = jobPriority;
         this.jobSchedule = jobSchedule;
         this.initialDelayMs = initialDelayMs;
         this.periodMs = periodMs;
+        this.cronExpression = cronExpression;
+        this.jitterMs = jitterMs;
+        this.jobDescriptor = jobDescriptor;
     }
 
     /**
@@ -137,27 +173,209 @@ public class Job implements Runnable {
         return new Job(jobRunnable, jobName, jobPriority, JobSchedule.PERIODIC, initialDelayMs, periodMs);
     }
 
+    /**
+     * Creates a new Job with the specified name and priority, run at a fixed rate after the specified initial delay
+     *
+     * @param jobRunnable the runnable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param initialDelayMs delay before the Job first run in milliseconds
+     * @param periodMs interval between the starts of consecutive Job runs in milliseconds
+     * @return a Job with the specified parameters
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static Job newFixedRateJob(Runnable jobRunnable,
+                                      String jobName,
+                                      JobPriority jobPriority,
+                                      long initialDelayMs,
+                                      long periodMs) throws IllegalArgumentException {
+        return newFixedRateJob(jobRunnable, jobName, jobPriority, initialDelayMs, periodMs, 0L);
+    }
+
+    /**
+     * Creates a new Job with the specified name and priority, run at a fixed rate after the specified initial delay,
+     * each run being delayed by a random jitter, so that jobs with the same period do not run at once
+     *
+     * @param jobRunnable the runnable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param initialDelayMs delay before the Job first run in milliseconds
+     * @param periodMs interval between the starts of consecutive Job runs in milliseconds
+     * @param jitterMs upper bound of the random delay added to each run in milliseconds, or 0
+     * @return a Job with the specified parameters
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static Job newFixedRateJob(Runnable jobRunnable,
+                                      String jobName,
+                                      JobPriority jobPriority,
+                                      long initialDelayMs,
+                                      long periodMs,
+                                      long jitterMs) throws IllegalArgumentException {
+        if (jobRunnable == null || jobName == null || jobPriority == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        if (initialDelayMs < 0L || periodMs <= 0L || jitterMs < 0L) {
+            throw new IllegalArgumentException("delay and jitter must not be negative, period must be positive");
+        }
+
+        return new Job(jobRunnable, jobIdGenerator.nextId(), null, jobName, jobPriority, JobSchedule.FIXED_RATE,
+                initialDelayMs, periodMs, null, jitterMs, null);
+    }
+
+    /**
+     * Creates a new Job with the specified name and priority, run at the fire times of the cron expression
+     *
+     * @param jobRunnable the runnable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param cronExpression cron expression {@link CronExpression}, e.g. "0 * * * *"
+     * @return a Job with the specified parameters
+     * @throws IllegalArgumentException if the job parameters or the cron expression are invalid
+     */
+
+    public static Job newCronJob(Runnable jobRunnable,
+                                 String jobName,
+                                 JobPriority jobPriority,
+                                 String cronExpression) throws IllegalArgumentException {
+        return newCronJob(jobRunnable, jobName, jobPriority, cronExpression, 0L);
+    }
+
+    /**
+     * Creates a new Job with the specified name and priority, run at the fire times of the cron expression,
+     * each run being delayed by a random jitter, so that jobs firing at the same time are spread over the jitter
+     *
+     * @param jobRunnable the runnable task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param cronExpression cron expression {@link CronExpression}, e.g. "0 * * * *"
+     * @param jitterMs upper bound of the random delay added to each run in milliseconds, or 0
+     * @return a Job with the specified parameters
+     * @throws IllegalArgumentException if the job parameters or the cron expression are invalid
+     */
+
+    public static Job newCronJob(Runnable jobRunnable,
+                                 String jobName,
+                                 JobPriority jobPriority,
+                                 String cronExpression,
+                                 long jitterMs) throws IllegalArgumentException {
+        if (jobRunnable == null || jobName == null || jobPriority == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        if (jitterMs < 0L) {
+            throw new IllegalArgumentException("jitter must not be negative");
+        }
+
+        return new Job(jobRunnable, jobIdGenerator.nextId(), null, jobName, jobPriority, JobSchedule.CRON,
+                0L, 0L, CronExpression.parse(cronExpression), jitterMs, null);
+    }
+
+    /**
+     * Creates a new durable Job described by the descriptor, which is recorded in the journal
+     * of the job scheduler (if enabled) and recreated from the descriptor after a restart
+     * Durable jobs are usually created with
+     * {@link com.iza.jms.scheduler.JobScheduler#newDurableJob(String, String, String, JobPriority, long, long)},
+     * which creates the task from the task type registered with the scheduler
+     *
+     * @param jobDescriptor job descriptor {@link JobDescriptor}
+     * @param jobRunnable the runnable task created from the descriptor
+     * @return a Job with the parameters and the id of the descriptor
+     * @throws IllegalArgumentException if the job parameters are invalid
+     */
+
+    public static Job newDurableJob(JobDescriptor jobDescriptor, Runnable jobRunnable)
+            throws IllegalArgumentException {
+        if (jobDescriptor == null || jobRunnable == null) {
+            throw new IllegalArgumentException("job parameters cannot be null");
+        }
+
+        return new Job(jobRunnable, parseId(jobDescriptor.getJobId()), jobDescriptor.getJobId(),
+                jobDescriptor.getJobName(),
+                jobDescriptor.getJobPriority(), jobDescriptor.getJobSchedule(),
+                jobDescriptor.getInitialDelayMs(), jobDescriptor.getPeriodMs(), null, 0L, jobDescriptor);
+    }
+
+    /**
+     * Sets the generator of the ids of the Jobs created from now on {@link JobIdGenerator}
+     *
+     * @param jobIdGenerator the id generator
+     * @throws IllegalArgumentException if the generator is null
+     */
+
+    public static void setJobIdGenerator(JobIdGenerator jobIdGenerator) throws IllegalArgumentException {
+        if (jobIdGenerator == null) {
+            throw new IllegalArgumentException("job id generator cannot be null");
+        }
+        Job.jobIdGenerator = jobIdGenerator;
+    }
+
+    /**
+     * @return generator of the ids of new Jobs {@link JobIdGenerator}
+     */
+
+    public static JobIdGenerator getJobIdGenerator() {
+        return jobIdGenerator;
+    }
+
+    /**
+     * Parses the id of a durable Job, descriptors recorded with UUID ids by earlier versions
+     * keep them as string ids and get a new numeric id
+     */
+
+    private static long parseId(String jobId) {
+        try {
+            return Long.parseLong(jobId);
+        } catch (NumberFormatException e) {
+            return jobIdGenerator.nextId();
+        }
+    }
+
     /**
      * Runs the Job's task, setting the corresponding JobStatus ({@link JobStatus})
+     * Run lifecycle is logged at DEBUG level, so that a successful run does not allocate
+     * when DEBUG is disabled
      */
 
     @Override
     public void run() {
-        logger.info("Running job \"{}\" (id {}) with {} priority", jobName, jobId, jobPriority.name());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Running job \"{}\" (id {}) with {} priority", jobName, getJobId(), jobPriority);
+        }
+        this.jobException = null;
         this.setJobStatus(JobStatus.RUNNING);
 
         try {
-            jobRunnable.run();
+            runTask();
         } catch (Exception e) {
-            logger.error("Job \"{}\" (id {}) failed with an exception", jobName, jobId, e);
+            logger.error("Job \"{}\" (id {}) failed with an exception", jobName, getJobId(), e);
+            this.jobException = e;
             this.setJobStatus(JobStatus.FAILED);
             return;
         }
 
-        logger.info("Job \"{}\" (id {}) completed successfully", jobName, jobId);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Job \"{}\" (id {}) completed successfully", jobName, getJobId());
+        }
         this.setJobStatus(JobStatus.SUCCESS);
     }
 
+    /**
+     * Runs the Job's task once, overridden by the jobs with other kinds of tasks
+     *
+     * @throws Exception if the task failed
+     */
+
+    void runTask() throws Exception {
+        jobRunnable.run();
+    }
+
+    /**
+     * @return the runnable task, or null if the Job runs a callable task {@link CallableJob}
+     */
+
     public Runnable getJobRunnable() {
         return jobRunnable;
     }
@@ -166,14 +384,48 @@ public class Job implements Runnable {
         return jobName;
     }
 
+    /**
+     * @return numeric id of the Job
+     */
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return id of the Job as a string, the decimal numeric id unless the Job was recovered
+     * from a descriptor with a string id
+     */
+
     public String getJobId() {
-        return jobId;
+        String renderedId = jobId;
+        if (renderedId == null) {
+            renderedId = Long.toString(id);
+            jobId = renderedId;
+        }
+        return renderedId;
     }
 
     public JobStatus getJobStatus() {
         return jobStatus;
     }
 
+    /**
+     * @return exception thrown by the Job's task during the last run, or null if the run did not fail
+     */
+
+    public Exception getJobException() {
+        return jobException;
+    }
+
+    /**
+     * @return value computed by the Job's task during the last run, always null for runnable tasks
+     */
+
+    public Object getJobValue() {
+        return null;
+    }
+
     public JobPriority getJobPriority() {
         return jobPriority;
     }
@@ -190,20 +442,141 @@ public class Job implements Runnable {
         return periodMs;
     }
 
+    /**
+     * @return cron expression of a Job with the CRON schedule, or null for the other jobs
+     */
+
+    public CronExpression getCronExpression() {
+        return cronExpression;
+    }
+
+    /**
+     * @return upper bound of the random delay added to each run in milliseconds, or 0 if runs are not delayed
+     */
+
+    public long getJitterMs() {
+        return jitterMs;
+    }
+
+    /**
+     * @return descriptor of a durable Job, or null if the Job is not durable
+     */
+
+    public JobDescriptor getJobDescriptor() {
+        return jobDescriptor;
+    }
+
     public void setJobStatus(JobStatus jobStatus) {
         this.jobStatus = jobStatus;
     }
 
+    /**
+     * @return policy of retrying the failed runs of the Job, or null if failed runs are not retried
+     */
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the policy of retrying the failed runs of the Job {@link RetryPolicy}
+     * The policy applies to the jobs which are not recurring, and has to be set before the Job is scheduled
+     *
+     * @param retryPolicy the retry policy, or null if failed runs are not retried
+     */
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return key identifying the work done by the Job, or null if the Job is not deduplicated
+     */
+
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    /**
+     * Sets the key identifying the work done by the Job, e.g. "refresh-cache-users"
+     * A Job scheduled while another Job with the same key is queued or running is merged into it
+     * or dropped, according to the dedup policy of the scheduler
+     * {@link com.iza.jms.scheduler.DedupPolicy}. The key has to be set before the Job is scheduled
+     *
+     * @param dedupKey the dedup key, or null if the Job is not deduplicated
+     */
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
+    /**
+     * @return maximum run time of the Job in milliseconds, or 0 if the default of the Job priority applies
+     */
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Sets the maximum run time of the Job, after which the run is interrupted and the Job gets
+     * the TIMED_OUT status {@link JobStatus#TIMED_OUT}. The timeout applies to each run of a recurring
+     * Job, and has to be set before the Job is scheduled
+     *
+     * @param timeoutMs the timeout in milliseconds, or 0 to apply the default run timeout of the Job
+     *                  priority configured in the scheduler
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+
+    public void setTimeoutMs(long timeoutMs) throws IllegalArgumentException {
+        if (timeoutMs < 0L) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * @return tags of the Job, empty if the Job is not tagged
+     */
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Sets the tags of the Job, e.g. the tenant the Job belongs to, so that the Jobs with a tag
+     * can be cancelled at once {@link com.iza.jms.scheduler.JobScheduler#cancelByTag(String, boolean)}
+     * Null tags are ignored
+     *
+     * @param tags the tags, or none to remove the tags of the Job
+     */
+
+    public void setTags(String... tags) {
+        if (tags == null || tags.length == 0) {
+            this.tags = Collections.emptySet();
+            return;
+        }
+
+        Set<String> tagSet = new LinkedHashSet<>(Arrays.asList(tags));
+        tagSet.remove(null);
+        this.tags = Collections.unmodifiableSet(tagSet);
+    }
+
     @Override
     public String toString() {
         return "Job{" +
                 "jobName='" + jobName + '\'' +
-                ", jobId='" + jobId + '\'' +
+                ", jobId='" + getJobId() + '\'' +
                 ", jobStatus=" + jobStatus +
                 ", jobPriority=" + jobPriority +
                 ", jobSchedule=" + jobSchedule +
                 ", initialDelayMs=" + initialDelayMs +
                 ", periodMs=" + periodMs +
+                ", cronExpression=" + cronExpression +
+                ", jitterMs=" + jitterMs +
+                ", dedupKey=" + dedupKey +
+                ", tags=" + tags +
+                ", timeoutMs=" + timeoutMs +
                 '}';
     }
 }
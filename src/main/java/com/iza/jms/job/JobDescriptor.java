@@ -0,0 +1,118 @@
+package com.iza.jms.job;
+
+/**
+ * Serializable description of a durable Job, which allows the JMS scheduler
+ * {@link com.iza.jms.scheduler.JobScheduler} to record the Job in its journal and to recreate it
+ * after a restart. Instead of the task itself, the descriptor holds the name of a task type
+ * registered with the scheduler and the task arguments
+ */
+
+public class JobDescriptor {
+
+    private final String jobId;
+    private final String taskType;
+    private final String taskArgs;
+    private final String jobName;
+    private final JobPriority jobPriority;
+    private final long initialDelayMs;
+    private final long periodMs;
+
+    private JobDescriptor(String jobId,
+                          String taskType,
+                          String taskArgs,
+                          String jobName,
+                          JobPriority jobPriority,
+                          long initialDelayMs,
+                          long periodMs) {
+        this.jobId = jobId;
+        this.taskType = taskType;
+        this.taskArgs = taskArgs;
+        this.jobName = jobName;
+        this.jobPriority = jobPriority;
+        this.initialDelayMs = initialDelayMs;
+        this.periodMs = periodMs;
+    }
+
+    /**
+     * Creates a new JobDescriptor
+     * The Job is periodic if the period is positive, delayed if the initial delay is positive,
+     * and immediate otherwise
+     *
+     * @param jobId id of the described Job
+     * @param taskType name of the task type registered with the job scheduler
+     * @param taskArgs arguments passed to the task type to create the task
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param initialDelayMs delay before the Job first run in milliseconds, or 0
+     * @param periodMs delay after each consecutive Job run in milliseconds, or 0 for non-periodic jobs
+     * @return a JobDescriptor with the specified parameters
+     * @throws IllegalArgumentException if the parameters are invalid
+     */
+
+    public static JobDescriptor newDescriptor(String jobId,
+                                              String taskType,
+                                              String taskArgs,
+                                              String jobName,
+                                              JobPriority jobPriority,
+                                              long initialDelayMs,
+                                              long periodMs)
+            throws IllegalArgumentException {
+        if (jobId == null || taskType == null || taskArgs == null || jobName == null || jobPriority == null) {
+            throw new IllegalArgumentException("job descriptor parameters cannot be null");
+        }
+
+        if (initialDelayMs < 0L || periodMs < 0L) {
+            throw new IllegalArgumentException("initial delay and period must not be negative");
+        }
+
+        return new JobDescriptor(jobId, taskType, taskArgs, jobName, jobPriority, initialDelayMs, periodMs);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public String getTaskArgs() {
+        return taskArgs;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public JobPriority getJobPriority() {
+        return jobPriority;
+    }
+
+    public long getInitialDelayMs() {
+        return initialDelayMs;
+    }
+
+    public long getPeriodMs() {
+        return periodMs;
+    }
+
+    public JobSchedule getJobSchedule() {
+        if (periodMs > 0L) {
+            return JobSchedule.PERIODIC;
+        }
+        return initialDelayMs > 0L ? JobSchedule.DELAYED : JobSchedule.IMMEDIATE;
+    }
+
+    @Override
+    public String toString() {
+        return "JobDescriptor{" +
+                "jobId='" + jobId + '\'' +
+                ", taskType='" + taskType + '\'' +
+                ", taskArgs='" + taskArgs + '\'' +
+                ", jobName='" + jobName + '\'' +
+                ", jobPriority=" + jobPriority +
+                ", initialDelayMs=" + initialDelayMs +
+                ", periodMs=" + periodMs +
+                '}';
+    }
+}
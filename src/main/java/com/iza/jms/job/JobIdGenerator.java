@@ -0,0 +1,48 @@
+package com.iza.jms.job;
+
+/**
+ * Generator of the ids of the jobs {@link Job}
+ * Ids are compact positive longs, rendered as strings only when {@link Job#getJobId()} is called,
+ * so that creating a job neither contends on a shared random generator nor allocates the id string.
+ * The generator used for new jobs is set with {@link Job#setJobIdGenerator(JobIdGenerator)}
+ */
+
+public interface JobIdGenerator {
+
+    /**
+     * Generates the id of a new job, unique among the ids generated by the generator
+     *
+     * @return a positive id
+     */
+
+    long nextId();
+
+    /**
+     * Creates the default generator of ids, which hands out blocks of consecutive ids to threads,
+     * so that the ids are generated from thread-local counters without contention
+     * Ids increase within a thread, and start from the creation time of the generator shifted
+     * by 20 bits, so that they do not repeat after a restart unless over a million ids per
+     * millisecond of uptime were generated
+     *
+     * @return a new generator
+     */
+
+    static JobIdGenerator sequence() {
+        return new SequenceJobIdGenerator();
+    }
+
+    /**
+     * Creates a generator of ids in the snowflake format: 41 bits of milliseconds since 2021-01-01,
+     * 10 bits of the node id and 12 bits of the sequence number within the millisecond, so that
+     * jobs created by several service instances (e.g. sharing a job state database) have unique ids
+     * Ids increase across threads, which update a single atomic state without locking
+     *
+     * @param nodeId id of the service instance, from 0 to 1023
+     * @return a new generator
+     * @throws IllegalArgumentException if the node id is out of range
+     */
+
+    static JobIdGenerator snowflake(int nodeId) throws IllegalArgumentException {
+        return new SnowflakeJobIdGenerator(nodeId);
+    }
+}
@@ -20,5 +20,18 @@ public enum JobSchedule {
      * Run job periodically after the specified delay has passed after taking job from the queue
      * Delay between executions (period) is fixed and starts after the previous run has completed
      */
-    PERIODIC
+    PERIODIC,
+
+    /**
+     * Run job periodically after the specified delay has passed after taking job from the queue
+     * Runs start at a fixed rate, one period after the start of the previous run was due, regardless
+     * of the run duration. Runs which were missed while the previous run lasted are skipped
+     */
+    FIXED_RATE,
+
+    /**
+     * Run job at the fire times of its cron expression {@link CronExpression}
+     * Fire times which were missed while the previous run lasted are skipped
+     */
+    CRON
 }
@@ -29,5 +29,38 @@ public enum JobStatus {
     /**
      * Job failed to finish execution due to an unchecked exception
      */
-    FAILED
+    FAILED,
+
+    /**
+     * Job was dropped from the full job scheduler queue to make room for a job with a higher priority,
+     * or was not queued as a duplicate of a job in flight with the same dedup key
+     */
+    DROPPED,
+
+    /**
+     * Job was cancelled before its run started, or before its last run completed
+     */
+    CANCELLED,
+
+    /**
+     * Job run failed, and the job waits for its backoff delay to pass before it is run again
+     * according to its retry policy {@link RetryPolicy}
+     */
+    RETRYING,
+
+    /**
+     * Job was not queued, as it was merged into the job in flight with the same dedup key,
+     * whose next run serves both submissions
+     */
+    MERGED,
+
+    /**
+     * Job of a job graph waits for its upstream jobs to succeed before it is queued
+     */
+    WAITING,
+
+    /**
+     * Job run exceeded the run timeout of the job and was interrupted
+     */
+    TIMED_OUT
 }
@@ -0,0 +1,218 @@
+package com.iza.jms.job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy of retrying the failed runs of a Job by the JMS scheduler {@link com.iza.jms.scheduler.JobScheduler}
+ * A failed run is retried after an exponentially growing backoff delay, reduced by a random jitter so that
+ * jobs failing at the same time are not retried at once, until the maximum number of attempts is reached.
+ * Only the exceptions of the retryable classes (or of any class, if none is specified) are retried
+ */
+
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final List<Class<? extends Exception>> retryableExceptions;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMs = builder.initialBackoffMs;
+        this.maxBackoffMs = builder.maxBackoffMs;
+        this.backoffMultiplier = builder.backoffMultiplier;
+        this.jitter = builder.jitter;
+        this.retryableExceptions = Collections.unmodifiableList(new ArrayList<>(builder.retryableExceptions));
+    }
+
+    /**
+     * Creates a builder of RetryPolicy, initialized with 3 attempts and a backoff of 100 ms
+     * doubled after each attempt up to 30 s, reduced by a jitter of up to a half
+     *
+     * @return a new Builder
+     */
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks if a failed run may be retried
+     *
+     * @param attempt number of the failed attempt, starting from 1
+     * @param exception exception the run failed with
+     * @return true if the run may be retried
+     */
+
+    public boolean shouldRetry(int attempt, Exception exception) {
+        return attempt < maxAttempts && isRetryable(exception);
+    }
+
+    /**
+     * @return true if the exception is of a retryable class
+     */
+
+    public boolean isRetryable(Exception exception) {
+        if (exception == null) {
+            return false;
+        }
+        if (retryableExceptions.isEmpty()) {
+            return true;
+        }
+
+        for (Class<? extends Exception> retryableException : retryableExceptions) {
+            if (retryableException.isInstance(exception)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the backoff delay before retrying a failed attempt
+     *
+     * @param attempt number of the failed attempt, starting from 1
+     * @return the delay in milliseconds, including the jitter
+     */
+
+    public long getBackoffMs(int attempt) {
+        double backoffMs = initialBackoffMs * Math.pow(backoffMultiplier, attempt - 1);
+        backoffMs = Math.min(backoffMs, maxBackoffMs);
+
+        if (jitter > 0.0) {
+            backoffMs -= backoffMs * jitter * ThreadLocalRandom.current().nextDouble();
+        }
+        return (long) backoffMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public List<Class<? extends Exception>> getRetryableExceptions() {
+        return retryableExceptions;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", initialBackoffMs=" + initialBackoffMs +
+                ", maxBackoffMs=" + maxBackoffMs +
+                ", backoffMultiplier=" + backoffMultiplier +
+                ", jitter=" + jitter +
+                ", retryableExceptions=" + retryableExceptions +
+                '}';
+    }
+
+    /**
+     * Builder of RetryPolicy, validating the policy parameters
+     */
+
+    public static class Builder {
+
+        private int maxAttempts = 3;
+        private long initialBackoffMs = 100L;
+        private long maxBackoffMs = 30000L;
+        private double backoffMultiplier = 2.0;
+        private double jitter = 0.5;
+        private final List<Class<? extends Exception>> retryableExceptions = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxAttempts maximum number of runs, including the first one
+         */
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+            return this;
+        }
+
+        public Builder maxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+            return this;
+        }
+
+        public Builder backoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        /**
+         * @param jitter maximum fraction of the backoff delay removed at random, from 0 to 1
+         */
+
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Adds a class of the exceptions which are retried, together with its subclasses
+         */
+
+        public Builder retryOn(Class<? extends Exception> retryableException) {
+            this.retryableExceptions.add(retryableException);
+            return this;
+        }
+
+        /**
+         * Creates RetryPolicy with the values set in the builder
+         *
+         * @return a RetryPolicy
+         * @throws IllegalArgumentException if some parameters are invalid
+         */
+
+        public RetryPolicy build() throws IllegalArgumentException {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maximum number of attempts must be positive");
+            }
+
+            if (initialBackoffMs < 0L || maxBackoffMs < initialBackoffMs) {
+                throw new IllegalArgumentException("backoff must not be negative and must not exceed maximum backoff");
+            }
+
+            if (!(backoffMultiplier >= 1.0)) {
+                throw new IllegalArgumentException("backoff multiplier must be at least 1");
+            }
+
+            if (!(jitter >= 0.0 && jitter <= 1.0)) {
+                throw new IllegalArgumentException("jitter must be between 0 and 1");
+            }
+
+            if (retryableExceptions.contains(null)) {
+                throw new IllegalArgumentException("retryable exception class cannot be null");
+            }
+
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.iza.jms.job;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of job ids {@link JobIdGenerator} handing out blocks of consecutive ids to threads
+ * A thread takes ids from its block without synchronization, and touches the shared counter
+ * once per block
+ */
+
+class SequenceJobIdGenerator implements JobIdGenerator {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private final AtomicLong nextBlockStart = new AtomicLong(System.currentTimeMillis() << 20);
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    @Override
+    public long nextId() {
+        Block block = blocks.get();
+        if (block.next == block.end) {
+            block.next = nextBlockStart.getAndAdd(BLOCK_SIZE);
+            block.end = block.next + BLOCK_SIZE;
+        }
+        return block.next++;
+    }
+
+    private static class Block {
+
+        private long next;
+        private long end;
+    }
+}
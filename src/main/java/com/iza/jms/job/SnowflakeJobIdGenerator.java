@@ -0,0 +1,44 @@
+package com.iza.jms.job;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of job ids {@link JobIdGenerator} in the snowflake format
+ * The state holds the millisecond and the sequence number of the last id. When the sequence
+ * numbers of a millisecond are exhausted, ids are taken from the next millisecond rather than
+ * waiting for it, so that ids stay unique and increasing
+ */
+
+class SnowflakeJobIdGenerator implements JobIdGenerator {
+
+    // 2021-01-01T00:00:00Z
+    private static final long EPOCH_MS = 1609459200000L;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1L;
+
+    private final long nodeBits;
+    private final AtomicLong lastState = new AtomicLong();
+
+    SnowflakeJobIdGenerator(int nodeId) throws IllegalArgumentException {
+        if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("node id must be from 0 to " + ((1 << NODE_BITS) - 1));
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    @Override
+    public long nextId() {
+        long nowState = (System.currentTimeMillis() - EPOCH_MS) << SEQUENCE_BITS;
+
+        long last;
+        long next;
+        do {
+            last = lastState.get();
+            next = Math.max(nowState, last + 1L);
+        } while (!lastState.compareAndSet(last, next));
+
+        return (next >>> SEQUENCE_BITS) << (SEQUENCE_BITS + NODE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+    }
+}
@@ -1,9 +1,18 @@
 package com.iza.jms.properties;
 
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.scheduler.DedupPolicy;
+import com.iza.jms.scheduler.ExecutionMode;
+import com.iza.jms.scheduler.JobLimit;
+import com.iza.jms.scheduler.QueueOverflowPolicy;
+import com.iza.jms.scheduler.TimerEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
 /**
@@ -19,6 +28,38 @@ public class PropertiesReader {
     private static final String defaultJobThreadPoolSize = "10";
     private static final String defaultJobQueueSize = "100";
     private static final String defaultSchedulerShutdownTimeoutSec = "10";
+    private static final String defaultQueueOverflowPolicy = "REJECT";
+    private static final String defaultQueueOfferTimeoutMs = "1000";
+    private static final String defaultCompletedJobRetentionMs = "60000";
+    private static final String defaultCompletedJobRetentionCount = "10000";
+    private static final String defaultTimerEngine = "EXECUTOR";
+    private static final String defaultTimerTickMs = "10";
+    private static final String defaultExecutionMode = "POOL";
+    private static final String defaultVirtualConcurrencyLimit = "10000";
+    private static final String defaultMetricsJmxEnabled = "true";
+    private static final String defaultResultStoreMaxCount = "1000";
+    private static final String defaultResultStoreMaxBytes = "67108864";
+    private static final String defaultResultRetentionMs = "300000";
+    private static final String defaultJournalDir = "";
+    private static final String defaultJournalSegmentSize = "67108864";
+    private static final String defaultJournalFlushIntervalMs = "10";
+    private static final String defaultStateSinkFile = "";
+    private static final String defaultStateSinkJdbcUrl = "";
+    private static final String defaultStateBatchWindowMs = "100";
+    private static final String defaultStateBufferSize = "65536";
+    private static final String defaultJobLimits = "";
+    private static final String defaultDeadLetterQueueSize = "1000";
+    private static final String defaultDedupPolicy = "MERGE";
+    private static final String defaultQueueAgingMs = "10000";
+    private static final String defaultRunLogRatePerSec = "10";
+    private static final String defaultRunTimeouts = "";
+    private static final String defaultElasticPoolEnabled = "false";
+    private static final String defaultElasticPoolMinSize = "1";
+    private static final String defaultElasticPoolMaxSize = "100";
+    private static final String defaultElasticPoolIntervalMs = "1000";
+    private static final String defaultElasticPoolTargetWaitMs = "100";
+    private static final String defaultElasticPoolCpuSaturation = "0.9";
+    private static final String defaultConfigWatchFile = "";
 
     private static final Logger logger = LoggerFactory.getLogger(PropertiesReader.class);
 
@@ -37,10 +78,7 @@ public class PropertiesReader {
 
     public static Props readProperties(String propertiesFilePath) {
 
-        Properties defaultProperties = new Properties();
-        defaultProperties.setProperty("THREAD_POOL_SIZE", defaultJobThreadPoolSize);
-        defaultProperties.setProperty("QUEUE_SIZE", defaultJobQueueSize);
-        defaultProperties.setProperty("SHUTDOWN_TIMEOUT", defaultSchedulerShutdownTimeoutSec);
+        Properties defaultProperties = defaultProperties();
 
         Properties properties = new Properties(defaultProperties);
 
@@ -61,27 +99,187 @@ public class PropertiesReader {
 
     private static Props parseProperties(Properties properties, Properties defaultProperties) {
 
-        int jobThreadPoolSize;
-        int jobQueueSize;
-        int schedulerShutdownTimeout;
-
         try {
-            jobThreadPoolSize = Integer.parseInt(properties.getProperty("THREAD_POOL_SIZE"));
-            jobQueueSize = Integer.parseInt(properties.getProperty("QUEUE_SIZE"));
-            schedulerShutdownTimeout = Integer.parseInt(properties.getProperty("SHUTDOWN_TIMEOUT"));
-
-            if (jobThreadPoolSize <= 0 || jobQueueSize <= 0 || schedulerShutdownTimeout <= 0) {
-                throw new NumberFormatException("negative properties values");
-            }
-        } catch (NumberFormatException e) {
+            return buildProps(properties);
+        } catch (IllegalArgumentException e) {
             logger.warn("Unable to parse properties, using defaults");
             logger.debug("An exception occurred: ", e);
 
-            jobThreadPoolSize = Integer.parseInt(defaultProperties.getProperty("THREAD_POOL_SIZE"));
-            jobQueueSize = Integer.parseInt(defaultProperties.getProperty("QUEUE_SIZE"));
-            schedulerShutdownTimeout = Integer.parseInt(defaultProperties.getProperty("SHUTDOWN_TIMEOUT"));
+            return buildProps(defaultProperties);
+        }
+    }
+
+    /**
+     * Reads the job scheduler properties from a properties file on the filesystem, e.g. a file
+     * reloaded while the job scheduler is running, without falling back to the defaults
+     * If some properties are not specified in the properties file,
+     * default values are returned for the respective parameters
+     *
+     * @param propertiesFile path to the properties file
+     * @return Props object with configuration properties
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file contains invalid values
+     */
+
+    public static Props readPropertiesFile(Path propertiesFile) throws IOException, IllegalArgumentException {
+        Properties properties = new Properties(defaultProperties());
+        try (InputStream inputStream = Files.newInputStream(propertiesFile)) {
+            properties.load(inputStream);
+        }
+        return buildProps(properties);
+    }
+
+    private static Properties defaultProperties() {
+        Properties defaultProperties = new Properties();
+        defaultProperties.setProperty("THREAD_POOL_SIZE", defaultJobThreadPoolSize);
+        defaultProperties.setProperty("QUEUE_SIZE", defaultJobQueueSize);
+        defaultProperties.setProperty("SHUTDOWN_TIMEOUT", defaultSchedulerShutdownTimeoutSec);
+        defaultProperties.setProperty("QUEUE_OVERFLOW_POLICY", defaultQueueOverflowPolicy);
+        defaultProperties.setProperty("QUEUE_OFFER_TIMEOUT_MS", defaultQueueOfferTimeoutMs);
+        defaultProperties.setProperty("COMPLETED_JOB_RETENTION_MS", defaultCompletedJobRetentionMs);
+        defaultProperties.setProperty("COMPLETED_JOB_RETENTION_COUNT", defaultCompletedJobRetentionCount);
+        defaultProperties.setProperty("TIMER_ENGINE", defaultTimerEngine);
+        defaultProperties.setProperty("TIMER_TICK_MS", defaultTimerTickMs);
+        defaultProperties.setProperty("EXECUTION_MODE", defaultExecutionMode);
+        defaultProperties.setProperty("VIRTUAL_CONCURRENCY_LIMIT", defaultVirtualConcurrencyLimit);
+        defaultProperties.setProperty("METRICS_JMX_ENABLED", defaultMetricsJmxEnabled);
+        defaultProperties.setProperty("RESULT_STORE_MAX_COUNT", defaultResultStoreMaxCount);
+        defaultProperties.setProperty("RESULT_STORE_MAX_BYTES", defaultResultStoreMaxBytes);
+        defaultProperties.setProperty("RESULT_RETENTION_MS", defaultResultRetentionMs);
+        defaultProperties.setProperty("JOURNAL_DIR", defaultJournalDir);
+        defaultProperties.setProperty("JOURNAL_SEGMENT_SIZE", defaultJournalSegmentSize);
+        defaultProperties.setProperty("JOURNAL_FLUSH_INTERVAL_MS", defaultJournalFlushIntervalMs);
+        defaultProperties.setProperty("STATE_SINK_FILE", defaultStateSinkFile);
+        defaultProperties.setProperty("STATE_SINK_JDBC_URL", defaultStateSinkJdbcUrl);
+        defaultProperties.setProperty("STATE_BATCH_WINDOW_MS", defaultStateBatchWindowMs);
+        defaultProperties.setProperty("STATE_BUFFER_SIZE", defaultStateBufferSize);
+        defaultProperties.setProperty("JOB_LIMITS", defaultJobLimits);
+        defaultProperties.setProperty("DEAD_LETTER_QUEUE_SIZE", defaultDeadLetterQueueSize);
+        defaultProperties.setProperty("DEDUP_POLICY", defaultDedupPolicy);
+        defaultProperties.setProperty("QUEUE_AGING_MS", defaultQueueAgingMs);
+        defaultProperties.setProperty("RUN_LOG_RATE_PER_SEC", defaultRunLogRatePerSec);
+        defaultProperties.setProperty("RUN_TIMEOUTS_MS", defaultRunTimeouts);
+        defaultProperties.setProperty("ELASTIC_POOL_ENABLED", defaultElasticPoolEnabled);
+        defaultProperties.setProperty("ELASTIC_POOL_MIN_SIZE", defaultElasticPoolMinSize);
+        defaultProperties.setProperty("ELASTIC_POOL_MAX_SIZE", defaultElasticPoolMaxSize);
+        defaultProperties.setProperty("ELASTIC_POOL_INTERVAL_MS", defaultElasticPoolIntervalMs);
+        defaultProperties.setProperty("ELASTIC_POOL_TARGET_WAIT_MS", defaultElasticPoolTargetWaitMs);
+        defaultProperties.setProperty("ELASTIC_POOL_CPU_SATURATION", defaultElasticPoolCpuSaturation);
+        defaultProperties.setProperty("CONFIG_WATCH_FILE", defaultConfigWatchFile);
+        return defaultProperties;
+    }
+
+    private static Props buildProps(Properties properties) throws IllegalArgumentException {
+        Props.Builder builder = Props.builder();
+        jobLimitsProperty(properties, "JOB_LIMITS", builder);
+        runTimeoutsProperty(properties, "RUN_TIMEOUTS_MS", builder);
+
+        return builder
+                .jobThreadPoolSize(intProperty(properties, "THREAD_POOL_SIZE"))
+                .jobQueueSize(intProperty(properties, "QUEUE_SIZE"))
+                .schedulerShutdownTimeoutSec(intProperty(properties, "SHUTDOWN_TIMEOUT"))
+                .queueOverflowPolicy(enumProperty(properties, "QUEUE_OVERFLOW_POLICY", QueueOverflowPolicy.class))
+                .queueOfferTimeoutMs(longProperty(properties, "QUEUE_OFFER_TIMEOUT_MS"))
+                .completedJobRetentionMs(longProperty(properties, "COMPLETED_JOB_RETENTION_MS"))
+                .completedJobRetentionCount(intProperty(properties, "COMPLETED_JOB_RETENTION_COUNT"))
+                .timerEngine(enumProperty(properties, "TIMER_ENGINE", TimerEngine.class))
+                .timerTickMs(longProperty(properties, "TIMER_TICK_MS"))
+                .executionMode(enumProperty(properties, "EXECUTION_MODE", ExecutionMode.class))
+                .virtualConcurrencyLimit(intProperty(properties, "VIRTUAL_CONCURRENCY_LIMIT"))
+                .metricsJmxEnabled(booleanProperty(properties, "METRICS_JMX_ENABLED"))
+                .resultStoreMaxCount(intProperty(properties, "RESULT_STORE_MAX_COUNT"))
+                .resultStoreMaxBytes(longProperty(properties, "RESULT_STORE_MAX_BYTES"))
+                .resultRetentionMs(longProperty(properties, "RESULT_RETENTION_MS"))
+                .journalDir(stringProperty(properties, "JOURNAL_DIR"))
+                .journalSegmentSize(intProperty(properties, "JOURNAL_SEGMENT_SIZE"))
+                .journalFlushIntervalMs(longProperty(properties, "JOURNAL_FLUSH_INTERVAL_MS"))
+                .stateSinkFile(stringProperty(properties, "STATE_SINK_FILE"))
+                .stateSinkJdbcUrl(stringProperty(properties, "STATE_SINK_JDBC_URL"))
+                .stateBatchWindowMs(longProperty(properties, "STATE_BATCH_WINDOW_MS"))
+                .stateBufferSize(intProperty(properties, "STATE_BUFFER_SIZE"))
+                .deadLetterQueueSize(intProperty(properties, "DEAD_LETTER_QUEUE_SIZE"))
+                .dedupPolicy(enumProperty(properties, "DEDUP_POLICY", DedupPolicy.class))
+                .queueAgingMs(longProperty(properties, "QUEUE_AGING_MS"))
+                .runLogRatePerSec(intProperty(properties, "RUN_LOG_RATE_PER_SEC"))
+                .elasticPoolEnabled(booleanProperty(properties, "ELASTIC_POOL_ENABLED"))
+                .elasticPoolMinSize(intProperty(properties, "ELASTIC_POOL_MIN_SIZE"))
+                .elasticPoolMaxSize(intProperty(properties, "ELASTIC_POOL_MAX_SIZE"))
+                .elasticPoolIntervalMs(longProperty(properties, "ELASTIC_POOL_INTERVAL_MS"))
+                .elasticPoolTargetWaitMs(longProperty(properties, "ELASTIC_POOL_TARGET_WAIT_MS"))
+                .elasticPoolCpuSaturation(doubleProperty(properties, "ELASTIC_POOL_CPU_SATURATION"))
+                .configWatchFile(stringProperty(properties, "CONFIG_WATCH_FILE"))
+                .build();
+    }
+
+    private static int intProperty(Properties properties, String key) throws NumberFormatException {
+        return Integer.parseInt(properties.getProperty(key).trim());
+    }
+
+    private static long longProperty(Properties properties, String key) throws NumberFormatException {
+        return Long.parseLong(properties.getProperty(key).trim());
+    }
+
+    private static double doubleProperty(Properties properties, String key) throws NumberFormatException {
+        return Double.parseDouble(properties.getProperty(key).trim());
+    }
+
+    private static String stringProperty(Properties properties, String key) {
+        return properties.getProperty(key).trim();
+    }
+
+    private static boolean booleanProperty(Properties properties, String key) throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("invalid boolean value of " + key + ": " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Parses the job limits, a comma-separated list of jobName:maxConcurrentRuns:maxStartsPerSecond
+     * entries, e.g. "pingJob:2:0,reportJob:1:0.5", into the builder
+     */
+
+    private static void jobLimitsProperty(Properties properties, String key, Props.Builder builder)
+            throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        if (value.isEmpty()) {
+            return;
+        }
+
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3 || parts[0].isEmpty()) {
+                throw new IllegalArgumentException("invalid job limit in " + key + ": " + entry);
+            }
+            builder.jobLimit(parts[0], JobLimit.newLimit(Integer.parseInt(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim())));
+        }
+    }
+
+    /**
+     * Parses the default run timeouts, a comma-separated list of priority:timeoutMs entries,
+     * e.g. "HIGH:10000,LOW:60000", into the builder
+     */
+
+    private static void runTimeoutsProperty(Properties properties, String key, Props.Builder builder)
+            throws IllegalArgumentException {
+        String value = properties.getProperty(key).trim();
+        if (value.isEmpty()) {
+            return;
         }
 
-        return new Props(jobThreadPoolSize, jobQueueSize, schedulerShutdownTimeout);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("invalid run timeout in " + key + ": " + entry);
+            }
+            builder.runTimeoutMs(JobPriority.valueOf(parts[0].trim().toUpperCase()), Long.parseLong(parts[1].trim()));
+        }
+    }
+
+    private static <E extends Enum<E>> E enumProperty(Properties properties, String key, Class<E> enumType)
+            throws IllegalArgumentException {
+        return Enum.valueOf(enumType, properties.getProperty(key).trim().toUpperCase());
     }
 }
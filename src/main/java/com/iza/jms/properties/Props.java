@@ -1,5 +1,17 @@
 package com.iza.jms.properties;
 
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.scheduler.DedupPolicy;
+import com.iza.jms.scheduler.ExecutionMode;
+import com.iza.jms.scheduler.JobLimit;
+import com.iza.jms.scheduler.QueueOverflowPolicy;
+import com.iza.jms.scheduler.TimerEngine;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Object that holds configurable properties of a job scheduler
  * {@link com.iza.jms.scheduler.JobScheduler}
@@ -13,11 +25,92 @@ public class Props {
     private final int jobThreadPoolSize;
     private final int jobQueueSize;
     private final int schedulerShutdownTimeoutSec;
+    private final QueueOverflowPolicy queueOverflowPolicy;
+    private final long queueOfferTimeoutMs;
+    private final long completedJobRetentionMs;
+    private final int completedJobRetentionCount;
+    private final TimerEngine timerEngine;
+    private final long timerTickMs;
+    private final ExecutionMode executionMode;
+    private final int virtualConcurrencyLimit;
+    private final boolean metricsJmxEnabled;
+    private final int resultStoreMaxCount;
+    private final long resultStoreMaxBytes;
+    private final long resultRetentionMs;
+    private final String journalDir;
+    private final int journalSegmentSize;
+    private final long journalFlushIntervalMs;
+    private final String stateSinkFile;
+    private final String stateSinkJdbcUrl;
+    private final long stateBatchWindowMs;
+    private final int stateBufferSize;
+    private final Map<String, JobLimit> jobLimits;
+    private final int deadLetterQueueSize;
+    private final DedupPolicy dedupPolicy;
+    private final long queueAgingMs;
+    private final int runLogRatePerSec;
+    private final Map<JobPriority, Long> runTimeoutsMs;
+    private final boolean elasticPoolEnabled;
+    private final int elasticPoolMinSize;
+    private final int elasticPoolMaxSize;
+    private final long elasticPoolIntervalMs;
+    private final long elasticPoolTargetWaitMs;
+    private final double elasticPoolCpuSaturation;
+    private final String configWatchFile;
 
     public Props(int jobThreadPoolSize, int jobQueueSize, int schedulerShutdownTimeoutSec) {
-        this.jobThreadPoolSize = jobThreadPoolSize;
-        this.jobQueueSize = jobQueueSize;
-        this.schedulerShutdownTimeoutSec = schedulerShutdownTimeoutSec;
+        this(builder()
+                .jobThreadPoolSize(jobThreadPoolSize)
+                .jobQueueSize(jobQueueSize)
+                .schedulerShutdownTimeoutSec(schedulerShutdownTimeoutSec));
+    }
+
+    private Props(Builder builder) {
+        this.jobThreadPoolSize = builder.jobThreadPoolSize;
+        this.jobQueueSize = builder.jobQueueSize;
+        this.schedulerShutdownTimeoutSec = builder.schedulerShutdownTimeoutSec;
+        this.queueOverflowPolicy = builder.queueOverflowPolicy;
+        this.queueOfferTimeoutMs = builder.queueOfferTimeoutMs;
+        this.completedJobRetentionMs = builder.completedJobRetentionMs;
+        this.completedJobRetentionCount = builder.completedJobRetentionCount;
+        this.timerEngine = builder.timerEngine;
+        this.timerTickMs = builder.timerTickMs;
+        this.executionMode = builder.executionMode;
+        this.virtualConcurrencyLimit = builder.virtualConcurrencyLimit;
+        this.metricsJmxEnabled = builder.metricsJmxEnabled;
+        this.resultStoreMaxCount = builder.resultStoreMaxCount;
+        this.resultStoreMaxBytes = builder.resultStoreMaxBytes;
+        this.resultRetentionMs = builder.resultRetentionMs;
+        this.journalDir = builder.journalDir;
+        this.journalSegmentSize = builder.journalSegmentSize;
+        this.journalFlushIntervalMs = builder.journalFlushIntervalMs;
+        this.stateSinkFile = builder.stateSinkFile;
+        this.stateSinkJdbcUrl = builder.stateSinkJdbcUrl;
+        this.stateBatchWindowMs = builder.stateBatchWindowMs;
+        this.stateBufferSize = builder.stateBufferSize;
+        this.jobLimits = Collections.unmodifiableMap(new LinkedHashMap<>(builder.jobLimits));
+        this.deadLetterQueueSize = builder.deadLetterQueueSize;
+        this.dedupPolicy = builder.dedupPolicy;
+        this.queueAgingMs = builder.queueAgingMs;
+        this.runLogRatePerSec = builder.runLogRatePerSec;
+        this.runTimeoutsMs = Collections.unmodifiableMap(new EnumMap<>(builder.runTimeoutsMs));
+        this.elasticPoolEnabled = builder.elasticPoolEnabled;
+        this.elasticPoolMinSize = builder.elasticPoolMinSize;
+        this.elasticPoolMaxSize = builder.elasticPoolMaxSize;
+        this.elasticPoolIntervalMs = builder.elasticPoolIntervalMs;
+        this.elasticPoolTargetWaitMs = builder.elasticPoolTargetWaitMs;
+        this.elasticPoolCpuSaturation = builder.elasticPoolCpuSaturation;
+        this.configWatchFile = builder.configWatchFile;
+    }
+
+    /**
+     * Creates a builder of Props, initialized with the default property values
+     *
+     * @return a new Builder
+     */
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     public int getJobThreadPoolSize() {
@@ -32,12 +125,549 @@ public class Props {
         return schedulerShutdownTimeoutSec;
     }
 
+    public QueueOverflowPolicy getQueueOverflowPolicy() {
+        return queueOverflowPolicy;
+    }
+
+    public long getQueueOfferTimeoutMs() {
+        return queueOfferTimeoutMs;
+    }
+
+    public long getCompletedJobRetentionMs() {
+        return completedJobRetentionMs;
+    }
+
+    public int getCompletedJobRetentionCount() {
+        return completedJobRetentionCount;
+    }
+
+    public TimerEngine getTimerEngine() {
+        return timerEngine;
+    }
+
+    public long getTimerTickMs() {
+        return timerTickMs;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public int getVirtualConcurrencyLimit() {
+        return virtualConcurrencyLimit;
+    }
+
+    public boolean isMetricsJmxEnabled() {
+        return metricsJmxEnabled;
+    }
+
+    public int getResultStoreMaxCount() {
+        return resultStoreMaxCount;
+    }
+
+    public long getResultStoreMaxBytes() {
+        return resultStoreMaxBytes;
+    }
+
+    public long getResultRetentionMs() {
+        return resultRetentionMs;
+    }
+
+    public String getJournalDir() {
+        return journalDir;
+    }
+
+    public int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    public long getJournalFlushIntervalMs() {
+        return journalFlushIntervalMs;
+    }
+
+    public String getStateSinkFile() {
+        return stateSinkFile;
+    }
+
+    public String getStateSinkJdbcUrl() {
+        return stateSinkJdbcUrl;
+    }
+
+    public long getStateBatchWindowMs() {
+        return stateBatchWindowMs;
+    }
+
+    public int getStateBufferSize() {
+        return stateBufferSize;
+    }
+
+    /**
+     * @return limits of the job runs {@link JobLimit} by job name
+     */
+
+    public Map<String, JobLimit> getJobLimits() {
+        return jobLimits;
+    }
+
+    public int getDeadLetterQueueSize() {
+        return deadLetterQueueSize;
+    }
+
+    public DedupPolicy getDedupPolicy() {
+        return dedupPolicy;
+    }
+
+    public long getQueueAgingMs() {
+        return queueAgingMs;
+    }
+
+    public int getRunLogRatePerSec() {
+        return runLogRatePerSec;
+    }
+
+    /**
+     * @return default run timeouts in milliseconds by job priority, for the jobs without their own timeout
+     */
+
+    public Map<JobPriority, Long> getRunTimeoutsMs() {
+        return runTimeoutsMs;
+    }
+
+    public boolean isElasticPoolEnabled() {
+        return elasticPoolEnabled;
+    }
+
+    public int getElasticPoolMinSize() {
+        return elasticPoolMinSize;
+    }
+
+    public int getElasticPoolMaxSize() {
+        return elasticPoolMaxSize;
+    }
+
+    public long getElasticPoolIntervalMs() {
+        return elasticPoolIntervalMs;
+    }
+
+    public long getElasticPoolTargetWaitMs() {
+        return elasticPoolTargetWaitMs;
+    }
+
+    public double getElasticPoolCpuSaturation() {
+        return elasticPoolCpuSaturation;
+    }
+
+    public String getConfigWatchFile() {
+        return configWatchFile;
+    }
+
     @Override
     public String toString() {
         return "Props{" +
                 "jobThreadPoolSize=" + jobThreadPoolSize +
                 ", jobQueueSize=" + jobQueueSize +
                 ", schedulerShutdownTimeoutSec=" + schedulerShutdownTimeoutSec +
+                ", queueOverflowPolicy=" + queueOverflowPolicy +
+                ", queueOfferTimeoutMs=" + queueOfferTimeoutMs +
+                ", completedJobRetentionMs=" + completedJobRetentionMs +
+                ", completedJobRetentionCount=" + completedJobRetentionCount +
+                ", timerEngine=" + timerEngine +
+                ", timerTickMs=" + timerTickMs +
+                ", executionMode=" + executionMode +
+                ", virtualConcurrencyLimit=" + virtualConcurrencyLimit +
+                ", metricsJmxEnabled=" + metricsJmxEnabled +
+                ", resultStoreMaxCount=" + resultStoreMaxCount +
+                ", resultStoreMaxBytes=" + resultStoreMaxBytes +
+                ", resultRetentionMs=" + resultRetentionMs +
+                ", journalDir=" + journalDir +
+                ", journalSegmentSize=" + journalSegmentSize +
+                ", journalFlushIntervalMs=" + journalFlushIntervalMs +
+                ", stateSinkFile=" + stateSinkFile +
+                ", stateSinkJdbcUrl=" + stateSinkJdbcUrl +
+                ", stateBatchWindowMs=" + stateBatchWindowMs +
+                ", stateBufferSize=" + stateBufferSize +
+                ", jobLimits=" + jobLimits +
+                ", deadLetterQueueSize=" + deadLetterQueueSize +
+                ", dedupPolicy=" + dedupPolicy +
+                ", queueAgingMs=" + queueAgingMs +
+                ", runLogRatePerSec=" + runLogRatePerSec +
+                ", runTimeoutsMs=" + runTimeoutsMs +
+                ", elasticPoolEnabled=" + elasticPoolEnabled +
+                ", elasticPoolMinSize=" + elasticPoolMinSize +
+                ", elasticPoolMaxSize=" + elasticPoolMaxSize +
+                ", elasticPoolIntervalMs=" + elasticPoolIntervalMs +
+                ", elasticPoolTargetWaitMs=" + elasticPoolTargetWaitMs +
+                ", elasticPoolCpuSaturation=" + elasticPoolCpuSaturation +
+                ", configWatchFile=" + configWatchFile +
                 '}';
     }
+
+    /**
+     * Builder of Props, validating the property values
+     */
+
+    public static class Builder {
+
+        private int jobThreadPoolSize = 10;
+        private int jobQueueSize = 100;
+        private int schedulerShutdownTimeoutSec = 10;
+        private QueueOverflowPolicy queueOverflowPolicy = QueueOverflowPolicy.REJECT;
+        private long queueOfferTimeoutMs = 1000L;
+        private long completedJobRetentionMs = 60000L;
+        private int completedJobRetentionCount = 10000;
+        private TimerEngine timerEngine = TimerEngine.EXECUTOR;
+        private long timerTickMs = 10L;
+        private ExecutionMode executionMode = ExecutionMode.POOL;
+        private int virtualConcurrencyLimit = 10000;
+        private boolean metricsJmxEnabled = true;
+        private int resultStoreMaxCount = 1000;
+        private long resultStoreMaxBytes = 67108864L;
+        private long resultRetentionMs = 300000L;
+        private String journalDir = "";
+        private int journalSegmentSize = 67108864;
+        private long journalFlushIntervalMs = 10L;
+        private String stateSinkFile = "";
+        private String stateSinkJdbcUrl = "";
+        private long stateBatchWindowMs = 100L;
+        private int stateBufferSize = 65536;
+        private final Map<String, JobLimit> jobLimits = new LinkedHashMap<>();
+        private int deadLetterQueueSize = 1000;
+        private DedupPolicy dedupPolicy = DedupPolicy.MERGE;
+        private long queueAgingMs = 10000L;
+        private int runLogRatePerSec = 10;
+        private final Map<JobPriority, Long> runTimeoutsMs = new EnumMap<>(JobPriority.class);
+        private boolean elasticPoolEnabled = false;
+        private int elasticPoolMinSize = 1;
+        private int elasticPoolMaxSize = 100;
+        private long elasticPoolIntervalMs = 1000L;
+        private long elasticPoolTargetWaitMs = 100L;
+        private double elasticPoolCpuSaturation = 0.9;
+        private String configWatchFile = "";
+
+        private Builder() {
+        }
+
+        public Builder jobThreadPoolSize(int jobThreadPoolSize) {
+            this.jobThreadPoolSize = jobThreadPoolSize;
+            return this;
+        }
+
+        public Builder jobQueueSize(int jobQueueSize) {
+            this.jobQueueSize = jobQueueSize;
+            return this;
+        }
+
+        public Builder schedulerShutdownTimeoutSec(int schedulerShutdownTimeoutSec) {
+            this.schedulerShutdownTimeoutSec = schedulerShutdownTimeoutSec;
+            return this;
+        }
+
+        public Builder queueOverflowPolicy(QueueOverflowPolicy queueOverflowPolicy) {
+            this.queueOverflowPolicy = queueOverflowPolicy;
+            return this;
+        }
+
+        public Builder queueOfferTimeoutMs(long queueOfferTimeoutMs) {
+            this.queueOfferTimeoutMs = queueOfferTimeoutMs;
+            return this;
+        }
+
+        public Builder completedJobRetentionMs(long completedJobRetentionMs) {
+            this.completedJobRetentionMs = completedJobRetentionMs;
+            return this;
+        }
+
+        public Builder completedJobRetentionCount(int completedJobRetentionCount) {
+            this.completedJobRetentionCount = completedJobRetentionCount;
+            return this;
+        }
+
+        public Builder timerEngine(TimerEngine timerEngine) {
+            this.timerEngine = timerEngine;
+            return this;
+        }
+
+        public Builder timerTickMs(long timerTickMs) {
+            this.timerTickMs = timerTickMs;
+            return this;
+        }
+
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public Builder virtualConcurrencyLimit(int virtualConcurrencyLimit) {
+            this.virtualConcurrencyLimit = virtualConcurrencyLimit;
+            return this;
+        }
+
+        public Builder metricsJmxEnabled(boolean metricsJmxEnabled) {
+            this.metricsJmxEnabled = metricsJmxEnabled;
+            return this;
+        }
+
+        public Builder resultStoreMaxCount(int resultStoreMaxCount) {
+            this.resultStoreMaxCount = resultStoreMaxCount;
+            return this;
+        }
+
+        public Builder resultStoreMaxBytes(long resultStoreMaxBytes) {
+            this.resultStoreMaxBytes = resultStoreMaxBytes;
+            return this;
+        }
+
+        public Builder resultRetentionMs(long resultRetentionMs) {
+            this.resultRetentionMs = resultRetentionMs;
+            return this;
+        }
+
+        public Builder journalDir(String journalDir) {
+            this.journalDir = journalDir;
+            return this;
+        }
+
+        public Builder journalSegmentSize(int journalSegmentSize) {
+            this.journalSegmentSize = journalSegmentSize;
+            return this;
+        }
+
+        public Builder journalFlushIntervalMs(long journalFlushIntervalMs) {
+            this.journalFlushIntervalMs = journalFlushIntervalMs;
+            return this;
+        }
+
+        public Builder stateSinkFile(String stateSinkFile) {
+            this.stateSinkFile = stateSinkFile;
+            return this;
+        }
+
+        public Builder stateSinkJdbcUrl(String stateSinkJdbcUrl) {
+            this.stateSinkJdbcUrl = stateSinkJdbcUrl;
+            return this;
+        }
+
+        public Builder stateBatchWindowMs(long stateBatchWindowMs) {
+            this.stateBatchWindowMs = stateBatchWindowMs;
+            return this;
+        }
+
+        public Builder stateBufferSize(int stateBufferSize) {
+            this.stateBufferSize = stateBufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the limit of the runs of the jobs with the specified name
+         *
+         * @param jobName name of the limited jobs
+         * @param jobLimit the limit {@link JobLimit}
+         * @return this builder
+         * @throws IllegalArgumentException if the job name or the limit is null
+         */
+
+        public Builder jobLimit(String jobName, JobLimit jobLimit) throws IllegalArgumentException {
+            if (jobName == null || jobLimit == null) {
+                throw new IllegalArgumentException("job name and limit cannot be null");
+            }
+            this.jobLimits.put(jobName, jobLimit);
+            return this;
+        }
+
+        public Builder deadLetterQueueSize(int deadLetterQueueSize) {
+            this.deadLetterQueueSize = deadLetterQueueSize;
+            return this;
+        }
+
+        public Builder dedupPolicy(DedupPolicy dedupPolicy) {
+            this.dedupPolicy = dedupPolicy;
+            return this;
+        }
+
+        public Builder queueAgingMs(long queueAgingMs) {
+            this.queueAgingMs = queueAgingMs;
+            return this;
+        }
+
+        public Builder runLogRatePerSec(int runLogRatePerSec) {
+            this.runLogRatePerSec = runLogRatePerSec;
+            return this;
+        }
+
+        /**
+         * Sets the default run timeout of the jobs with the specified priority, applied to the jobs
+         * without their own timeout {@link com.iza.jms.job.Job#setTimeoutMs(long)}
+         *
+         * @param jobPriority priority of the jobs
+         * @param timeoutMs the timeout in milliseconds, or 0 if the runs are not limited
+         * @return this builder
+         * @throws IllegalArgumentException if the priority is null or the timeout is negative
+         */
+
+        public Builder runTimeoutMs(JobPriority jobPriority, long timeoutMs) throws IllegalArgumentException {
+            if (jobPriority == null || timeoutMs < 0L) {
+                throw new IllegalArgumentException("job priority cannot be null and run timeout must not be negative");
+            }
+            this.runTimeoutsMs.put(jobPriority, timeoutMs);
+            return this;
+        }
+
+        public Builder elasticPoolEnabled(boolean elasticPoolEnabled) {
+            this.elasticPoolEnabled = elasticPoolEnabled;
+            return this;
+        }
+
+        public Builder elasticPoolMinSize(int elasticPoolMinSize) {
+            this.elasticPoolMinSize = elasticPoolMinSize;
+            return this;
+        }
+
+        public Builder elasticPoolMaxSize(int elasticPoolMaxSize) {
+            this.elasticPoolMaxSize = elasticPoolMaxSize;
+            return this;
+        }
+
+        public Builder elasticPoolIntervalMs(long elasticPoolIntervalMs) {
+            this.elasticPoolIntervalMs = elasticPoolIntervalMs;
+            return this;
+        }
+
+        public Builder elasticPoolTargetWaitMs(long elasticPoolTargetWaitMs) {
+            this.elasticPoolTargetWaitMs = elasticPoolTargetWaitMs;
+            return this;
+        }
+
+        public Builder elasticPoolCpuSaturation(double elasticPoolCpuSaturation) {
+            this.elasticPoolCpuSaturation = elasticPoolCpuSaturation;
+            return this;
+        }
+
+        public Builder configWatchFile(String configWatchFile) {
+            this.configWatchFile = configWatchFile;
+            return this;
+        }
+
+        /**
+         * Creates Props with the values set in the builder
+         *
+         * @return Props object with configuration properties
+         * @throws IllegalArgumentException if some property values are invalid
+         */
+
+        public Props build() throws IllegalArgumentException {
+            if (jobThreadPoolSize <= 0 || jobQueueSize <= 0 || schedulerShutdownTimeoutSec <= 0) {
+                throw new IllegalArgumentException("pool size, queue size and shutdown timeout must be positive");
+            }
+
+            if (queueOverflowPolicy == null) {
+                throw new IllegalArgumentException("queue overflow policy cannot be null");
+            }
+
+            if (queueOfferTimeoutMs < 0L) {
+                throw new IllegalArgumentException("queue offer timeout must not be negative");
+            }
+
+            if (completedJobRetentionMs < 0L) {
+                throw new IllegalArgumentException("completed job retention time must not be negative");
+            }
+
+            if (completedJobRetentionCount < 0) {
+                throw new IllegalArgumentException("completed job retention count must not be negative");
+            }
+
+            if (timerEngine == null) {
+                throw new IllegalArgumentException("timer engine cannot be null");
+            }
+
+            if (timerTickMs <= 0L) {
+                throw new IllegalArgumentException("timer tick must be positive");
+            }
+
+            if (executionMode == null) {
+                throw new IllegalArgumentException("execution mode cannot be null");
+            }
+
+            if (virtualConcurrencyLimit <= 0) {
+                throw new IllegalArgumentException("virtual concurrency limit must be positive");
+            }
+
+            if (resultStoreMaxCount < 0) {
+                throw new IllegalArgumentException("result store size must not be negative");
+            }
+
+            if (resultStoreMaxBytes < 0L) {
+                throw new IllegalArgumentException("result store memory limit must not be negative");
+            }
+
+            if (resultRetentionMs < 0L) {
+                throw new IllegalArgumentException("result retention time must not be negative");
+            }
+
+            if (journalDir == null) {
+                throw new IllegalArgumentException("journal directory cannot be null");
+            }
+
+            if (journalSegmentSize < 4096) {
+                throw new IllegalArgumentException("journal segment size must be at least 4096 bytes");
+            }
+
+            if (journalFlushIntervalMs <= 0L) {
+                throw new IllegalArgumentException("journal flush interval must be positive");
+            }
+
+            if (stateSinkFile == null) {
+                throw new IllegalArgumentException("state sink file cannot be null");
+            }
+
+            if (stateSinkJdbcUrl == null) {
+                throw new IllegalArgumentException("state sink JDBC URL cannot be null");
+            }
+
+            if (stateBatchWindowMs <= 0L) {
+                throw new IllegalArgumentException("state batch window must be positive");
+            }
+
+            if (stateBufferSize <= 0) {
+                throw new IllegalArgumentException("state buffer size must be positive");
+            }
+
+            if (deadLetterQueueSize < 0) {
+                throw new IllegalArgumentException("dead-letter queue size must not be negative");
+            }
+
+            if (dedupPolicy == null) {
+                throw new IllegalArgumentException("dedup policy cannot be null");
+            }
+
+            if (queueAgingMs < 0L) {
+                throw new IllegalArgumentException("queue aging time must not be negative");
+            }
+
+            if (runLogRatePerSec < 0) {
+                throw new IllegalArgumentException("run log rate must not be negative");
+            }
+
+            if (elasticPoolMinSize < 1 || elasticPoolMaxSize < elasticPoolMinSize) {
+                throw new IllegalArgumentException("elastic pool bounds must satisfy 1 <= min size <= max size");
+            }
+
+            if (elasticPoolIntervalMs <= 0L) {
+                throw new IllegalArgumentException("elastic pool interval must be positive");
+            }
+
+            if (elasticPoolTargetWaitMs < 0L) {
+                throw new IllegalArgumentException("elastic pool target wait time must not be negative");
+            }
+
+            if (elasticPoolCpuSaturation <= 0.0) {
+                throw new IllegalArgumentException("elastic pool CPU saturation must be positive");
+            }
+
+            if (configWatchFile == null) {
+                throw new IllegalArgumentException("config watch file cannot be null");
+            }
+
+            return new Props(this);
+        }
+    }
 }
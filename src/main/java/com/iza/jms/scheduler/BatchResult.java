@@ -0,0 +1,46 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of scheduling a batch of jobs with the job scheduler {@link JobScheduler}
+ * Lists the jobs which were queued (or run by the caller) and the jobs which were rejected
+ */
+
+public class BatchResult {
+
+    private final List<Job> acceptedJobs;
+    private final List<Job> rejectedJobs;
+
+    BatchResult(List<Job> acceptedJobs, List<Job> rejectedJobs) {
+        this.acceptedJobs = Collections.unmodifiableList(acceptedJobs);
+        this.rejectedJobs = Collections.unmodifiableList(rejectedJobs);
+    }
+
+    public List<Job> getAcceptedJobs() {
+        return acceptedJobs;
+    }
+
+    public List<Job> getRejectedJobs() {
+        return rejectedJobs;
+    }
+
+    /**
+     * @return true if every job of the batch was accepted
+     */
+
+    public boolean isFullyAccepted() {
+        return rejectedJobs.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "acceptedJobs=" + acceptedJobs.size() +
+                ", rejectedJobs=" + rejectedJobs.size() +
+                '}';
+    }
+}
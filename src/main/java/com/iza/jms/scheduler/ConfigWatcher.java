@@ -0,0 +1,154 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.properties.PropertiesReader;
+import com.iza.jms.properties.Props;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watcher of the properties file of the job scheduler {@link JobScheduler}, passing the properties
+ * to the job scheduler each time the file changes
+ * The directory of the file is watched by a daemon thread, so that files replaced by editors
+ * (e.g. written to a temporary file and renamed) are noticed as well. The file is read once
+ * the changes have settled, and files with invalid values are ignored, so that the current
+ * configuration stays in place until the file is fixed
+ */
+
+class ConfigWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    private static final long SETTLE_MS = 100L;
+
+    private final Path file;
+    private final Consumer<Props> listener;
+    private final WatchService watchService;
+    private final Thread watchThread;
+
+    private ConfigWatcher(Path file, Consumer<Props> listener) throws IOException {
+        this.file = file;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.watchThread = new Thread(this::watch, "jms-config-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Starts watching the properties file
+     *
+     * @param file properties file, which has to exist
+     * @param listener consumer of the properties read from the changed file
+     * @return the watcher, to be closed when the job scheduler stops
+     * @throws IOException if the directory of the file cannot be watched
+     */
+
+    static ConfigWatcher watch(Path file, Consumer<Props> listener) throws IOException {
+        return new ConfigWatcher(file.toAbsolutePath().normalize(), listener);
+    }
+
+    /**
+     * Resolves the path of a properties file on the filesystem, or of a classpath resource
+     * if no such file exists, e.g. "/jms.properties" in an exploded classpath directory
+     *
+     * @return the path, or null if neither a file nor a classpath resource on the filesystem exists
+     */
+
+    static Path resolve(String path) {
+        Path file = Paths.get(path);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+
+        URL resource = PropertiesReader.class.getResource(path);
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Stops the watcher thread
+     */
+
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close config watch service", e);
+        }
+        watchThread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = pollChanged(watchService.take());
+
+                // Editors write a file in several steps, so it is read once no changes arrived for a while
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= pollChanged(key);
+                }
+
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Config watcher of file {} stopped", file);
+        }
+    }
+
+    private boolean pollChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        Props props;
+        try {
+            props = PropertiesReader.readPropertiesFile(file);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Unable to reload properties from file {}, keeping the current configuration: {}",
+                    file, e.getMessage());
+            return;
+        }
+
+        logger.info("Properties file {} changed, reconfiguring job scheduler", file);
+        listener.accept(props);
+    }
+}
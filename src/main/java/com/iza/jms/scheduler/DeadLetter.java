@@ -0,0 +1,60 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+
+/**
+ * Job which failed after exhausting the attempts of its retry policy {@link com.iza.jms.job.RetryPolicy},
+ * or failed with an exception which is not retried, kept in the dead-letter queue of the job scheduler
+ * {@link JobScheduler} for inspection
+ */
+
+public class DeadLetter {
+
+    private final JobResult lastResult;
+    private final int attempts;
+    private final long deadLetteredMs;
+
+    DeadLetter(JobResult lastResult, int attempts, long deadLetteredMs) {
+        this.lastResult = lastResult;
+        this.attempts = attempts;
+        this.deadLetteredMs = deadLetteredMs;
+    }
+
+    public Job getJob() {
+        return lastResult.getJob();
+    }
+
+    /**
+     * @return result of the last failed attempt, with the exception it failed with
+     */
+
+    public JobResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * @return number of the attempts made to run the job
+     */
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return time the job was put into the dead-letter queue in milliseconds since the epoch
+     */
+
+    public long getDeadLetteredMs() {
+        return deadLetteredMs;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" +
+                "job=" + lastResult.getJob() +
+                ", exception=" + lastResult.getException() +
+                ", attempts=" + attempts +
+                ", deadLetteredMs=" + deadLetteredMs +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.iza.jms.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded queue of the dead letters {@link DeadLetter} of the job scheduler {@link JobScheduler}
+ * When the queue is full, the oldest dead letter is evicted to make room for the new one
+ */
+
+class DeadLetterQueue {
+
+    private final int capacity;
+
+    // Guarded by this
+    private final ArrayDeque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    DeadLetterQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a dead letter, evicting the oldest one if the queue is full
+     *
+     * @return false if the queue has no capacity and the dead letter was discarded
+     */
+
+    synchronized boolean add(DeadLetter deadLetter) {
+        if (capacity == 0) {
+            return false;
+        }
+
+        if (deadLetters.size() == capacity) {
+            deadLetters.pollFirst();
+        }
+        deadLetters.addLast(deadLetter);
+        return true;
+    }
+
+    /**
+     * @return the dead letters, oldest first
+     */
+
+    synchronized List<DeadLetter> snapshot() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    /**
+     * Removes all the dead letters
+     *
+     * @return the removed dead letters, oldest first
+     */
+
+    synchronized List<DeadLetter> drain() {
+        List<DeadLetter> drained = new ArrayList<>(deadLetters);
+        deadLetters.clear();
+        return drained;
+    }
+}
@@ -0,0 +1,21 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Policy applied by the job scheduler {@link JobScheduler} when a job is scheduled
+ * while a job with the same dedup key is queued or running
+ */
+
+public enum DedupPolicy {
+
+    /**
+     * The new job is merged into the job in flight, unless that job has already started its run,
+     * so that the next run serves both submissions. If the run has started, the new job is queued,
+     * and the later jobs with the same key are merged into it
+     */
+    MERGE,
+
+    /**
+     * The new job is dropped, whether the job in flight is waiting or running
+     */
+    DROP
+}
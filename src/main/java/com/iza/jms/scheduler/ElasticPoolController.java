@@ -0,0 +1,142 @@
+package com.iza.jms.scheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Controller of the number of workers of the job scheduler {@link JobScheduler}, run at a fixed interval
+ * The number of workers follows the load between the min and max bounds, like an AIMD concurrency limit:
+ * - it grows additively, by a quarter of the workers but no more than the queued jobs, while jobs are
+ *   queued and the 99th percentile of the wait for a worker in the last interval exceeds the target,
+ *   unless the CPU is saturated
+ * - it shrinks multiplicatively, by a quarter of the workers, while the CPU is saturated, as more
+ *   workers would only add context switches
+ * - it shrinks by a half of the idle workers once the queue has been empty and at most a half
+ *   of the workers have been busy for several intervals in a row, so that short lulls do not
+ *   make the pool oscillate
+ */
+
+class ElasticPoolController {
+
+    private static final double WAIT_PERCENTILE = 99.0;
+    private static final int IDLE_INTERVALS = 3;
+
+    // Changed on reconfiguration of the job scheduler
+    private volatile int minWorkerCount;
+    private volatile int maxWorkerCount;
+    private volatile long targetWaitNanos;
+    private volatile double cpuSaturation;
+
+    private final IntSupplier queuedJobCount;
+    private final IntSupplier runningJobCount;
+    private final LatencyHistogram[] waitTimes;
+    private final DoubleSupplier cpuLoad;
+
+    // Accessed by the timer thread only
+    private final long[][] previousWaitCounts;
+    private final long[] intervalWaitCounts = LatencyHistogram.newBucketCounts();
+    private int idleIntervals;
+
+    /**
+     * @param queuedJobCount number of the jobs in the queue
+     * @param runningJobCount number of the jobs running on the workers
+     * @param waitTimes histograms of the job waits for a worker
+     * @param cpuLoad CPU load normalized by the number of processors, or a negative value if unknown
+     */
+
+    ElasticPoolController(int minWorkerCount,
+                          int maxWorkerCount,
+                          long targetWaitMs,
+                          double cpuSaturation,
+                          IntSupplier queuedJobCount,
+                          IntSupplier runningJobCount,
+                          LatencyHistogram[] waitTimes,
+                          DoubleSupplier cpuLoad) {
+        reconfigure(minWorkerCount, maxWorkerCount, targetWaitMs, cpuSaturation);
+        this.queuedJobCount = queuedJobCount;
+        this.runningJobCount = runningJobCount;
+        this.waitTimes = waitTimes;
+        this.cpuLoad = cpuLoad;
+
+        this.previousWaitCounts = new long[waitTimes.length][];
+        for (int i = 0; i < waitTimes.length; i++) {
+            previousWaitCounts[i] = LatencyHistogram.newBucketCounts();
+            waitTimes[i].addIntervalCounts(previousWaitCounts[i], intervalWaitCounts);
+        }
+    }
+
+    /**
+     * Changes the bounds and the thresholds, applied from the next interval
+     */
+
+    void reconfigure(int minWorkerCount, int maxWorkerCount, long targetWaitMs, double cpuSaturation) {
+        this.minWorkerCount = minWorkerCount;
+        this.maxWorkerCount = maxWorkerCount;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMs);
+        this.cpuSaturation = cpuSaturation;
+    }
+
+    /**
+     * Computes the number of workers for the next interval from the load in the last one
+     *
+     * @param workerCount current number of workers
+     * @return new number of workers, within the bounds
+     */
+
+    int nextWorkerCount(int workerCount) {
+        int queued = queuedJobCount.getAsInt();
+        long waitNanos = intervalWaitNanos();
+        boolean cpuSaturated = cpuLoad.getAsDouble() >= cpuSaturation;
+
+        int nextWorkerCount = workerCount;
+        if (cpuSaturated) {
+            idleIntervals = 0;
+            nextWorkerCount = workerCount - Math.max(1, workerCount / 4);
+        } else if (queued > 0 && waitNanos >= targetWaitNanos) {
+            // No waits are recorded if every worker is stuck, so the queued jobs alone count then
+            idleIntervals = 0;
+            nextWorkerCount = workerCount + Math.min(queued, Math.max(1, workerCount / 4));
+        } else if (queued == 0 && runningJobCount.getAsInt() <= workerCount / 2) {
+            if (++idleIntervals >= IDLE_INTERVALS) {
+                nextWorkerCount = workerCount - Math.max(1, (workerCount - runningJobCount.getAsInt()) / 2);
+            }
+        } else {
+            idleIntervals = 0;
+        }
+
+        return clamp(nextWorkerCount);
+    }
+
+    /**
+     * @return number of workers within the bounds
+     */
+
+    int clamp(int workerCount) {
+        return Math.max(minWorkerCount, Math.min(maxWorkerCount, workerCount));
+    }
+
+    /**
+     * @return percentile of the waits recorded since the last interval, or Long.MAX_VALUE if none were
+     */
+
+    private long intervalWaitNanos() {
+        Arrays.fill(intervalWaitCounts, 0L);
+        for (int i = 0; i < waitTimes.length; i++) {
+            waitTimes[i].addIntervalCounts(previousWaitCounts[i], intervalWaitCounts);
+        }
+
+        long waitNanos = LatencyHistogram.valueAtPercentile(intervalWaitCounts, WAIT_PERCENTILE);
+        return waitNanos == 0L && isEmpty(intervalWaitCounts) ? Long.MAX_VALUE : waitNanos;
+    }
+
+    private static boolean isEmpty(long[] bucketCounts) {
+        for (long bucketCount : bucketCounts) {
+            if (bucketCount != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Mode in which the job scheduler {@link JobScheduler} runs jobs
+ */
+
+public enum ExecutionMode {
+
+    /**
+     * Jobs are run by a fixed thread pool sharing a single task queue
+     */
+    POOL,
+
+    /**
+     * Each job is run in a new virtual thread, and the number of concurrently running jobs
+     * is limited by the configured concurrency limit instead of the thread pool size
+     * Suits jobs which mostly block on I/O. Requires JDK 21 or later at runtime, on earlier
+     * JDKs each job is run in a new platform thread instead
+     */
+    VIRTUAL
+}
@@ -0,0 +1,32 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job timer {@link JobTimer} backed by a single-threaded scheduled executor
+ * Scheduling and cancelling a task costs O(log n) for n pending tasks. Cancelled tasks are removed
+ * from the executor queue right away, rather than when their delay passes
+ */
+
+class ExecutorJobTimer implements JobTimer {
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+    ExecutorJobTimer() {
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delayMs) throws RejectedExecutionException {
+        ScheduledFuture<?> future = executor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.JobPriority;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker pool {@link WorkerPool} backed by an executor service, e.g. a fixed thread pool
+ * As the scheduler never hands it more jobs than there are workers, jobs do not wait
+ * in the executor queue, and the job priority does not need to be taken into account
+ * A thread pool executor is resized along with the pool, other executors (e.g. running each task
+ * in a new virtual thread) only have their capacity changed
+ */
+
+class ExecutorWorkerPool implements WorkerPool {
+
+    private final ExecutorService executor;
+    private volatile int capacity;
+
+    ExecutorWorkerPool(ExecutorService executor, int capacity) {
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized boolean resize(int capacity) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor threadPool = (ThreadPoolExecutor) executor;
+            // The core size cannot exceed the maximum size, so the order depends on the direction
+            if (capacity > threadPool.getMaximumPoolSize()) {
+                threadPool.setMaximumPoolSize(capacity);
+                threadPool.setCorePoolSize(capacity);
+            } else {
+                threadPool.setCorePoolSize(capacity);
+                threadPool.setMaximumPoolSize(capacity);
+            }
+        }
+        this.capacity = capacity;
+        return true;
+    }
+
+    @Override
+    public void execute(Runnable task, JobPriority priority) throws RejectedExecutionException {
+        executor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+}
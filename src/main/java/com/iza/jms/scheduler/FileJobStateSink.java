@@ -0,0 +1,58 @@
+package com.iza.jms.scheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Job state sink {@link JobStateSink} appending the transitions to a local file, a line per transition
+ * with tab-separated timestamp, job id, status and job name
+ * Each batch is appended with a single write, which is not forced to the disk
+ */
+
+public class FileJobStateSink implements JobStateSink {
+
+    private final FileChannel channel;
+
+    private FileJobStateSink(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the file for appending, creating it if it does not exist
+     *
+     * @param file path of the file
+     * @return the file sink
+     * @throws IOException if the file cannot be opened
+     */
+
+    public static FileJobStateSink open(Path file) throws IOException {
+        return new FileJobStateSink(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public void write(List<JobStateTransition> transitions) throws IOException {
+        StringBuilder lines = new StringBuilder(transitions.size() * 80);
+        for (JobStateTransition transition : transitions) {
+            lines.append(transition.getTimestampMs()).append('\t')
+                    .append(transition.getJobId()).append('\t')
+                    .append(transition.getStatus()).append('\t')
+                    .append(transition.getJobName()).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
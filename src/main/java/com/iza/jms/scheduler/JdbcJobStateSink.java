@@ -0,0 +1,105 @@
+package com.iza.jms.scheduler;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Job state sink {@link JobStateSink} inserting the transitions into a table of a database,
+ * e.g. an embedded H2, Derby or SQLite database, whose JDBC driver is on the classpath
+ * Each batch is inserted with a single batched statement in its own transaction. The table
+ * JOB_STATE_TRANSITION is created if it does not exist
+ */
+
+public class JdbcJobStateSink implements JobStateSink {
+
+    static final String TABLE_NAME = "JOB_STATE_TRANSITION";
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE " + TABLE_NAME + " ("
+            + "JOB_ID VARCHAR(64) NOT NULL, "
+            + "JOB_NAME VARCHAR(255), "
+            + "STATUS VARCHAR(16) NOT NULL, "
+            + "TIMESTAMP_MS BIGINT NOT NULL)";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME
+            + " (JOB_ID, JOB_NAME, STATUS, TIMESTAMP_MS) VALUES (?, ?, ?, ?)";
+
+    private final Connection connection;
+
+    private JdbcJobStateSink(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Connects to the database and creates the transition table if it does not exist
+     *
+     * @param jdbcUrl JDBC URL of the database, e.g. "jdbc:h2:./jms-state"
+     * @return the database sink
+     * @throws SQLException if the database cannot be connected or the table cannot be created
+     */
+
+    public static JdbcJobStateSink open(String jdbcUrl) throws SQLException {
+        return open(DriverManager.getConnection(jdbcUrl));
+    }
+
+    /**
+     * Creates a sink using the connection, which is closed with the sink, and creates
+     * the transition table if it does not exist
+     *
+     * @param connection connection to the database
+     * @return the database sink
+     * @throws SQLException if the table cannot be created
+     */
+
+    public static JdbcJobStateSink open(Connection connection) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, TABLE_NAME, null)) {
+            if (!tables.next()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(CREATE_TABLE_SQL);
+                }
+            }
+        }
+
+        connection.setAutoCommit(false);
+        return new JdbcJobStateSink(connection);
+    }
+
+    @Override
+    public void write(List<JobStateTransition> transitions) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (JobStateTransition transition : transitions) {
+                statement.setString(1, transition.getJobId());
+                statement.setString(2, transition.getJobName());
+                statement.setString(3, transition.getStatus().name());
+                statement.setLong(4, transition.getTimestampMs());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("unable to insert job state transitions", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("unable to close database connection", e);
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+            // The connection is broken, the failure of the batch is reported instead
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the jobs in flight by their dedup keys, used by the job scheduler {@link JobScheduler}
+ * to merge or drop the jobs scheduled while a job with the same key is queued or running
+ * A key is claimed by the job being scheduled and released when the job completes, so that
+ * only the jobs in flight are indexed
+ */
+
+class JobDeduplicator {
+
+    private final ConcurrentHashMap<String, JobHandle> inFlightJobs = new ConcurrentHashMap<>();
+
+    /**
+     * Claims the dedup key of the job being scheduled, unless a job with the same key is in flight
+     *
+     * @param handle handle of the job with a dedup key
+     * @param policy policy applied to the job if a job with the same key is in flight
+     * @return null if the job claimed the key and has to be queued, or the handle of the job in flight
+     * the job was merged into or dropped for
+     */
+
+    JobHandle claim(JobHandle handle, DedupPolicy policy) {
+        String dedupKey = handle.getJob().getDedupKey();
+
+        while (true) {
+            JobHandle inFlight = inFlightJobs.putIfAbsent(dedupKey, handle);
+            if (inFlight == null) {
+                return null;
+            }
+
+            // Completed jobs release their keys asynchronously, so the key may still be held by one
+            if (!inFlight.isDone() && (policy == DedupPolicy.DROP || inFlight.tryMerge())) {
+                return inFlight;
+            }
+
+            // The new job takes over the key from a completed job, or from a job which has started its run
+            if (inFlightJobs.replace(dedupKey, inFlight, handle)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Releases the dedup key of the job, if the key is still held by it
+     */
+
+    void release(JobHandle handle) {
+        inFlightJobs.remove(handle.getJob().getDedupKey(), handle);
+    }
+
+    /**
+     * @return handle of the job in flight with the dedup key, or null if there is none
+     */
+
+    JobHandle get(String dedupKey) {
+        JobHandle inFlight = inFlightJobs.get(dedupKey);
+        return inFlight == null || inFlight.isDone() ? null : inFlight;
+    }
+}
@@ -0,0 +1,135 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobSchedule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directed acyclic graph of jobs submitted to the job scheduler {@link JobScheduler} at once,
+ * each job being queued when all of its upstream jobs have succeeded
+ * Upstream jobs are added to the graph before their downstream jobs, so that the graph cannot
+ * have cycles. Jobs of the graph run once, so recurring jobs cannot be added, and neither can
+ * durable jobs, as the dependencies are not recorded in the journal
+ */
+
+public class JobGraph {
+
+    private final Map<Job, List<Job>> upstreamJobs;
+
+    private JobGraph(Builder builder) {
+        Map<Job, List<Job>> upstreamJobs = new LinkedHashMap<>();
+        builder.upstreamJobs.forEach((job, upstream) -> upstreamJobs.put(job, Collections.unmodifiableList(upstream)));
+        this.upstreamJobs = Collections.unmodifiableMap(upstreamJobs);
+    }
+
+    /**
+     * Creates a builder of an empty JobGraph
+     *
+     * @return a new Builder
+     */
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return jobs of the graph in the order they were added, upstream jobs first
+     */
+
+    public List<Job> getJobs() {
+        return new ArrayList<>(upstreamJobs.keySet());
+    }
+
+    /**
+     * @return upstream jobs of the job, empty for the root jobs of the graph
+     */
+
+    public List<Job> getUpstreamJobs(Job job) {
+        List<Job> upstream = upstreamJobs.get(job);
+        return upstream == null ? Collections.emptyList() : upstream;
+    }
+
+    public int size() {
+        return upstreamJobs.size();
+    }
+
+    @Override
+    public String toString() {
+        return "JobGraph{" +
+                "jobs=" + upstreamJobs.size() +
+                '}';
+    }
+
+    /**
+     * Builder of JobGraph, validating the jobs and their dependencies
+     */
+
+    public static class Builder {
+
+        private final Map<Job, List<Job>> upstreamJobs = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a job to the graph, run when all of its upstream jobs have succeeded
+         *
+         * @param job job to be added
+         * @param upstreamJobs jobs of the graph the job depends on, none for a root job
+         * @return this builder
+         * @throws IllegalArgumentException if the job is null, recurring, durable or already added,
+         * or if an upstream job was not added to the graph before
+         */
+
+        public Builder addJob(Job job, Job... upstreamJobs) throws IllegalArgumentException {
+            if (job == null || upstreamJobs == null) {
+                throw new IllegalArgumentException("job and upstream jobs cannot be null");
+            }
+
+            JobSchedule schedule = job.getJobSchedule();
+            if (schedule != JobSchedule.IMMEDIATE && schedule != JobSchedule.DELAYED) {
+                throw new IllegalArgumentException("recurring jobs cannot be added to a job graph");
+            }
+
+            if (job.getJobDescriptor() != null) {
+                throw new IllegalArgumentException("durable jobs cannot be added to a job graph");
+            }
+
+            if (this.upstreamJobs.containsKey(job)) {
+                throw new IllegalArgumentException("job " + job.getJobId() + " was already added to the graph");
+            }
+
+            List<Job> upstream = new ArrayList<>(upstreamJobs.length);
+            for (Job upstreamJob : upstreamJobs) {
+                if (!this.upstreamJobs.containsKey(upstreamJob)) {
+                    throw new IllegalArgumentException("upstream jobs have to be added to the graph first");
+                }
+                if (!upstream.contains(upstreamJob)) {
+                    upstream.add(upstreamJob);
+                }
+            }
+
+            this.upstreamJobs.put(job, upstream);
+            return this;
+        }
+
+        /**
+         * Creates JobGraph with the jobs added to the builder
+         *
+         * @return the job graph
+         * @throws IllegalArgumentException if no jobs were added
+         */
+
+        public JobGraph build() throws IllegalArgumentException {
+            if (upstreamJobs.isEmpty()) {
+                throw new IllegalArgumentException("job graph must have at least one job");
+            }
+            return new JobGraph(this);
+        }
+    }
+}
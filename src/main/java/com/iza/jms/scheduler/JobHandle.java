@@ -0,0 +1,486 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobSchedule;
+import com.iza.jms.job.JobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runtime state of a Job accepted by the job scheduler {@link JobScheduler}
+ * Tracks the pending delay timer and the worker thread running the job, so that the job
+ * can be cancelled and checked for completion regardless of where it currently is
+ * (in the queue, waiting for its delay to pass, or running on a worker)
+ */
+
+class JobHandle {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobHandle.class);
+
+    private final Job job;
+    private final JobRunListener runListener;
+    private final CompletableFuture<JobResult> completion = new CompletableFuture<>();
+    private final long initialDelayMs;
+
+    // true when the job's delay has passed and it may be run as soon as a worker is free
+    private volatile boolean due;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    // Number of the started runs, and whether the current or last run exceeded the run timeout, guarded by the handle lock
+    private long runNumber;
+    private boolean timedOut;
+
+    // true until the job starts the run which serves the submissions merged into it, guarded by the handle lock
+    private boolean runPending = true;
+
+    // System.nanoTime() when the job was last queued and due, to measure its wait for a worker
+    private volatile long readyNanos;
+
+    // Time the current run of a FIXED_RATE or CRON job was due, before the jitter, in milliseconds since the epoch
+    // Accessed by one thread at a time, which took over the handle from the queue or the timer
+    private long fireTimeMs;
+
+    // Number of the runs of a job with a retry policy, and the backoff delay of its pending retry or -1
+    // Accessed by one thread at a time, like the fire time
+    private int attempts;
+    private long retryDelayMs = -1L;
+
+    // Sequence number and System.nanoTime() of the last time the job was queued, accessed under the queue lock
+    private long queueSequence;
+    private long queuedNanos;
+
+    // Links of the job in its queue lane, so that it can be removed from the middle of the lane
+    // Accessed under the queue lock, the job is in a lane if it is the lane head or has a previous job
+    JobHandle queuePrev;
+    JobHandle queueNext;
+
+    // Status and duration of the last run, and its result built from them when first needed, so that
+    // the runs of a recurring job without a run listener do not allocate results. Accessed like the fire time
+    private JobStatus runStatus;
+    private long runNanos;
+    private JobResult runResult;
+
+    // Tasks running the job on a worker and returning it to the queue after its delay, created once
+    // so that the runs of a recurring job do not allocate them. Accessed like the fire time
+    private Runnable runTask;
+    private Runnable wakeupTask;
+
+    // Limit of the job name the job acquired a run from, until the run is released
+    private volatile JobLimiter.Limit acquiredLimit;
+
+    // Limit of the job name the job is parked in, and the links of the job among its parked jobs,
+    // so that a cancelled job is unlinked without a search. Accessed under the lock of the limit,
+    // the limit is volatile so that a cancellation finds it without the lock
+    private volatile JobLimiter.Limit parkedLimit;
+    JobHandle parkedPrev;
+    JobHandle parkedNext;
+
+    private JobTimer.Timeout timerTimeout;
+    private Thread runner;
+
+    JobHandle(Job job) {
+        this(job, null);
+    }
+
+    JobHandle(Job job, JobRunListener runListener) {
+        this(job, runListener, job.getInitialDelayMs());
+    }
+
+    /**
+     * @param initialDelayMs delay before the first run, which differs from the job's initial delay
+     *                       for the jobs recovered from the journal
+     */
+
+    JobHandle(Job job, JobRunListener runListener, long initialDelayMs) {
+        this.job = job;
+        this.runListener = runListener;
+        this.initialDelayMs = initialDelayMs;
+        setDue(initialDelayMs == 0L && job.getJitterMs() == 0L && job.getJobSchedule() != JobSchedule.CRON);
+    }
+
+    /**
+     * Attaches a worker thread to the handle before running the job
+     *
+     * @return true if the job may be run, or false if it was cancelled
+     */
+
+    synchronized boolean startRun() {
+        if (cancelled) {
+            return false;
+        }
+        runner = Thread.currentThread();
+        runPending = false;
+        runNumber++;
+        timedOut = false;
+        return true;
+    }
+
+    /**
+     * @return number of the run started last, identifying the run for its timeout
+     */
+
+    synchronized long getRunNumber() {
+        return runNumber;
+    }
+
+    /**
+     * Times out the run of the job, interrupting its worker, if the run is still in progress
+     * Once the run is finished {@link #finishRun()}, the run cannot be timed out anymore
+     *
+     * @param runNumber number of the run which timed out
+     * @return true if the run was timed out, or false if it has finished
+     */
+
+    synchronized boolean timeOut(long runNumber) {
+        if (runner == null || runNumber != this.runNumber) {
+            return false;
+        }
+        timedOut = true;
+        runner.interrupt();
+        return true;
+    }
+
+    /**
+     * @return true if the last run exceeded the run timeout
+     */
+
+    synchronized boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Marks the job as waiting for another run, e.g. a retry or the next run of a recurring job
+     */
+
+    synchronized void markRunPending() {
+        runPending = true;
+    }
+
+    /**
+     * Merges a duplicate submission into the job, if the job has not started the run serving it yet
+     *
+     * @return true if the submission was merged, or false if the job is running, completed or cancelled
+     */
+
+    synchronized boolean tryMerge() {
+        return runPending && !done && !cancelled;
+    }
+
+    /**
+     * Detaches the worker thread from the handle after the job run, marking the run as finished,
+     * and clears the interrupt flag possibly set by cancellation, so that the worker can be reused
+     */
+
+    synchronized void finishRun() {
+        runner = null;
+        Thread.interrupted();
+    }
+
+    /**
+     * Cancels the job, removing its pending timer and optionally interrupting its worker
+     * The job status is changed to CANCELLED unless the job is running, in which case
+     * the status is set by the run itself
+     *
+     * @param mayInterruptIfRunning if true, the worker running the job is interrupted
+     * @return true if the job was cancelled, or false if it was already completed or cancelled
+     */
+
+    synchronized boolean cancel(boolean mayInterruptIfRunning) {
+        if (!cancel()) {
+            return false;
+        }
+        if (mayInterruptIfRunning) {
+            interruptRun();
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the job like {@link #cancel(boolean)} without interrupting its worker, so that
+     * several jobs can be cancelled before any of their workers is freed
+     *
+     * @return true if the job was cancelled, or false if it was already completed or cancelled
+     */
+
+    synchronized boolean cancel() {
+        if (done || cancelled) {
+            return false;
+        }
+        cancelled = true;
+
+        if (timerTimeout != null) {
+            timerTimeout.cancel();
+        }
+        if (runner == null) {
+            job.setJobStatus(JobStatus.CANCELLED);
+        }
+        return true;
+    }
+
+    /**
+     * Interrupts the worker running the job, if the job is running
+     */
+
+    synchronized void interruptRun() {
+        if (runner != null) {
+            runner.interrupt();
+        }
+    }
+
+    /**
+     * Completes the job with its terminal result, only the first result is kept
+     */
+
+    void complete(JobResult result) {
+        completion.complete(result);
+    }
+
+    /**
+     * Records the status and duration of a completed job run, discarding the result of the previous run
+     */
+
+    void recordRun(JobStatus runStatus, long runNanos) {
+        this.runStatus = runStatus;
+        this.runNanos = runNanos;
+        this.runResult = null;
+    }
+
+    /**
+     * @return result of the last run, built on the first call after the run
+     */
+
+    JobResult getRunResult() {
+        if (runResult == null) {
+            runResult = new JobResult(job, runStatus, Duration.ofNanos(runNanos),
+                    job.getJobValue(), job.getJobException());
+        }
+        return runResult;
+    }
+
+    boolean hasRunListener() {
+        return runListener != null;
+    }
+
+    /**
+     * Notifies the run listener, if any, of a completed job run
+     */
+
+    void notifyRunCompleted(JobResult result) {
+        if (runListener == null) {
+            return;
+        }
+
+        try {
+            runListener.onRunCompleted(result);
+        } catch (Exception e) {
+            logger.warn("Run listener of job \"{}\" (id {}) failed with an exception",
+                    job.getJobName(), job.getJobId(), e);
+        }
+    }
+
+    /**
+     * @return stage completed with the job's terminal result, which cannot be completed by the caller
+     */
+
+    CompletionStage<JobResult> getCompletion() {
+        return completion.minimalCompletionStage();
+    }
+
+    synchronized void setTimerTimeout(JobTimer.Timeout timerTimeout) {
+        this.timerTimeout = timerTimeout;
+        if (cancelled) {
+            timerTimeout.cancel();
+        }
+    }
+
+    /**
+     * @return true if the job has to be run again after the current run
+     */
+
+    boolean isRecurring() {
+        JobSchedule schedule = job.getJobSchedule();
+        return (schedule == JobSchedule.PERIODIC || schedule == JobSchedule.FIXED_RATE
+                || schedule == JobSchedule.CRON) && !cancelled;
+    }
+
+    Job getJob() {
+        return job;
+    }
+
+    /**
+     * Computes the delay before the first run of the job, when it is taken from the queue
+     *
+     * @param nowMs current time in milliseconds since the epoch
+     * @return delay in milliseconds, including the jitter
+     */
+
+    long firstRunDelayMs(long nowMs) {
+        switch (job.getJobSchedule()) {
+            case FIXED_RATE:
+                fireTimeMs = nowMs + initialDelayMs;
+                return initialDelayMs + nextJitterMs();
+            case CRON:
+                return cronDelayMs(nowMs, nowMs);
+            default:
+                return initialDelayMs;
+        }
+    }
+
+    /**
+     * Computes the delay before the next run of a recurring job, after its current run has completed
+     * FIXED_RATE and CRON jobs skip the fire times which have passed during the run
+     *
+     * @param nowMs current time in milliseconds since the epoch
+     * @return delay in milliseconds, including the jitter, or -1 if the job will not fire again
+     */
+
+    long nextRunDelayMs(long nowMs) {
+        switch (job.getJobSchedule()) {
+            case FIXED_RATE:
+                long periodMs = job.getPeriodMs();
+                long missedPeriods = Math.max(0L, (nowMs - fireTimeMs) / periodMs);
+                fireTimeMs += (missedPeriods + 1L) * periodMs;
+                return fireTimeMs - nowMs + nextJitterMs();
+            case CRON:
+                return cronDelayMs(Math.max(fireTimeMs, nowMs), nowMs);
+            default:
+                return job.getPeriodMs();
+        }
+    }
+
+    private long cronDelayMs(long afterMs, long nowMs) {
+        fireTimeMs = job.getCronExpression().nextFireTimeMs(afterMs);
+        if (fireTimeMs < 0L) {
+            return -1L;
+        }
+        return fireTimeMs - nowMs + nextJitterMs();
+    }
+
+    private long nextJitterMs() {
+        long jitterMs = job.getJitterMs();
+        return jitterMs == 0L ? 0L : ThreadLocalRandom.current().nextLong(jitterMs);
+    }
+
+    boolean isDue() {
+        return due;
+    }
+
+    void setDue(boolean due) {
+        if (due) {
+            readyNanos = System.nanoTime();
+        }
+        this.due = due;
+    }
+
+    long getReadyNanos() {
+        return readyNanos;
+    }
+
+    /**
+     * @return number of the attempts to run the job, including the completed one
+     */
+
+    int incrementAttempts() {
+        return ++attempts;
+    }
+
+    void setRetryDelayMs(long retryDelayMs) {
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    /**
+     * @return backoff delay of the retry of the completed run, or -1 if the run is not retried
+     */
+
+    long takeRetryDelayMs() {
+        long delayMs = retryDelayMs;
+        retryDelayMs = -1L;
+        return delayMs;
+    }
+
+    void setQueuePosition(long queueSequence, long queuedNanos) {
+        this.queueSequence = queueSequence;
+        this.queuedNanos = queuedNanos;
+    }
+
+    long getQueueSequence() {
+        return queueSequence;
+    }
+
+    long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    Runnable getRunTask() {
+        return runTask;
+    }
+
+    void setRunTask(Runnable runTask) {
+        this.runTask = runTask;
+    }
+
+    Runnable getWakeupTask() {
+        return wakeupTask;
+    }
+
+    void setWakeupTask(Runnable wakeupTask) {
+        this.wakeupTask = wakeupTask;
+    }
+
+    JobLimiter.Limit getAcquiredLimit() {
+        return acquiredLimit;
+    }
+
+    synchronized void setAcquiredLimit(JobLimiter.Limit acquiredLimit) {
+        this.acquiredLimit = acquiredLimit;
+    }
+
+    /**
+     * Detaches the limit the job acquired a run from, so that the run is released once,
+     * e.g. when the job is cancelled while the dispatcher takes it from the queue
+     *
+     * @return the limit, or null if the job holds no run
+     */
+
+    synchronized JobLimiter.Limit takeAcquiredLimit() {
+        JobLimiter.Limit limit = acquiredLimit;
+        acquiredLimit = null;
+        return limit;
+    }
+
+    JobLimiter.Limit getParkedLimit() {
+        return parkedLimit;
+    }
+
+    void setParkedLimit(JobLimiter.Limit parkedLimit) {
+        this.parkedLimit = parkedLimit;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    boolean isDone() {
+        return done || cancelled;
+    }
+
+    /**
+     * Marks the job as completed after its last run
+     *
+     * @return true if the job was marked as completed, or false if it was already completed or cancelled
+     */
+
+    synchronized boolean markDone() {
+        if (done || cancelled) {
+            return false;
+        }
+        done = true;
+        return true;
+    }
+}
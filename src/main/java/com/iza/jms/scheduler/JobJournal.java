@@ -0,0 +1,562 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobDescriptor;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.job.JobSchedule;
+import com.iza.jms.job.JobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the durable jobs {@link JobDescriptor} of the job scheduler {@link JobScheduler}
+ * Records job submissions and the statuses of completed runs, cancellations and drops, so that the jobs
+ * which were pending (queued, delayed or periodic) when the service stopped can be recreated on startup
+ * Records are appended to memory-mapped segment files of a fixed size. Appending only copies the record
+ * into the mapped memory, which survives a crash of the process, and the segment is forced to the disk
+ * in the background at the flush interval, so that a single disk write commits a group of records
+ * When a segment is full, the journal continues in a new segment, and the full segments are compacted
+ * in the background into a snapshot holding only the records of the pending jobs
+ * Each record is prefixed with its length and checksum, so that a record torn by a crash ends the replay
+ */
+
+class JobJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern FILE_PATTERN = Pattern.compile("(journal|snapshot)-(\\d+)\\.(log|tmp)");
+
+    private static final byte SUBMIT_RECORD = 1;
+    private static final byte STATUS_RECORD = 2;
+    private static final int HEADER_SIZE = 8;
+
+    private static final JobPriority[] priorities = JobPriority.values();
+    private static final JobStatus[] statuses = JobStatus.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentHashMap<String, JournalEntry> pendingJobs = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService journalExecutor;
+
+    // Guarded by this
+    private long activeSequence;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeSegment;
+    private boolean closed;
+
+    private volatile boolean dirty;
+
+    private JobJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.journalExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jms-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the journal in the directory, replaying the existing records to find the pending jobs,
+     * and starts a new segment
+     *
+     * @param directory journal directory, created if it does not exist
+     * @param segmentSize size of a segment file in bytes
+     * @param flushIntervalMs interval of forcing the appended records to the disk in milliseconds
+     * @return the opened journal
+     * @throws IOException if the journal files cannot be read or created
+     */
+
+    static JobJournal open(Path directory, int segmentSize, long flushIntervalMs) throws IOException {
+        Files.createDirectories(directory);
+
+        JobJournal journal = new JobJournal(directory, segmentSize);
+        long lastSequence = journal.replay();
+
+        synchronized (journal) {
+            journal.startSegment(lastSequence + 1L);
+        }
+
+        journal.journalExecutor.scheduleWithFixedDelay(journal::flush, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+        if (lastSequence > 0L) {
+            journal.journalExecutor.execute(() -> journal.compact(lastSequence));
+        }
+        return journal;
+    }
+
+    /**
+     * @return the jobs which are pending according to the journal records
+     */
+
+    Collection<JournalEntry> getPendingJobs() {
+        return new ArrayList<>(pendingJobs.values());
+    }
+
+    /**
+     * Records the submission of a durable job
+     *
+     * @throws IllegalArgumentException if the record does not fit into a segment
+     * @throws IllegalStateException if the journal is closed or cannot be written
+     */
+
+    void recordSubmit(Job job, long timestampMs) throws IllegalArgumentException, IllegalStateException {
+        JobDescriptor descriptor = job.getJobDescriptor();
+        byte[] record = encodeSubmit(descriptor, timestampMs);
+
+        synchronized (this) {
+            append(record);
+            pendingJobs.putIfAbsent(descriptor.getJobId(), new JournalEntry(descriptor, timestampMs));
+        }
+    }
+
+    /**
+     * Records the submissions of a batch of durable jobs under a single lock acquisition
+     * A job whose record cannot be written is skipped, the other jobs are still recorded
+     *
+     * @return the jobs which could not be recorded, e.g. because the journal is closed
+     */
+
+    List<Job> recordSubmitAll(List<Job> jobs, long timestampMs) {
+        List<byte[]> records = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            records.add(encodeSubmit(job.getJobDescriptor(), timestampMs));
+        }
+
+        List<Job> failedJobs = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < jobs.size(); i++) {
+                JobDescriptor descriptor = jobs.get(i).getJobDescriptor();
+                try {
+                    append(records.get(i));
+                    pendingJobs.putIfAbsent(descriptor.getJobId(), new JournalEntry(descriptor, timestampMs));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    logger.debug("Unable to record job with id {}", descriptor.getJobId(), e);
+                    failedJobs.add(jobs.get(i));
+                }
+            }
+        }
+        return failedJobs;
+    }
+
+    /**
+     * Records a status of a durable job: the result of a run, cancellation or drop
+     * The job stops being pending when the status is terminal for it
+     *
+     * @throws IllegalStateException if the journal is closed or cannot be written
+     */
+
+    void recordStatus(Job job, JobStatus status, long timestampMs) throws IllegalStateException {
+        byte[] record = encodeStatus(job.getJobId(), status, timestampMs);
+
+        synchronized (this) {
+            append(record);
+            applyStatus(job.getJobId(), status, timestampMs);
+        }
+    }
+
+    /**
+     * Records the same status of a batch of durable jobs under a single lock acquisition,
+     * e.g. the cancellation of the jobs of a batch which were not queued
+     *
+     * @throws IllegalStateException if the journal is closed or cannot be written
+     */
+
+    void recordStatusAll(List<Job> jobs, JobStatus status, long timestampMs) throws IllegalStateException {
+        List<byte[]> records = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            records.add(encodeStatus(job.getJobId(), status, timestampMs));
+        }
+
+        synchronized (this) {
+            for (int i = 0; i < jobs.size(); i++) {
+                append(records.get(i));
+                applyStatus(jobs.get(i).getJobId(), status, timestampMs);
+            }
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk and closes the journal
+     */
+
+    void close() {
+        journalExecutor.shutdownNow();
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            activeSegment.force();
+            closeActiveChannel();
+        }
+    }
+
+    private void append(byte[] record) throws IllegalArgumentException, IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("journal record of " + record.length + " bytes exceeds the segment size");
+        }
+
+        if (activeSegment.remaining() < record.length) {
+            long sealedSequence = activeSequence;
+            activeSegment.force();
+            closeActiveChannel();
+
+            try {
+                startSegment(sealedSequence + 1L);
+            } catch (IOException e) {
+                closed = true;
+                throw new IllegalStateException("unable to start a new journal segment", e);
+            }
+            journalExecutor.execute(() -> compact(sealedSequence));
+        }
+
+        activeSegment.put(record);
+        dirty = true;
+    }
+
+    private void startSegment(long sequence) throws IOException {
+        activeChannel = FileChannel.open(segmentPath(SEGMENT_PREFIX, sequence, FILE_SUFFIX),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeSegment = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0L, segmentSize);
+        activeSequence = sequence;
+    }
+
+    private void closeActiveChannel() {
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close journal segment {}", activeSequence, e);
+        }
+    }
+
+    private void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        MappedByteBuffer segment;
+        synchronized (this) {
+            segment = activeSegment;
+        }
+        segment.force();
+    }
+
+    private void applyStatus(String jobId, JobStatus status, long timestampMs) {
+        JournalEntry entry = pendingJobs.get(jobId);
+        if (entry == null) {
+            return;
+        }
+
+        if (isTerminal(entry.getDescriptor(), status)) {
+            pendingJobs.remove(jobId);
+        } else {
+            entry.lastRunMs = timestampMs;
+        }
+    }
+
+    private static boolean isTerminal(JobDescriptor descriptor, JobStatus status) {
+        return status == JobStatus.CANCELLED
+                || status == JobStatus.DROPPED
+                || descriptor.getJobSchedule() != JobSchedule.PERIODIC;
+    }
+
+    /**
+     * Writes the pending jobs into a snapshot replacing the segments up to the specified one
+     * The segments which follow are replayed after the snapshot, so the records appended while
+     * the snapshot is written are never lost, even if the snapshot includes their effects already
+     */
+
+    private void compact(long upToSequence) {
+        Path tempPath = segmentPath(SNAPSHOT_PREFIX, upToSequence, TEMP_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+            for (JournalEntry entry : pendingJobs.values()) {
+                write(channel, buffer, encodeSubmit(entry.getDescriptor(), entry.getSubmittedMs()));
+                if (entry.getLastRunMs() > 0L) {
+                    write(channel, buffer, encodeStatus(entry.getDescriptor().getJobId(),
+                            JobStatus.SUCCESS, entry.getLastRunMs()));
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            logger.warn("Unable to compact the job journal");
+            logger.debug("An exception occurred: ", e);
+            return;
+        }
+
+        try {
+            Files.move(tempPath, segmentPath(SNAPSHOT_PREFIX, upToSequence, FILE_SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+            deleteFiles(upToSequence);
+        } catch (IOException e) {
+            logger.warn("Unable to replace compacted job journal segments");
+            logger.debug("An exception occurred: ", e);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, byte[] record) throws IOException {
+        if (buffer.remaining() < record.length) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        if (record.length > buffer.capacity()) {
+            channel.write(ByteBuffer.wrap(record));
+        } else {
+            buffer.put(record);
+        }
+    }
+
+    /**
+     * Deletes the segments up to the specified one and the snapshots before it
+     */
+
+    private void deleteFiles(long upToSequence) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_PATTERN.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                long sequence = Long.parseLong(matcher.group(2));
+                boolean snapshot = matcher.group(1).equals("snapshot");
+                if (sequence < upToSequence || (sequence == upToSequence && !snapshot)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the latest snapshot and the segments following it
+     *
+     * @return sequence number of the last existing segment or snapshot, or 0 if there are none
+     */
+
+    private long replay() throws IOException {
+        long snapshotSequence = 0L;
+        long lastSequence = 0L;
+        List<Long> segmentSequences = new ArrayList<>();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = FILE_PATTERN.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+
+                // Snapshots which were not completed are discarded
+                if (matcher.group(3).equals("tmp")) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+
+                long sequence = Long.parseLong(matcher.group(2));
+                lastSequence = Math.max(lastSequence, sequence);
+                if (matcher.group(1).equals("snapshot")) {
+                    snapshotSequence = Math.max(snapshotSequence, sequence);
+                } else {
+                    segmentSequences.add(sequence);
+                }
+            }
+        }
+
+        if (snapshotSequence > 0L) {
+            replayFile(segmentPath(SNAPSHOT_PREFIX, snapshotSequence, FILE_SUFFIX));
+        }
+
+        segmentSequences.sort(null);
+        for (long sequence : segmentSequences) {
+            if (sequence > snapshotSequence) {
+                replayFile(segmentPath(SEGMENT_PREFIX, sequence, FILE_SUFFIX));
+            }
+        }
+        return lastSequence;
+    }
+
+    private void replayFile(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+
+            // The end of the written part of a segment, or a record torn by a crash
+            if (length <= 0 || length > buffer.remaining()) {
+                return;
+            }
+
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                logger.warn("Job journal file {} has a corrupted record, the rest of the file is skipped", file);
+                return;
+            }
+
+            replayRecord(payload);
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private void replayRecord(ByteBuffer payload) {
+        byte type = payload.get();
+        long timestampMs = payload.getLong();
+        String jobId = readString(payload);
+
+        if (type == SUBMIT_RECORD) {
+            JobDescriptor descriptor = JobDescriptor.newDescriptor(jobId,
+                    readString(payload),
+                    readString(payload),
+                    readString(payload),
+                    priorities[payload.get()],
+                    payload.getLong(),
+                    payload.getLong());
+            pendingJobs.putIfAbsent(jobId, new JournalEntry(descriptor, timestampMs));
+        } else if (type == STATUS_RECORD) {
+            applyStatus(jobId, statuses[payload.get()], timestampMs);
+        }
+    }
+
+    private static byte[] encodeSubmit(JobDescriptor descriptor, long timestampMs) {
+        byte[] jobId = descriptor.getJobId().getBytes(StandardCharsets.UTF_8);
+        byte[] taskType = descriptor.getTaskType().getBytes(StandardCharsets.UTF_8);
+        byte[] taskArgs = descriptor.getTaskArgs().getBytes(StandardCharsets.UTF_8);
+        byte[] jobName = descriptor.getJobName().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 4 * 4 + jobId.length + taskType.length
+                + taskArgs.length + jobName.length + 1 + 8 + 8);
+        payload.put(SUBMIT_RECORD).putLong(timestampMs);
+        putString(payload, jobId);
+        putString(payload, taskType);
+        putString(payload, taskArgs);
+        putString(payload, jobName);
+        payload.put((byte) descriptor.getJobPriority().ordinal())
+                .putLong(descriptor.getInitialDelayMs())
+                .putLong(descriptor.getPeriodMs());
+        return frame(payload.array());
+    }
+
+    private static byte[] encodeStatus(String jobId, JobStatus status, long timestampMs) {
+        byte[] id = jobId.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 4 + id.length + 1);
+        payload.put(STATUS_RECORD).putLong(timestampMs);
+        putString(payload, id);
+        payload.put((byte) status.ordinal());
+        return frame(payload.array());
+    }
+
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value.length).put(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] value = new byte[buffer.getInt()];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(String prefix, long sequence, String suffix) {
+        return directory.resolve(prefix + sequence + suffix);
+    }
+
+    /**
+     * Pending durable job found in the journal
+     */
+
+    static class JournalEntry {
+
+        private final JobDescriptor descriptor;
+        private final long submittedMs;
+
+        // Time of the last completed run of a periodic job, or 0
+        private volatile long lastRunMs;
+
+        private JournalEntry(JobDescriptor descriptor, long submittedMs) {
+            this.descriptor = descriptor;
+            this.submittedMs = submittedMs;
+        }
+
+        JobDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        long getSubmittedMs() {
+            return submittedMs;
+        }
+
+        long getLastRunMs() {
+            return lastRunMs;
+        }
+
+        /**
+         * @return delay before the next run of the job at the specified time, in milliseconds
+         */
+
+        long getRemainingDelayMs(long nowMs) {
+            long dueMs = lastRunMs > 0L
+                    ? lastRunMs + descriptor.getPeriodMs()
+                    : submittedMs + descriptor.getInitialDelayMs();
+            return Math.max(0L, dueMs - nowMs);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Limit of the runs of the jobs with the same name in the job scheduler {@link JobScheduler}
+ * Limits the number of concurrently running jobs and the rate of job run starts, the latter with
+ * a token bucket holding up to a second worth of starts, so that short bursts are allowed
+ */
+
+public class JobLimit {
+
+    private final int maxConcurrentRuns;
+    private final double maxStartsPerSecond;
+
+    private JobLimit(int maxConcurrentRuns, double maxStartsPerSecond) {
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.maxStartsPerSecond = maxStartsPerSecond;
+    }
+
+    /**
+     * Creates a new JobLimit
+     *
+     * @param maxConcurrentRuns maximum number of concurrently running jobs, or 0 if not limited
+     * @param maxStartsPerSecond maximum number of job run starts per second, or 0 if not limited
+     * @return a JobLimit with the specified parameters
+     * @throws IllegalArgumentException if the parameters are negative
+     */
+
+    public static JobLimit newLimit(int maxConcurrentRuns, double maxStartsPerSecond)
+            throws IllegalArgumentException {
+        if (maxConcurrentRuns < 0 || !(maxStartsPerSecond >= 0.0)) {
+            throw new IllegalArgumentException("job limits must not be negative");
+        }
+
+        return new JobLimit(maxConcurrentRuns, maxStartsPerSecond);
+    }
+
+    public int getMaxConcurrentRuns() {
+        return maxConcurrentRuns;
+    }
+
+    public double getMaxStartsPerSecond() {
+        return maxStartsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "JobLimit{" +
+                "maxConcurrentRuns=" + maxConcurrentRuns +
+                ", maxStartsPerSecond=" + maxStartsPerSecond +
+                '}';
+    }
+}
@@ -0,0 +1,312 @@
+package com.iza.jms.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Enforces the limits {@link JobLimit} of the runs of the jobs with the same name
+ * A job taken from the queue over its limit is parked by the limiter, without holding a worker,
+ * in the order it arrived. When a run of a job with the same name completes, or the token bucket
+ * refills, the first parked job is granted a run and returned to the queue, so that it is
+ * dispatched again in the priority order
+ */
+
+class JobLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLimiter.class);
+
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+    private final JobTimer jobTimer;
+    private final Consumer<JobHandle> resumer;
+
+    /**
+     * @param jobTimer timer waking up the jobs parked until the token bucket refills
+     * @param resumer consumer returning the jobs granted a run to the queue
+     */
+
+    JobLimiter(JobTimer jobTimer, Consumer<JobHandle> resumer) {
+        this.jobTimer = jobTimer;
+        this.resumer = resumer;
+    }
+
+    /**
+     * Sets or removes the limit of the jobs with the name, resuming the parked jobs allowed by the new limit
+     *
+     * @param jobLimit the limit, or null to remove it
+     */
+
+    void setLimit(String jobName, JobLimit jobLimit) {
+        Limit limit;
+        if (jobLimit == null) {
+            limit = limits.remove(jobName);
+            if (limit == null) {
+                return;
+            }
+            limit.update(0, 0.0);
+        } else {
+            limit = limits.computeIfAbsent(jobName, name -> new Limit());
+            limit.update(jobLimit.getMaxConcurrentRuns(), jobLimit.getMaxStartsPerSecond());
+        }
+        resume(limit.grantParked());
+    }
+
+    /**
+     * Acquires a run of the job taken from the queue, or parks the job until a run is granted
+     *
+     * @return true if the job may be run now, or false if it was parked
+     */
+
+    boolean tryAcquire(JobHandle handle) {
+        if (handle.getAcquiredLimit() != null || limits.isEmpty()) {
+            return true;
+        }
+
+        Limit limit = limits.get(handle.getJob().getJobName());
+        return limit == null || limit.tryAcquire(handle);
+    }
+
+    /**
+     * Acquires a run of the job if its limit allows it right away, without parking the job,
+     * e.g. for a job run by the caller thread
+     *
+     * @return true if the job may be run now, or false if it is over its limit
+     */
+
+    boolean tryAcquireNow(JobHandle handle) {
+        if (handle.getAcquiredLimit() != null || limits.isEmpty()) {
+            return true;
+        }
+
+        Limit limit = limits.get(handle.getJob().getJobName());
+        return limit == null || limit.tryStart(handle);
+    }
+
+    /**
+     * Releases the run acquired by the job after the run, or when the job is cancelled before it,
+     * granting runs to the parked jobs
+     * The run is released once, if several threads release it, e.g. the dispatcher and a cancellation
+     */
+
+    void release(JobHandle handle) {
+        Limit limit = handle.takeAcquiredLimit();
+        if (limit == null) {
+            return;
+        }
+
+        limit.release();
+        resume(limit.grantParked());
+    }
+
+    /**
+     * Removes a cancelled job from the parked jobs of its limit, rather than keeping it
+     * until a run would be granted to it, in O(1)
+     *
+     * @return true if the job was parked and was removed
+     */
+
+    boolean unpark(JobHandle handle) {
+        Limit limit = handle.getParkedLimit();
+        return limit != null && limit.unpark(handle);
+    }
+
+    /**
+     * @return number of jobs parked over their limits
+     */
+
+    int getParkedJobCount() {
+        int count = 0;
+        for (Limit limit : limits.values()) {
+            count += limit.getParkedCount();
+        }
+        return count;
+    }
+
+    private void resume(List<JobHandle> handles) {
+        for (JobHandle handle : handles) {
+            resumer.accept(handle);
+        }
+    }
+
+    private void scheduleWakeup(Limit limit, long delayMs) {
+        try {
+            jobTimer.schedule(() -> {
+                limit.wakeupScheduled = false;
+                resume(limit.grantParked());
+            }, delayMs);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job timer is shut down, parked jobs will not be resumed");
+        }
+    }
+
+    /**
+     * Runs of the jobs with the same name: a counter of the running jobs, a token bucket of the starts,
+     * and a queue of the parked jobs
+     */
+
+    class Limit {
+
+        // Guarded by this
+        private int maxConcurrentRuns;
+        private double tokensPerNano;
+        private double maxTokens;
+        private double tokens;
+        private long refillNanos = System.nanoTime();
+        private int runningCount;
+
+        // Parked jobs in the order they arrived, linked through the job handles
+        private JobHandle parkedHead;
+        private JobHandle parkedTail;
+        private int parkedCount;
+
+        private volatile boolean wakeupScheduled;
+
+        private synchronized void update(int maxConcurrentRuns, double maxStartsPerSecond) {
+            // The bucket of a new limit starts full
+            refill();
+            boolean created = maxTokens == 0.0;
+            this.maxConcurrentRuns = maxConcurrentRuns;
+            this.tokensPerNano = maxStartsPerSecond / TimeUnit.SECONDS.toNanos(1L);
+            this.maxTokens = Math.max(1.0, maxStartsPerSecond);
+            this.tokens = created ? maxTokens : Math.min(tokens, maxTokens);
+        }
+
+        private synchronized boolean tryAcquire(JobHandle handle) {
+            // Parked jobs are granted runs first, so that they are not overtaken by the new ones
+            if (parkedHead == null && canStart()) {
+                start(handle);
+                return true;
+            }
+
+            park(handle);
+            scheduleRefillWakeup();
+            return false;
+        }
+
+        private synchronized boolean tryStart(JobHandle handle) {
+            if (parkedHead == null && canStart()) {
+                start(handle);
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized void release() {
+            runningCount--;
+        }
+
+        /**
+         * Grants runs to the parked jobs while the limit allows
+         *
+         * @return the jobs granted a run, to be returned to the queue outside of the lock
+         */
+
+        private synchronized List<JobHandle> grantParked() {
+            List<JobHandle> granted = new ArrayList<>();
+
+            while (parkedHead != null && canStart()) {
+                JobHandle handle = parkedHead;
+                unlink(handle);
+                if (handle.isCancelled()) {
+                    continue;
+                }
+                start(handle);
+                granted.add(handle);
+            }
+
+            scheduleRefillWakeup();
+            return granted;
+        }
+
+        private synchronized boolean unpark(JobHandle handle) {
+            // The job may have been granted a run since its limit was read
+            if (handle.getParkedLimit() != this) {
+                return false;
+            }
+            unlink(handle);
+            return true;
+        }
+
+        private synchronized int getParkedCount() {
+            return parkedCount;
+        }
+
+        private void park(JobHandle handle) {
+            handle.parkedPrev = parkedTail;
+            handle.parkedNext = null;
+            if (parkedTail == null) {
+                parkedHead = handle;
+            } else {
+                parkedTail.parkedNext = handle;
+            }
+            parkedTail = handle;
+            parkedCount++;
+            handle.setParkedLimit(this);
+        }
+
+        private void unlink(JobHandle handle) {
+            JobHandle prev = handle.parkedPrev;
+            JobHandle next = handle.parkedNext;
+
+            if (prev == null) {
+                parkedHead = next;
+            } else {
+                prev.parkedNext = next;
+            }
+            if (next == null) {
+                parkedTail = prev;
+            } else {
+                next.parkedPrev = prev;
+            }
+
+            handle.parkedPrev = null;
+            handle.parkedNext = null;
+            handle.setParkedLimit(null);
+            parkedCount--;
+        }
+
+        private boolean canStart() {
+            if (maxConcurrentRuns > 0 && runningCount >= maxConcurrentRuns) {
+                return false;
+            }
+            refill();
+            return tokensPerNano == 0.0 || tokens >= 1.0;
+        }
+
+        private void start(JobHandle handle) {
+            runningCount++;
+            if (tokensPerNano > 0.0) {
+                tokens -= 1.0;
+            }
+            handle.setAcquiredLimit(this);
+        }
+
+        private void refill() {
+            long nowNanos = System.nanoTime();
+            tokens = Math.min(maxTokens, tokens + (nowNanos - refillNanos) * tokensPerNano);
+            refillNanos = nowNanos;
+        }
+
+        /**
+         * Schedules a wakeup when the token bucket refills, if parked jobs only wait for a token
+         */
+
+        private void scheduleRefillWakeup() {
+            if (parkedHead == null || wakeupScheduled || tokensPerNano == 0.0 || tokens >= 1.0
+                    || (maxConcurrentRuns > 0 && runningCount >= maxConcurrentRuns)) {
+                return;
+            }
+
+            wakeupScheduled = true;
+            long delayNanos = (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+            scheduleWakeup(this, Math.max(1L, TimeUnit.NANOSECONDS.toMillis(delayNanos) + 1L));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.job.JobStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free recorder of the job run metrics of the job scheduler {@link JobScheduler}
+ * Keeps wait and run time histograms per job priority, and run counters per job name
+ */
+
+class JobMetrics {
+
+    private static final JobPriority[] priorities = JobPriority.values();
+
+    private final LatencyHistogram[] waitTimes = new LatencyHistogram[priorities.length];
+    private final LatencyHistogram[] runTimes = new LatencyHistogram[priorities.length];
+    private final ConcurrentMap<String, JobNameCounters> jobNameCounters = new ConcurrentHashMap<>();
+    private final AtomicInteger runningJobCount = new AtomicInteger();
+
+    JobMetrics() {
+        for (int i = 0; i < priorities.length; i++) {
+            waitTimes[i] = new LatencyHistogram();
+            runTimes[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records the start of a job run
+     *
+     * @param waitNanos time the job waited for a worker since it was queued and due
+     */
+
+    void recordRunStart(Job job, long waitNanos) {
+        runningJobCount.incrementAndGet();
+        waitTimes[job.getJobPriority().ordinal()].record(waitNanos);
+    }
+
+    /**
+     * Records the end of a job run, counting it as succeeded or failed by the job status
+     */
+
+    void recordRunEnd(Job job, long runNanos) {
+        runningJobCount.decrementAndGet();
+        runTimes[job.getJobPriority().ordinal()].record(runNanos);
+
+        JobNameCounters counters = jobNameCounters.get(job.getJobName());
+        if (counters == null) {
+            counters = jobNameCounters.computeIfAbsent(job.getJobName(), name -> new JobNameCounters());
+        }
+        counters.record(job.getJobStatus(), runNanos);
+    }
+
+    /**
+     * @return wait time histograms indexed by the job priority ordinal
+     */
+
+    LatencyHistogram[] getWaitTimes() {
+        return waitTimes;
+    }
+
+    int getRunningJobCount() {
+        return runningJobCount.get();
+    }
+
+    Map<JobPriority, LatencySnapshot> waitTimeSnapshots() {
+        return snapshots(waitTimes);
+    }
+
+    Map<JobPriority, LatencySnapshot> runTimeSnapshots() {
+        return snapshots(runTimes);
+    }
+
+    Map<String, JobNameStats> jobNameStats() {
+        Map<String, JobNameStats> stats = new TreeMap<>();
+        jobNameCounters.forEach((name, counters) -> stats.put(name, counters.snapshot()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private static Map<JobPriority, LatencySnapshot> snapshots(LatencyHistogram[] histograms) {
+        Map<JobPriority, LatencySnapshot> snapshots = new EnumMap<>(JobPriority.class);
+        for (JobPriority priority : priorities) {
+            snapshots.put(priority, histograms[priority.ordinal()].snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    private static class JobNameCounters {
+
+        private final LongAdder succeededCount = new LongAdder();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAdder totalRunTimeNanos = new LongAdder();
+        private final AtomicLong maxRunTimeNanos = new AtomicLong();
+
+        private void record(JobStatus status, long runNanos) {
+            if (status == JobStatus.SUCCESS) {
+                succeededCount.increment();
+            } else {
+                failedCount.increment();
+            }
+            totalRunTimeNanos.add(runNanos);
+            maxRunTimeNanos.accumulateAndGet(runNanos, Math::max);
+        }
+
+        private JobNameStats snapshot() {
+            return new JobNameStats(succeededCount.sum(), failedCount.sum(),
+                    totalRunTimeNanos.sum(), maxRunTimeNanos.get());
+        }
+    }
+}
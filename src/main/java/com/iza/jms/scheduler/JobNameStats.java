@@ -0,0 +1,58 @@
+package com.iza.jms.scheduler;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Run statistics of the jobs with the same name, collected by the job scheduler {@link JobScheduler}
+ */
+
+public class JobNameStats {
+
+    private final long succeededCount;
+    private final long failedCount;
+    private final long totalRunTimeNanos;
+    private final long maxRunTimeNanos;
+
+    @ConstructorProperties({"succeededCount", "failedCount", "totalRunTimeNanos", "maxRunTimeNanos"})
+    public JobNameStats(long succeededCount, long failedCount, long totalRunTimeNanos, long maxRunTimeNanos) {
+        this.succeededCount = succeededCount;
+        this.failedCount = failedCount;
+        this.totalRunTimeNanos = totalRunTimeNanos;
+        this.maxRunTimeNanos = maxRunTimeNanos;
+    }
+
+    public long getSucceededCount() {
+        return succeededCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public long getTotalRunTimeNanos() {
+        return totalRunTimeNanos;
+    }
+
+    public long getMaxRunTimeNanos() {
+        return maxRunTimeNanos;
+    }
+
+    /**
+     * @return mean run time of the completed runs, or 0 if there were none
+     */
+
+    public long getMeanRunTimeNanos() {
+        long runs = succeededCount + failedCount;
+        return runs == 0L ? 0L : totalRunTimeNanos / runs;
+    }
+
+    @Override
+    public String toString() {
+        return "JobNameStats{" +
+                "succeededCount=" + succeededCount +
+                ", failedCount=" + failedCount +
+                ", totalRunTimeNanos=" + totalRunTimeNanos +
+                ", maxRunTimeNanos=" + maxRunTimeNanos +
+                '}';
+    }
+}
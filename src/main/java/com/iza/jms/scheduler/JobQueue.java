@@ -0,0 +1,480 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.JobPriority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded priority queue of jobs waiting to be run by the job scheduler {@link JobScheduler}
+ * New jobs are admitted only while the queue holds less jobs than its capacity. Jobs which were
+ * admitted before (e.g. periodic jobs returning to the queue after their delay) are always
+ * accepted, so the bound limits the number of jobs in the scheduler rather than dropping them
+ * Jobs are kept in a FIFO lane per job priority, so that jobs of the same priority are taken in
+ * the order they were queued, and adding, taking or removing a job costs O(1): the lanes are linked
+ * lists threaded through the job handles, so that a cancelled job is unlinked from the middle of
+ * its lane without a search. The job taken next is the head
+ * of the lane with the highest effective priority: with aging enabled, a job is promoted by one
+ * priority level for each aging interval it has waited, so that jobs of a low priority are not
+ * starved by a steady load of jobs of a higher priority. Jobs of the same effective priority are
+ * taken in the order they were queued
+ */
+
+class JobQueue {
+
+    private volatile int capacity;
+    private volatile long agingNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final Lane[] lanes = new Lane[JobPriority.values().length];
+    private int size;
+    private long nextSequence;
+
+    /**
+     * @param capacity maximum number of new jobs admitted to the queue
+     * @param agingMs time a job waits before it is promoted by one priority level in milliseconds,
+     *                or 0 to disable aging
+     */
+
+    JobQueue(int capacity, long agingMs) {
+        this.capacity = capacity;
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMs);
+
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Adds a new job to the queue if the queue is not full
+     *
+     * @return true if the job was added, or false if the queue is full
+     */
+
+    boolean offer(JobHandle handle) {
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                return false;
+            }
+            enqueue(handle);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new job to the queue, waiting up to the specified time for space to become available
+     *
+     * @return true if the job was added, or false if the queue stayed full
+     * @throws InterruptedException if interrupted while waiting
+     */
+
+    boolean offer(JobHandle handle, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while (size >= capacity) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(handle);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds new jobs to the queue in the list order, until the queue is full
+     * The jobs are appended to their lanes under a single lock acquisition
+     *
+     * @param handles jobs to be added
+     * @return number of jobs added from the head of the list
+     */
+
+    int offerAll(List<JobHandle> handles) {
+        lock.lock();
+        try {
+            int added = Math.min(handles.size(), capacity - size);
+            if (added <= 0) {
+                return 0;
+            }
+            return enqueueAll(handles.subList(0, added));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns previously admitted jobs (e.g. recovered after a restart) to the queue
+     * regardless of the queue capacity
+     */
+
+    void putAll(List<JobHandle> handles) {
+        lock.lock();
+        try {
+            enqueueAll(handles);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new job to the queue, evicting the job with the lowest priority if the queue is full
+     * If the new job does not have a higher priority than every queued job, it is not added
+     *
+     * @return the evicted job, the new job itself if it was not added, or null if nothing was evicted
+     */
+
+    JobHandle offerEvictingLowest(JobHandle handle) {
+        lock.lock();
+        try {
+            if (size < capacity) {
+                enqueue(handle);
+                return null;
+            }
+
+            // The most recently queued job of the lowest priority has waited the least
+            int lowestLane = lanes.length - 1;
+            while (lowestLane >= 0 && lanes[lowestLane].isEmpty()) {
+                lowestLane--;
+            }
+
+            if (lowestLane <= priorityIndex(handle)) {
+                return handle;
+            }
+
+            JobHandle lowest = lanes[lowestLane].pollLast();
+            size--;
+            enqueue(handle);
+            return lowest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a previously admitted job to the queue regardless of the queue capacity
+     */
+
+    void put(JobHandle handle) {
+        lock.lock();
+        try {
+            enqueue(handle);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the job with the highest effective priority from the queue, waiting if the queue is empty
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+
+    JobHandle take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            JobHandle handle = poll(System.nanoTime());
+            signalNotFull();
+            return handle;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes up to the specified number of jobs from the queue in effective priority order,
+     * waiting if the queue is empty
+     *
+     * @param handles collection to add the taken jobs to
+     * @param maxJobs maximum number of jobs to take
+     * @return number of jobs taken
+     * @throws InterruptedException if interrupted while waiting
+     */
+
+    int drainTo(Collection<JobHandle> handles, int maxJobs) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            int taken = Math.min(size, maxJobs);
+            long nowNanos = System.nanoTime();
+            for (int i = 0; i < taken; i++) {
+                handles.add(poll(nowNanos));
+            }
+            signalNotFull();
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the jobs from the queue, e.g. after they were cancelled, skipping the jobs which
+     * are not in the queue (e.g. taken by the dispatcher or waiting for their delay)
+     * The jobs are unlinked from their lanes under a single lock acquisition
+     *
+     * @param handles jobs to be removed
+     * @return the jobs removed
+     */
+
+    List<JobHandle> removeAll(Collection<JobHandle> handles) {
+        lock.lock();
+        try {
+            List<JobHandle> removed = new ArrayList<>();
+            for (JobHandle handle : handles) {
+                if (lanes[priorityIndex(handle)].remove(handle)) {
+                    removed.add(handle);
+                }
+            }
+
+            size -= removed.size();
+            if (!removed.isEmpty()) {
+                signalNotFull();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all jobs from the queue without waiting
+     *
+     * @return the removed jobs
+     */
+
+    List<JobHandle> clear() {
+        lock.lock();
+        try {
+            List<JobHandle> handles = new ArrayList<>(size);
+            for (Lane lane : lanes) {
+                JobHandle handle;
+                while ((handle = lane.pollFirst()) != null) {
+                    handles.add(handle);
+                }
+            }
+            size = 0;
+            signalNotFull();
+            return handles;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return numbers of jobs in the queue, indexed by the job priority ordinal
+     */
+
+    int[] sizeByPriority() {
+        lock.lock();
+        try {
+            int[] sizeByPriority = new int[lanes.length];
+            for (int i = 0; i < lanes.length; i++) {
+                sizeByPriority[i] = lanes[i].size;
+            }
+            return sizeByPriority;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the capacity of the queue and the aging time of the jobs, waking up the producers
+     * waiting for the queue if it is no longer full
+     * Jobs already in the queue are kept when the capacity shrinks below the queue size, and new
+     * jobs are admitted again once the queue has drained below the new capacity
+     */
+
+    void reconfigure(int capacity, long agingMs) {
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMs);
+            if (size < capacity) {
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(JobHandle handle) {
+        append(handle);
+        notEmpty.signal();
+    }
+
+    private int enqueueAll(List<JobHandle> handles) {
+        for (JobHandle handle : handles) {
+            append(handle);
+        }
+
+        if (!handles.isEmpty()) {
+            notEmpty.signal();
+        }
+        return handles.size();
+    }
+
+    private void append(JobHandle handle) {
+        // The time is stored even when aging is off, as aging can be turned on while the job is queued
+        handle.setQueuePosition(nextSequence++, System.nanoTime());
+        lanes[priorityIndex(handle)].addLast(handle);
+        size++;
+    }
+
+    /**
+     * Takes the head of the lane with the highest effective priority, the heads being
+     * the longest waiting jobs of their lanes
+     */
+
+    private JobHandle poll(long nowNanos) {
+        int bestLane = -1;
+        int bestPriority = Integer.MAX_VALUE;
+        long bestSequence = Long.MAX_VALUE;
+
+        for (int i = 0; i < lanes.length; i++) {
+            JobHandle head = lanes[i].peekFirst();
+            if (head == null) {
+                continue;
+            }
+
+            int priority = effectivePriority(i, head, nowNanos);
+            if (priority < bestPriority || (priority == bestPriority && head.getQueueSequence() < bestSequence)) {
+                bestLane = i;
+                bestPriority = priority;
+                bestSequence = head.getQueueSequence();
+            }
+        }
+
+        size--;
+        return lanes[bestLane].pollFirst();
+    }
+
+    private int effectivePriority(int priority, JobHandle handle, long nowNanos) {
+        if (agingNanos == 0L || priority == 0) {
+            return priority;
+        }
+
+        long promotions = (nowNanos - handle.getQueuedNanos()) / agingNanos;
+        return (int) Math.max(0L, priority - promotions);
+    }
+
+    private static int priorityIndex(JobHandle handle) {
+        return handle.getJob().getJobPriority().ordinal();
+    }
+
+    private void signalNotFull() {
+        if (size < capacity) {
+            notFull.signalAll();
+        }
+    }
+
+    /**
+     * FIFO lane of the jobs of one priority, linked through the job handles
+     */
+
+    private static class Lane {
+
+        private JobHandle head;
+        private JobHandle tail;
+        private int size;
+
+        private void addLast(JobHandle handle) {
+            handle.queuePrev = tail;
+            handle.queueNext = null;
+            if (tail == null) {
+                head = handle;
+            } else {
+                tail.queueNext = handle;
+            }
+            tail = handle;
+            size++;
+        }
+
+        private JobHandle peekFirst() {
+            return head;
+        }
+
+        private JobHandle pollFirst() {
+            JobHandle handle = head;
+            if (handle != null) {
+                unlink(handle);
+            }
+            return handle;
+        }
+
+        private JobHandle pollLast() {
+            JobHandle handle = tail;
+            if (handle != null) {
+                unlink(handle);
+            }
+            return handle;
+        }
+
+        /**
+         * @return true if the job was in the lane and was removed
+         */
+
+        private boolean remove(JobHandle handle) {
+            if (handle != head && handle.queuePrev == null) {
+                return false;
+            }
+            unlink(handle);
+            return true;
+        }
+
+        private boolean isEmpty() {
+            return head == null;
+        }
+
+        private void unlink(JobHandle handle) {
+            JobHandle prev = handle.queuePrev;
+            JobHandle next = handle.queueNext;
+
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.queueNext = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.queuePrev = prev;
+            }
+
+            handle.queuePrev = null;
+            handle.queueNext = null;
+            size--;
+        }
+    }
+}
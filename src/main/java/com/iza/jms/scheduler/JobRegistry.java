@@ -0,0 +1,137 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of jobs accepted by the job scheduler {@link JobScheduler}, used to look up
+ * jobs by id for cancellation and completion checks
+ * Jobs are registered when they are queued, so that they can be cancelled in every state
+ * Lookups are lock-free. Jobs which reached a terminal state are retired and kept in the registry
+ * for the retention time, and at most the configured number of retired jobs is kept, the oldest
+ * ones being evicted first, so that the registry size does not grow with the number of jobs run
+ */
+
+class JobRegistry {
+
+    private final ConcurrentHashMap<Long, JobHandle> handles = new ConcurrentHashMap<>();
+
+    // Durable jobs recovered from descriptors with the string (UUID) ids of earlier versions, by their string ids
+    private final ConcurrentHashMap<String, JobHandle> legacyHandles = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<RetiredJob> retiredJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retiredJobCount = new AtomicInteger();
+
+    private final long retentionNanos;
+    private final int maxRetainedJobs;
+
+    JobRegistry(long retentionMs, int maxRetainedJobs) {
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(retentionMs);
+        this.maxRetainedJobs = maxRetainedJobs;
+    }
+
+    void register(JobHandle handle) {
+        Job job = handle.getJob();
+        if (handles.putIfAbsent(job.getId(), handle) == null && hasLegacyId(job)) {
+            legacyHandles.put(job.getJobId(), handle);
+        }
+    }
+
+    /**
+     * Removes a job which was registered but not accepted (e.g. rejected by a full queue)
+     */
+
+    void unregister(JobHandle handle) {
+        remove(handle);
+    }
+
+    JobHandle get(long id) {
+        return handles.get(id);
+    }
+
+    /**
+     * Looks up a durable job recovered with a string id which is not its numeric id {@link Job#getJobId()}
+     *
+     * @return the job, or null if no such job is registered
+     */
+
+    JobHandle getByLegacyId(String jobId) {
+        return legacyHandles.get(jobId);
+    }
+
+    /**
+     * Marks a registered job as terminal, scheduling it for eviction
+     */
+
+    void retire(JobHandle handle) {
+        long now = System.nanoTime();
+
+        retiredJobs.add(new RetiredJob(handle, now));
+        retiredJobCount.incrementAndGet();
+        evict(now);
+    }
+
+    /**
+     * Evicts retired jobs which were kept for longer than the retention time
+     */
+
+    void evictExpired() {
+        evict(System.nanoTime());
+    }
+
+    /**
+     * @return view of the registered jobs
+     */
+
+    Collection<JobHandle> handles() {
+        return handles.values();
+    }
+
+    int size() {
+        return handles.size();
+    }
+
+    private void evict(long now) {
+        RetiredJob oldest;
+
+        while ((oldest = retiredJobs.peek()) != null
+                && (retiredJobCount.get() > maxRetainedJobs || now - oldest.retiredAtNanos >= retentionNanos)) {
+            // Another thread may be evicting the same job, only the one which removed it updates the registry
+            if (retiredJobs.remove(oldest)) {
+                retiredJobCount.decrementAndGet();
+                remove(oldest.handle);
+            }
+        }
+    }
+
+    private void remove(JobHandle handle) {
+        Job job = handle.getJob();
+        if (handles.remove(job.getId(), handle) && hasLegacyId(job)) {
+            legacyHandles.remove(job.getJobId(), handle);
+        }
+    }
+
+    /**
+     * @return true if the job has a string id other than its numeric id, only checked for the durable
+     * jobs, so that the ids of the other jobs are not rendered
+     */
+
+    private static boolean hasLegacyId(Job job) {
+        return job.getJobDescriptor() != null && !job.getJobId().equals(Long.toString(job.getId()));
+    }
+
+    private static class RetiredJob {
+
+        private final JobHandle handle;
+        private final long retiredAtNanos;
+
+        private RetiredJob(JobHandle handle, long retiredAtNanos) {
+            this.handle = handle;
+            this.retiredAtNanos = retiredAtNanos;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobStatus;
+
+import java.time.Duration;
+
+/**
+ * Result of a Job run by the job scheduler {@link JobScheduler}
+ * Reports the job's terminal status (or the status of a single run of a periodic job),
+ * the run duration, the value computed by a callable job {@link com.iza.jms.job.CallableJob}
+ * and the exception the run failed with, if any
+ */
+
+public class JobResult {
+
+    private final Job job;
+    private final JobStatus status;
+    private final Duration runTime;
+    private final Object value;
+    private final Exception exception;
+
+    JobResult(Job job, JobStatus status, Duration runTime, Object value, Exception exception) {
+        this.job = job;
+        this.status = status;
+        this.runTime = runTime;
+        this.value = value;
+        this.exception = exception;
+    }
+
+    /**
+     * Creates the result of a job which was finished without completing a run, e.g. cancelled or dropped
+     */
+
+    static JobResult notRun(Job job, JobStatus status) {
+        return new JobResult(job, status, Duration.ZERO, null, null);
+    }
+
+    public Job getJob() {
+        return job;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return duration of the job run, or zero if the job was not run
+     */
+
+    public Duration getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * @return value computed by a callable job, or null for runnable jobs and failed runs
+     */
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the value computed by a callable job, cast to the expected type
+     *
+     * @param type expected type of the value
+     * @return the value, or null for runnable jobs and failed runs
+     * @throws ClassCastException if the value is not of the expected type
+     */
+
+    public <T> T getValue(Class<T> type) throws ClassCastException {
+        return type.cast(value);
+    }
+
+    /**
+     * @return exception thrown by the job's task, or null if the run did not fail
+     */
+
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return true if the job run completed successfully
+     */
+
+    public boolean isSuccess() {
+        return status == JobStatus.SUCCESS;
+    }
+
+    @Override
+    public String toString() {
+        return "JobResult{" +
+                "jobName='" + job.getJobName() + '\'' +
+                ", jobId='" + job.getJobId() + '\'' +
+                ", status=" + status +
+                ", runTime=" + runTime +
+                ", value=" + value +
+                ", exception=" + exception +
+                '}';
+    }
+}
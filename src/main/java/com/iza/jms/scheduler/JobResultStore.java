@@ -0,0 +1,156 @@
+package com.iza.jms.scheduler;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded store of the results of callable jobs run by the job scheduler {@link JobScheduler},
+ * used to look up the results by job id
+ * The store holds at most the configured number of results, with at most the configured total
+ * estimated size, evicting the least recently used results first. Results are also evicted
+ * after the retention time, so that large results do not stay on the heap
+ * Sizes of the result values are estimated shallowly: the size of a string or an array is
+ * proportional to its length, the size of a collection to the number of its elements
+ */
+
+class JobResultStore {
+
+    private static final long OBJECT_SIZE = 64L;
+    private static final long REFERENCE_SIZE = 16L;
+
+    private final Map<Long, StoredResult> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int maxResults;
+    private final long maxBytes;
+    private final long retentionNanos;
+
+    private long totalBytes;
+
+    JobResultStore(int maxResults, long maxBytes, long retentionMs) {
+        this.maxResults = maxResults;
+        this.maxBytes = maxBytes;
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(retentionMs);
+    }
+
+    /**
+     * Stores the result of a job, replacing its previous result
+     * Results which are larger than the memory limit on their own are not stored
+     *
+     * @return true if the result was stored
+     */
+
+    synchronized boolean put(JobResult result) {
+        long id = result.getJob().getId();
+        long bytes = estimateSize(result.getValue());
+
+        remove(id);
+        if (maxResults == 0 || bytes > maxBytes) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        results.put(id, new StoredResult(result, bytes, now));
+        totalBytes += bytes;
+        evictLeastRecentlyUsed();
+        return true;
+    }
+
+    /**
+     * @return the stored result of the job, or null if there is no result or it has expired
+     */
+
+    synchronized JobResult get(long id) {
+        StoredResult stored = results.get(id);
+        if (stored == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - stored.storedAtNanos >= retentionNanos) {
+            remove(id);
+            return null;
+        }
+        return stored.result;
+    }
+
+    /**
+     * Evicts the results which were kept for longer than the retention time
+     */
+
+    synchronized void evictExpired() {
+        long now = System.nanoTime();
+
+        Iterator<StoredResult> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            StoredResult stored = iterator.next();
+            if (now - stored.storedAtNanos >= retentionNanos) {
+                iterator.remove();
+                totalBytes -= stored.bytes;
+            }
+        }
+    }
+
+    synchronized int size() {
+        return results.size();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(long id) {
+        StoredResult removed = results.remove(id);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<StoredResult> iterator = results.values().iterator();
+
+        // Least recently used results come first
+        while (iterator.hasNext() && (results.size() > maxResults || totalBytes > maxBytes)) {
+            StoredResult stored = iterator.next();
+            iterator.remove();
+            totalBytes -= stored.bytes;
+        }
+    }
+
+    static long estimateSize(Object value) {
+        if (value == null) {
+            return REFERENCE_SIZE;
+        }
+        if (value instanceof CharSequence) {
+            return OBJECT_SIZE + 2L * ((CharSequence) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_SIZE + ((byte[]) value).length;
+        }
+        if (value.getClass().isArray()) {
+            return OBJECT_SIZE + 8L * Array.getLength(value);
+        }
+        if (value instanceof Collection) {
+            return OBJECT_SIZE + REFERENCE_SIZE * ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return OBJECT_SIZE + 2L * REFERENCE_SIZE * ((Map<?, ?>) value).size();
+        }
+        return OBJECT_SIZE;
+    }
+
+    private static class StoredResult {
+
+        private final JobResult result;
+        private final long bytes;
+        private final long storedAtNanos;
+
+        private StoredResult(JobResult result, long bytes, long storedAtNanos) {
+            this.result = result;
+            this.bytes = bytes;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Listener notified by the job scheduler {@link JobScheduler} after every run of a job,
+ * e.g. to follow each run of a periodic job
+ * The listener is called on the thread which ran the job, so it should return quickly
+ */
+
+@FunctionalInterface
+public interface JobRunListener {
+
+    /**
+     * @param result result of the completed run
+     */
+
+    void onRunCompleted(JobResult result);
+}
@@ -1,20 +1,38 @@
 package com.iza.jms.scheduler;
 
+import com.iza.jms.job.CallableJob;
 import com.iza.jms.job.Job;
+import com.iza.jms.job.JobDescriptor;
+import com.iza.jms.job.JobPriority;
 import com.iza.jms.job.JobSchedule;
 import com.iza.jms.job.JobStatus;
+import com.iza.jms.job.RetryPolicy;
 import com.iza.jms.properties.PropertiesReader;
 import com.iza.jms.properties.Props;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Job scheduler of the JMS
- * Uses priority blocking queue and scheduled single-threaded executor to execute jobs from the queue
+ * Uses bounded priority queue and a single-threaded dispatcher which hands jobs from the queue
+ * to the job execution worker pool {@link WorkerPool} only when a worker is free, so that the queue
+ * remains the single point of job ordering. Delays between job runs are handled by a separate timer
+ * {@link JobTimer}, either a scheduled executor or a timing wheel
  *
  * @author Zakhar Izverov
  * created on 16.09.2021
@@ -24,22 +42,87 @@ public class JobScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
 
-    private final ScheduledExecutorService jobPoolExecutor;
+    // Properties of the components created at startup, which cannot be reconfigured
+    private static final Map<String, Function<Props, Object>> STARTUP_PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        STARTUP_PROPERTIES.put("EXECUTION_MODE", Props::getExecutionMode);
+        STARTUP_PROPERTIES.put("TIMER_ENGINE", Props::getTimerEngine);
+        STARTUP_PROPERTIES.put("TIMER_TICK_MS", Props::getTimerTickMs);
+        STARTUP_PROPERTIES.put("METRICS_JMX_ENABLED", Props::isMetricsJmxEnabled);
+        STARTUP_PROPERTIES.put("COMPLETED_JOB_RETENTION_MS", Props::getCompletedJobRetentionMs);
+        STARTUP_PROPERTIES.put("COMPLETED_JOB_RETENTION_COUNT", Props::getCompletedJobRetentionCount);
+        STARTUP_PROPERTIES.put("RESULT_STORE_MAX_COUNT", Props::getResultStoreMaxCount);
+        STARTUP_PROPERTIES.put("RESULT_STORE_MAX_BYTES", Props::getResultStoreMaxBytes);
+        STARTUP_PROPERTIES.put("RESULT_RETENTION_MS", Props::getResultRetentionMs);
+        STARTUP_PROPERTIES.put("JOURNAL_DIR", Props::getJournalDir);
+        STARTUP_PROPERTIES.put("JOURNAL_SEGMENT_SIZE", Props::getJournalSegmentSize);
+        STARTUP_PROPERTIES.put("JOURNAL_FLUSH_INTERVAL_MS", Props::getJournalFlushIntervalMs);
+        STARTUP_PROPERTIES.put("STATE_SINK_FILE", Props::getStateSinkFile);
+        STARTUP_PROPERTIES.put("STATE_SINK_JDBC_URL", Props::getStateSinkJdbcUrl);
+        STARTUP_PROPERTIES.put("STATE_BATCH_WINDOW_MS", Props::getStateBatchWindowMs);
+        STARTUP_PROPERTIES.put("STATE_BUFFER_SIZE", Props::getStateBufferSize);
+        STARTUP_PROPERTIES.put("DEAD_LETTER_QUEUE_SIZE", Props::getDeadLetterQueueSize);
+    }
+
+    private static final AtomicInteger schedulerCount = new AtomicInteger();
+
+    private final WorkerPool workerPool;
+    private final JobTimer jobTimer;
     private final ExecutorService jobScheduler;
-    private final PriorityBlockingQueue<Job> queue;
-    private final Props props;
+    private final JobQueue queue;
+    private final WorkerPermits workerPermits;
+    private volatile Props props;
 
-    private final HashMap<String, ScheduledFuture<?>> jobFutureMap = new HashMap<>();
+    private final LongAdder rejectedJobCount = new LongAdder();
+    private final LongAdder shedJobCount = new LongAdder();
+    private final LongAdder deduplicatedJobCount = new LongAdder();
+
+    private final JobRegistry jobRegistry;
+    private final JobLimiter jobLimiter;
+    private final JobDeduplicator jobDeduplicator = new JobDeduplicator();
+    private final DeadLetterQueue deadLetterQueue;
+    private final JobResultStore jobResultStore;
+    private final JobMetrics jobMetrics = new JobMetrics();
+    private volatile RunLogLimiter runLogLimiter;
+    private volatile long[] runTimeoutsMs;
+    private volatile ElasticPoolController elasticPoolController;
+    private volatile ConfigWatcher configWatcher;
+    private final JobJournal jobJournal;
+    private final ConcurrentMap<String, JobTaskFactory> taskFactories = new ConcurrentHashMap<>();
+    private final List<JobStateSink> stateSinks = new CopyOnWriteArrayList<>();
+    private volatile JobStateBuffer stateBuffer;
+    private final String metricsBeanName = "com.iza.jms:type=JobScheduler,name=jobScheduler-"
+            + schedulerCount.incrementAndGet();
     private Boolean jobSchedulerStarted;
 
-    private JobScheduler(ScheduledExecutorService jobPoolExecutor,
+    private JobScheduler(WorkerPool workerPool,
+                         JobTimer jobTimer,
                          ExecutorService jobScheduler,
-                         PriorityBlockingQueue<Job> queue,
+                         JobQueue queue,
+                         JobJournal jobJournal,
+                         List<JobStateSink> stateSinks,
                          Props props) {
-        this.jobPoolExecutor = jobPoolExecutor;
+        this.workerPool = workerPool;
+        this.jobTimer = jobTimer;
         this.jobScheduler = jobScheduler;
         this.queue = queue;
+        this.workerPermits = new WorkerPermits(workerPool.getCapacity());
+        this.jobRegistry = new JobRegistry(props.getCompletedJobRetentionMs(), props.getCompletedJobRetentionCount());
+        this.jobResultStore = new JobResultStore(props.getResultStoreMaxCount(),
+                props.getResultStoreMaxBytes(), props.getResultRetentionMs());
+        this.jobJournal = jobJournal;
+        this.jobLimiter = new JobLimiter(jobTimer, queue::put);
+        this.deadLetterQueue = new DeadLetterQueue(props.getDeadLetterQueueSize());
+        this.runLogLimiter = new RunLogLimiter(props.getRunLogRatePerSec());
         this.props = props;
+
+        props.getJobLimits().forEach(jobLimiter::setLimit);
+        this.runTimeoutsMs = runTimeoutsMs(props);
+
+        for (JobStateSink stateSink : stateSinks) {
+            addStateSink(stateSink);
+        }
     }
 
     /**
@@ -49,7 +132,7 @@ public class JobScheduler {
      */
 
     public static JobScheduler newJobScheduler() {
-        return newJobScheduler(null);
+        return newJobScheduler((String) null);
     }
 
     /**
@@ -63,20 +146,124 @@ public class JobScheduler {
     public static JobScheduler newJobScheduler(String propertiesFilePath) {
         logger.info("Configuring job scheduler properties");
 
-        Props props = PropertiesReader.readProperties(propertiesFilePath);
+        return newJobScheduler(PropertiesReader.readProperties(propertiesFilePath));
+    }
+
+    /**
+     * Creates a new JobScheduler with the specified parameters
+     *
+     * @param props job scheduler properties {@link Props}
+     * @return a JobScheduler with the specified parameters
+     * @throws IllegalArgumentException if the properties are null
+     */
+
+    public static JobScheduler newJobScheduler(Props props) throws IllegalArgumentException {
+        if (props == null) {
+            throw new IllegalArgumentException("job scheduler properties cannot be null");
+        }
 
-        return new JobScheduler(Executors.newScheduledThreadPool(props.getJobThreadPoolSize()),
+        return new JobScheduler(newWorkerPool(props),
+                newJobTimer(props),
                 Executors.newSingleThreadExecutor(),
-                new PriorityBlockingQueue<>(props.getJobQueueSize(), Comparator.comparing(Job::getJobPriority)),
+                new JobQueue(props.getJobQueueSize(), props.getQueueAgingMs()),
+                openJobJournal(props),
+                openStateSinks(props),
                 props);
     }
 
+    private static WorkerPool newWorkerPool(Props props) {
+        switch (props.getExecutionMode()) {
+            case VIRTUAL:
+                return new ExecutorWorkerPool(newVirtualThreadExecutor(), props.getVirtualConcurrencyLimit());
+            default:
+                return new ExecutorWorkerPool(Executors.newFixedThreadPool(props.getJobThreadPoolSize()),
+                        props.getJobThreadPoolSize());
+        }
+    }
+
+    /**
+     * Creates an executor which runs each task in a new virtual thread
+     * Virtual threads are looked up at runtime, so that the service also runs on JDKs without them,
+     * falling back to an executor which runs each task in a new (or reused idle) platform thread
+     */
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads are not supported by the JDK, running jobs in platform threads");
+            logger.debug("An exception occurred: ", e);
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Opens the journal of durable jobs, if a journal directory is configured
+     * If the journal cannot be opened, the scheduler runs without it
+     */
+
+    private static JobJournal openJobJournal(Props props) {
+        if (props.getJournalDir().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return JobJournal.open(Paths.get(props.getJournalDir()), props.getJournalSegmentSize(),
+                    props.getJournalFlushIntervalMs());
+        } catch (IOException e) {
+            logger.warn("Unable to open job journal in {}, durable jobs will not be recorded", props.getJournalDir());
+            logger.debug("An exception occurred: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * Opens the job state sinks configured in the properties
+     * Sinks which cannot be opened are skipped
+     */
+
+    private static List<JobStateSink> openStateSinks(Props props) {
+        List<JobStateSink> stateSinks = new ArrayList<>();
+
+        if (!props.getStateSinkFile().isEmpty()) {
+            try {
+                stateSinks.add(FileJobStateSink.open(Paths.get(props.getStateSinkFile())));
+            } catch (IOException e) {
+                logger.warn("Unable to open job state file {}, job states will not be written to it",
+                        props.getStateSinkFile());
+                logger.debug("An exception occurred: ", e);
+            }
+        }
+
+        if (!props.getStateSinkJdbcUrl().isEmpty()) {
+            try {
+                stateSinks.add(JdbcJobStateSink.open(props.getStateSinkJdbcUrl()));
+            } catch (SQLException e) {
+                logger.warn("Unable to connect to job state database {}, job states will not be written to it",
+                        props.getStateSinkJdbcUrl());
+                logger.debug("An exception occurred: ", e);
+            }
+        }
+        return stateSinks;
+    }
+
+    private static JobTimer newJobTimer(Props props) {
+        if (props.getTimerEngine() == TimerEngine.TIMING_WHEEL) {
+            return new TimingWheelJobTimer(props.getTimerTickMs());
+        }
+        return new ExecutorJobTimer();
+    }
+
     /**
      * Launches a JobScheduler instance
-     * JobScheduler continuously runs in a separate thread, taking jobs from the queue
-     * until the queue is empty or the job execution thread pool is full
-     * After launching a job, JobScheduler puts the ScheduledFuture object into a map to
-     * allow managing scheduled jobs
+     * JobScheduler continuously runs in a separate thread, waiting for free job execution
+     * workers and then taking as many jobs with the highest priority from the queue as there
+     * are free workers, so that jobs never wait for a worker outside the priority queue
+     * Jobs with a pending delay are handed to the timer, which puts them back into the queue
+     * when the delay has passed
+     * After taking a job from the queue, JobScheduler puts its handle into a registry to
+     * allow managing scheduled jobs. Completed jobs are evicted from the registry after the
+     * configured retention time, or when too many completed jobs are retained
      */
 
     public void start() {
@@ -90,26 +277,51 @@ public class JobScheduler {
 
         logger.info("Starting job scheduler");
 
+        if (jobJournal != null) {
+            recoverJobs();
+        }
+
+        long retentionMs = Math.min(props.getCompletedJobRetentionMs(), props.getResultRetentionMs());
+        scheduleEviction(Math.max(1L, Math.min(retentionMs, 1000L)));
+
+        if (props.isElasticPoolEnabled()) {
+            startElasticPool();
+        }
+
+        if (props.isMetricsJmxEnabled()) {
+            registerMetricsBean();
+        }
+
+        if (!props.getConfigWatchFile().isEmpty()) {
+            watchConfig(props.getConfigWatchFile());
+        }
+
         jobScheduler.execute(() -> {
+            List<JobHandle> batch = new ArrayList<>();
+
             while (!Thread.currentThread().isInterrupted()) {
+                int permits;
                 try {
-                    Job currentJob = queue.take();
-                    JobSchedule schedule = currentJob.getJobSchedule();
-
-                    ScheduledFuture<?> jobFuture;
-
-                    if (schedule == JobSchedule.PERIODIC) {
-                        jobFuture = jobPoolExecutor.scheduleWithFixedDelay(currentJob, currentJob.getInitialDelayMs(),
-                                currentJob.getPeriodMs(), TimeUnit.MILLISECONDS);
-                    } else {
-                        jobFuture = jobPoolExecutor.schedule(currentJob, currentJob.getInitialDelayMs(),
-                                TimeUnit.MILLISECONDS);
-                    }
+                    workerPermits.acquire();
+                    permits = 1 + workerPermits.drainAvailable();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
 
-                    jobFutureMap.put(currentJob.getJobId(), jobFuture);
+                try {
+                    queue.drainTo(batch, permits);
                 } catch (InterruptedException e) {
+                    workerPermits.release(permits);
                     Thread.currentThread().interrupt();
+                    break;
+                }
+
+                workerPermits.release(permits - batch.size());
+                for (JobHandle handle : batch) {
+                    dispatchJob(handle);
                 }
+                batch.clear();
             }
         });
 
@@ -118,114 +330,1631 @@ public class JobScheduler {
     }
 
     /**
-     * Shuts down a JobScheduler instance, waiting for the running jobs to complete
-     * within the configured shutdown timeout
+     * Recreates the pending durable jobs recorded in the journal and puts them back into the queue,
+     * regardless of the queue capacity
+     * Jobs which were running when the service stopped are run again. Jobs of the task types
+     * which are not registered are skipped, but kept in the journal
      */
 
-    public void stop() {
-        if (!jobSchedulerStarted) {
-            logger.warn("Job scheduler not running, shutdown aborted");
+    private void recoverJobs() {
+        long startNanos = System.nanoTime();
+        long nowMs = System.currentTimeMillis();
+        List<JobHandle> handles = new ArrayList<>();
+
+        for (JobJournal.JournalEntry entry : jobJournal.getPendingJobs()) {
+            JobDescriptor descriptor = entry.getDescriptor();
+            JobTaskFactory taskFactory = taskFactories.get(descriptor.getTaskType());
+
+            if (taskFactory == null) {
+                logger.warn("Unable to recover job \"{}\" (id {}), task type {} is not registered",
+                        descriptor.getJobName(), descriptor.getJobId(), descriptor.getTaskType());
+                continue;
+            }
+
+            try {
+                Job job = Job.newDurableJob(descriptor, taskFactory.newTask(descriptor.getTaskArgs()));
+                job.setJobStatus(JobStatus.QUEUED);
+                publishState(job, JobStatus.QUEUED);
+                JobHandle handle = new JobHandle(job, null, entry.getRemainingDelayMs(nowMs));
+                jobRegistry.register(handle);
+                handles.add(handle);
+            } catch (Exception e) {
+                logger.warn("Unable to recover job \"{}\" (id {}), task cannot be created",
+                        descriptor.getJobName(), descriptor.getJobId());
+                logger.debug("An exception occurred: ", e);
+            }
+        }
+
+        List<JobHandle> dueHandles = new ArrayList<>(handles.size());
+        for (JobHandle handle : handles) {
+            if (handle.isDue()) {
+                dueHandles.add(handle);
+            } else {
+                scheduleFirstRun(handle);
+            }
+        }
+        queue.putAll(dueHandles);
+        logger.info("Recovered {} jobs from the job journal in {} ms", handles.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Dispatches a job taken from the queue, holding a worker permit
+     * The permit is passed on to the job run, or released if the job is not run now
+     * Only due jobs are queued, the jobs waiting for their delay are on the job timer
+     */
+
+    private void dispatchJob(JobHandle handle) {
+        Job job = handle.getJob();
+
+        if (handle.isCancelled()) {
+            jobLimiter.release(handle);
+            workerPermits.release();
             return;
         }
-        logger.info("Stopping job scheduler");
 
-        jobPoolExecutor.shutdown();
+        // Jobs over the limit of their name are parked without holding a worker
+        if (!jobLimiter.tryAcquire(handle)) {
+            workerPermits.release();
+            return;
+        }
 
         try {
-            if (!jobPoolExecutor.awaitTermination(props.getSchedulerShutdownTimeoutSec(), TimeUnit.SECONDS)) {
-                jobPoolExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            jobPoolExecutor.shutdownNow();
+            workerPool.execute(runTask(handle), job.getJobPriority());
+        } catch (RejectedExecutionException e) {
+            jobLimiter.release(handle);
+            workerPermits.release();
+            logger.warn("Unable to run job \"{}\" (id {}), job execution pool is shut down",
+                    job.getJobName(), job.getJobId());
         }
+    }
+
+    /**
+     * @return task running the job on a worker, created on the first dispatch of the job
+     */
 
-        jobScheduler.shutdown();
+    private Runnable runTask(JobHandle handle) {
+        Runnable runTask = handle.getRunTask();
+        if (runTask == null) {
+            runTask = () -> runJob(handle);
+            handle.setRunTask(runTask);
+        }
+        return runTask;
+    }
 
+    private void runJob(JobHandle handle) {
+        boolean ran;
         try {
-            if (!jobScheduler.awaitTermination(props.getSchedulerShutdownTimeoutSec(), TimeUnit.SECONDS)) {
-                jobScheduler.shutdownNow();
+            ran = executeJob(handle);
+        } finally {
+            jobLimiter.release(handle);
+            workerPermits.release();
+        }
+        if (ran) {
+            finishRun(handle);
+        }
+    }
+
+    /**
+     * Schedules the retry of a failed run or the next run of a recurring job after a completed run,
+     * or completes the job after its last run
+     */
+
+    private void finishRun(JobHandle handle) {
+        // Retries wait for their backoff on the timer, without holding a worker
+        long retryDelayMs = handle.takeRetryDelayMs();
+        if (retryDelayMs >= 0L) {
+            scheduleDelayedRun(handle, retryDelayMs);
+            if (handle.isCancelled()) {
+                handle.getJob().setJobStatus(JobStatus.CANCELLED);
             }
-        } catch (InterruptedException e) {
-            jobScheduler.shutdownNow();
+            return;
         }
 
-        logger.info("Job scheduler stopped");
-        this.jobSchedulerStarted = false;
+        // Cron jobs without further fire times are completed after their last run
+        if (handle.isRecurring()) {
+            long delayMs = handle.nextRunDelayMs(System.currentTimeMillis());
+            if (delayMs >= 0L) {
+                scheduleDelayedRun(handle, delayMs);
+                return;
+            }
+        }
+        completeJob(handle);
     }
 
     /**
-     * Adds a Job to the JobScheduler queue and changes its status to QUEUED
+     * Runs the job in the current thread, notifying its run listener
+     * The result of the run is only built if it is needed, e.g. by a run listener or a callable job,
+     * so that the runs of a recurring job do not allocate
      *
-     * @param job Job to be queued
-     * @return true if the Job was successfully queued, or false otherwise
+     * @return true if the job was run, or false if it was cancelled before the run
      */
 
-    public boolean scheduleJob(Job job) {
-        try {
-            queue.add(job);
-            job.setJobStatus(JobStatus.QUEUED);
-        } catch (Exception e) {
-            logger.warn("Unable to add job \"{}\" (id {}) to the queue, job status was not changed",
-                    job.getJobName(), job.getJobId(), e);
-            logger.debug("An exception occurred: ", e);
+    private boolean executeJob(JobHandle handle) {
+        if (!handle.startRun()) {
             return false;
         }
+
+        Job job = handle.getJob();
+        long startNanos = System.nanoTime();
+        long runNanos;
+        jobMetrics.recordRunStart(job, startNanos - handle.getReadyNanos());
+        publishState(job, JobStatus.RUNNING);
+
+        JobTimer.Timeout runTimeout = scheduleRunTimeout(handle);
+        try {
+            job.run();
+        } finally {
+            // The run is finished before its timeout is cancelled, so that a timeout firing meanwhile is a no-op
+            handle.finishRun();
+            if (runTimeout != null) {
+                runTimeout.cancel();
+            }
+            if (handle.isTimedOut()) {
+                job.setJobStatus(JobStatus.TIMED_OUT);
+            }
+            runNanos = System.nanoTime() - startNanos;
+            jobMetrics.recordRunEnd(job, runNanos);
+        }
+
+        JobStatus status = job.getJobStatus();
+        handle.recordRun(status, runNanos);
+        if (job instanceof CallableJob) {
+            jobResultStore.put(handle.getRunResult());
+        }
+        logRun(job, status, runNanos);
+
+        long retryDelayMs = retryDelayMs(handle, status);
+        if (retryDelayMs >= 0L) {
+            handle.setRetryDelayMs(retryDelayMs);
+            job.setJobStatus(JobStatus.RETRYING);
+            publishState(job, JobStatus.RETRYING);
+        } else {
+            journalStatus(job, status);
+            publishState(job, status);
+        }
+        if (handle.hasRunListener()) {
+            handle.notifyRunCompleted(handle.getRunResult());
+        }
         return true;
     }
 
     /**
-     * Cancels Job to the JobScheduler queue and changes its status to QUEUED
+     * Schedules the timeout of the job run starting on the shared job timer, if the job has a run timeout,
+     * either its own or the default of its priority
+     * On expiry the worker running the job is interrupted, and the run completes with the TIMED_OUT status
      *
-     * @param jobId Id of the Job to be cancelled
-     * @param mayInterruptIfRunning if true, the specified Job can be interrupted if running
-     * @return true if the Job was successfully cancelled, or false otherwise
+     * @return the pending timeout, to be cancelled when the run completes, or null if the run is not limited
      */
-    public boolean cancelJob(String jobId, boolean mayInterruptIfRunning) {
 
-        if (jobId == null) {
-            logger.warn("Unable to cancel job, jobId is null");
-            return false;
+    private JobTimer.Timeout scheduleRunTimeout(JobHandle handle) {
+        Job job = handle.getJob();
+        long timeoutMs = job.getTimeoutMs() > 0L
+                ? job.getTimeoutMs()
+                : runTimeoutsMs[job.getJobPriority().ordinal()];
+        if (timeoutMs == 0L) {
+            return null;
         }
 
-        ScheduledFuture<?> jobFuture = jobFutureMap.get(jobId);
-        boolean cancelled = false;
+        long runNumber = handle.getRunNumber();
+        try {
+            return jobTimer.schedule(() -> {
+                if (handle.timeOut(runNumber)) {
+                    logger.warn("Job \"{}\" (id {}) exceeded its run timeout of {} ms and was interrupted",
+                            job.getJobName(), job.getJobId(), timeoutMs);
+                }
+            }, timeoutMs);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job timer is shut down, run timeout of job with id {} is not enforced", job.getJobId());
+            return null;
+        }
+    }
+
+    /**
+     * Logs a completed job run at INFO level, at the configured rate at most, reporting the number
+     * of the lines suppressed over the rate
+     */
 
-        if (jobFuture != null) {
-            cancelled = jobFuture.cancel(mayInterruptIfRunning);
+    private void logRun(Job job, JobStatus status, long runNanos) {
+        RunLogLimiter runLogLimiter = this.runLogLimiter;
+        if (!logger.isInfoEnabled() || !runLogLimiter.tryAcquire()) {
+            return;
         }
 
-        if (cancelled) {
-            logger.info("Job with id {} was successfully cancelled", jobId);
-        } else {
-            logger.warn("Job with id {} cannot be cancelled - it may be completed," +
-                    "cancelled before or does not exist", jobId);
+        long suppressedLineCount = runLogLimiter.takeSuppressedLineCount();
+        if (suppressedLineCount > 0L) {
+            logger.info("{} job run log lines were suppressed over the rate of {} lines per second",
+                    suppressedLineCount, props.getRunLogRatePerSec());
         }
+        logger.info("Job \"{}\" (id {}) completed with {} status in {} ms", job.getJobName(), job.getJobId(),
+                status, TimeUnit.NANOSECONDS.toMillis(runNanos));
+    }
 
-        return cancelled;
+    private static long[] runTimeoutsMs(Props props) {
+        long[] runTimeoutsMs = new long[JobPriority.values().length];
+        props.getRunTimeoutsMs().forEach((priority, timeoutMs) -> runTimeoutsMs[priority.ordinal()] = timeoutMs);
+        return runTimeoutsMs;
     }
 
     /**
-     * Checks, if a Job has finished its execution due to normal termination,
-     * exception or cancellation
+     * Applies the retry policy of the job to a completed run, putting the job into the dead-letter
+     * queue if its failed run is not retried
      *
-     * @param jobId Id of the Job to be checked
-     * @return true if the Job is completed, or false otherwise
+     * @return backoff delay before retrying the run, or -1 if the run is not retried
      */
 
-    public boolean checkIfJobIsDone(String jobId) {
-        if (jobId == null) {
-            logger.warn("Unable to check job status, jobId is null");
+    private long retryDelayMs(JobHandle handle, JobStatus status) {
+        Job job = handle.getJob();
+        RetryPolicy retryPolicy = job.getRetryPolicy();
+
+        if (retryPolicy == null || status != JobStatus.FAILED || handle.isRecurring()) {
+            return -1L;
+        }
+
+        int attempt = handle.incrementAttempts();
+        if (handle.isCancelled()) {
+            return -1L;
+        }
+
+        if (retryPolicy.shouldRetry(attempt, job.getJobException())) {
+            long backoffMs = retryPolicy.getBackoffMs(attempt);
+            logger.info("Job \"{}\" (id {}) failed on attempt {}, retrying in {} ms",
+                    job.getJobName(), job.getJobId(), attempt, backoffMs);
+            return backoffMs;
+        }
+
+        deadLetterQueue.add(new DeadLetter(handle.getRunResult(), attempt, System.currentTimeMillis()));
+        logger.warn("Job \"{}\" (id {}) failed on attempt {} and was put into the dead-letter queue",
+                job.getJobName(), job.getJobId(), attempt);
+        return -1L;
+    }
+
+    /**
+     * Marks the job as completed after its last run, unless it was completed otherwise (e.g. cancelled)
+     */
+
+    private void completeJob(JobHandle handle) {
+        if (handle.markDone()) {
+            handle.complete(handle.getRunResult());
+            jobRegistry.retire(handle);
+        }
+    }
+
+    /**
+     * Starts the first delay of a job which is not due yet (delayed, recurring or with a jitter)
+     * on the job timer when the job is admitted, rather than queueing it, so that the delay passes
+     * while all workers are busy and the job is only queued once it is due
+     */
+
+    private void scheduleFirstRun(JobHandle handle) {
+        Job job = handle.getJob();
+        long delayMs = handle.firstRunDelayMs(System.currentTimeMillis());
+        if (delayMs >= 0L) {
+            scheduleDelayedRun(handle, delayMs);
+        } else if (handle.cancel(false)) {
+            handle.complete(JobResult.notRun(job, JobStatus.CANCELLED));
+            jobRegistry.retire(handle);
+            logger.warn("Job \"{}\" (id {}) was cancelled, its cron expression has no further fire times",
+                    job.getJobName(), job.getJobId());
+        }
+    }
+
+    /**
+     * Puts the job back into the queue after the specified delay
+     */
+
+    private void scheduleDelayedRun(JobHandle handle, long delayMs) {
+        handle.setDue(false);
+        handle.markRunPending();
+
+        Runnable wakeupTask = handle.getWakeupTask();
+        if (wakeupTask == null) {
+            wakeupTask = () -> {
+                handle.setDue(true);
+                queue.put(handle);
+            };
+            handle.setWakeupTask(wakeupTask);
+        }
+
+        try {
+            handle.setTimerTimeout(jobTimer.schedule(wakeupTask, delayMs));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job timer is shut down, job with id {} will not be run again", handle.getJob().getJobId());
+        }
+    }
+
+    private void scheduleEviction(long periodMs) {
+        try {
+            jobTimer.schedule(() -> {
+                jobRegistry.evictExpired();
+                jobResultStore.evictExpired();
+                scheduleEviction(periodMs);
+            }, periodMs);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job timer is shut down, completed jobs and results will not be evicted");
+        }
+    }
+
+    /**
+     * Starts resizing the worker pool with the load, within the elastic pool bounds
+     */
+
+    private synchronized void startElasticPool() {
+        int workerCount = Math.max(props.getElasticPoolMinSize(),
+                Math.min(props.getElasticPoolMaxSize(), workerPool.getCapacity()));
+        if (!resizeWorkerPool(workerCount)) {
+            logger.warn("Worker pool cannot be resized in {} execution mode, elastic pool is disabled",
+                    props.getExecutionMode());
+            return;
+        }
+
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        ElasticPoolController controller = new ElasticPoolController(props.getElasticPoolMinSize(),
+                props.getElasticPoolMaxSize(), props.getElasticPoolTargetWaitMs(),
+                props.getElasticPoolCpuSaturation(), queue::size, jobMetrics::getRunningJobCount,
+                jobMetrics.getWaitTimes(), () -> osBean.getSystemLoadAverage() / osBean.getAvailableProcessors());
+        elasticPoolController = controller;
+        scheduleElasticPool(controller);
+    }
+
+    /**
+     * Schedules the next interval of the elastic pool controller, until the controller is replaced
+     * on reconfiguration of the job scheduler
+     */
+
+    private void scheduleElasticPool(ElasticPoolController controller) {
+        try {
+            jobTimer.schedule(() -> {
+                // Locked against a reconfiguration replacing the controller and resizing the pool meanwhile
+                synchronized (this) {
+                    if (elasticPoolController != controller) {
+                        return;
+                    }
+                    int workerCount = workerPool.getCapacity();
+                    int nextWorkerCount = controller.nextWorkerCount(workerCount);
+                    if (nextWorkerCount != workerCount && resizeWorkerPool(nextWorkerCount)) {
+                        logger.debug("Worker pool was resized from {} to {} workers", workerCount, nextWorkerCount);
+                    }
+                }
+                scheduleElasticPool(controller);
+            }, props.getElasticPoolIntervalMs());
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job timer is shut down, worker pool will not be resized");
+        }
+    }
+
+    /**
+     * Resizes the worker pool, adding or removing the worker permits accordingly
+     *
+     * @return true if the pool was resized, or false if the pool cannot be resized
+     */
+
+    private synchronized boolean resizeWorkerPool(int workerCount) {
+        int previousWorkerCount = workerPool.getCapacity();
+        if (workerCount == previousWorkerCount) {
+            return true;
+        }
+        if (!workerPool.resize(workerCount)) {
             return false;
         }
 
-        ScheduledFuture<?> jobFuture = jobFutureMap.get(jobId);
-        boolean isDone = false;
+        workerPermits.resize(workerCount - previousWorkerCount);
+        return true;
+    }
+
+    private void cancelPendingJobs(Collection<JobHandle> handles) {
+        for (JobHandle handle : handles) {
+            if (handle.cancel(false)) {
+                handle.complete(JobResult.notRun(handle.getJob(), JobStatus.CANCELLED));
+                publishState(handle.getJob(), JobStatus.CANCELLED);
+            }
+        }
+    }
 
-        if (jobFuture != null) {
-            isDone = jobFuture.isDone();
+    private void registerMetricsBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new SchedulerMetricsBean(this), new ObjectName(metricsBeanName));
+        } catch (JMException e) {
+            logger.warn("Unable to register job scheduler metrics MBean {}", metricsBeanName);
+            logger.debug("An exception occurred: ", e);
         }
+    }
 
-        return isDone;
+    private void unregisterMetricsBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(metricsBeanName));
+        } catch (JMException e) {
+            logger.debug("Unable to unregister job scheduler metrics MBean {}", metricsBeanName, e);
+        }
+    }
+
+    /**
+     * Shuts down a JobScheduler instance, waiting for the running jobs to complete
+     * within the configured shutdown timeout
+     */
+
+    public void stop() {
+        if (!jobSchedulerStarted) {
+            logger.warn("Job scheduler not running, shutdown aborted");
+            return;
+        }
+        logger.info("Stopping job scheduler");
+
+        if (configWatcher != null) {
+            configWatcher.close();
+        }
+
+        // Dispatcher and timer only wait for the next job, so they are stopped right away
+        jobScheduler.shutdownNow();
+        jobTimer.stop();
+
+        workerPool.shutdown();
+
+        try {
+            jobScheduler.awaitTermination(props.getSchedulerShutdownTimeoutSec(), TimeUnit.SECONDS);
+            if (!workerPool.awaitTermination(props.getSchedulerShutdownTimeoutSec(), TimeUnit.SECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+        }
+
+        // Jobs which will never be run are cancelled, so that their completion stages complete
+        cancelPendingJobs(queue.clear());
+        cancelPendingJobs(jobRegistry.handles());
+
+        // Pending durable jobs stay in the journal to be recovered on the next start
+        if (jobJournal != null) {
+            jobJournal.close();
+        }
+
+        if (stateBuffer != null) {
+            stateBuffer.close();
+        }
+
+        if (props.isMetricsJmxEnabled()) {
+            unregisterMetricsBean();
+        }
+
+        logger.info("Job scheduler stopped");
+        this.jobSchedulerStarted = false;
+    }
+
+    /**
+     * Adds a Job to the JobScheduler queue and changes its status to QUEUED
+     * If the queue is full, the configured queue overflow policy {@link QueueOverflowPolicy} is applied
+     *
+     * @param job Job to be queued
+     * @return true if the Job was successfully queued (or run by the caller), or false otherwise
+     */
+
+    public boolean scheduleJob(Job job) {
+        return scheduleJob(new JobHandle(job));
+    }
+
+    /**
+     * Adds a Job to the JobScheduler queue like {@link #scheduleJob(Job)}, unless a Job with
+     * the same dedup key is in flight, in which case the configured dedup policy {@link DedupPolicy}
+     * is applied
+     *
+     * @return true if the Job was queued or merged into the Job in flight, or false otherwise
+     */
+
+    private boolean scheduleJob(JobHandle handle) {
+        Job job = handle.getJob();
+
+        if (job.getDedupKey() != null && claimDedupKey(handle) != null) {
+            return job.getJobStatus() == JobStatus.MERGED;
+        }
+        return enqueueJob(handle);
+    }
+
+    /**
+     * Adds a Job to the JobScheduler queue like {@link #scheduleJob(Job)}, returning a stage which
+     * completes once the Job reaches its terminal state
+     * The stage is completed with the result of the last run (or the only run of a non-periodic Job),
+     * or with the CANCELLED or DROPPED status if the Job is cancelled or dropped before that.
+     * Periodic Jobs only complete when cancelled, use {@link #submitJob(Job, JobRunListener)}
+     * to follow their runs
+     * If the Job was merged into or dropped for a Job in flight with the same dedup key,
+     * the stage of the Job in flight is returned
+     * Dependent stages are run in the thread completing the Job (usually a worker) unless
+     * the async methods are used, so they should not block
+     *
+     * @param job Job to be queued
+     * @return stage completed with the Job result {@link JobResult}, or completed exceptionally
+     * with RejectedExecutionException if the Job was not queued
+     */
+
+    public CompletionStage<JobResult> submitJob(Job job) {
+        return submitJob(job, null);
+    }
+
+    /**
+     * Adds a Job to the JobScheduler queue like {@link #submitJob(Job)}, notifying the listener
+     * after each run of the Job
+     *
+     * @param job Job to be queued
+     * @param runListener listener notified of each run result, may be null
+     * @return stage completed with the Job result {@link JobResult}, or completed exceptionally
+     * with RejectedExecutionException if the Job was not queued
+     */
+
+    public CompletionStage<JobResult> submitJob(Job job, JobRunListener runListener) {
+        if (job == null) {
+            logger.warn("Unable to submit job, job is null");
+            return CompletableFuture.failedStage(new RejectedExecutionException("job is null"));
+        }
+
+        JobHandle handle = new JobHandle(job, runListener);
+        if (job.getDedupKey() != null) {
+            JobHandle inFlight = claimDedupKey(handle);
+            if (inFlight != null) {
+                return inFlight.getCompletion();
+            }
+        }
+
+        if (!enqueueJob(handle)) {
+            return CompletableFuture.failedStage(new RejectedExecutionException(
+                    "job \"" + job.getJobName() + "\" (id " + job.getJobId() + ") was not queued"));
+        }
+        return handle.getCompletion();
+    }
+
+    /**
+     * Submits a graph of Jobs {@link JobGraph}, queueing each Job once all of its upstream Jobs
+     * have completed successfully
+     * Root Jobs are queued right away, like {@link #scheduleJob(Job)}, and the other Jobs wait with
+     * the WAITING status. A Job is queued (regardless of the queue capacity, as the graph was admitted)
+     * by the thread completing its last upstream Job, so that it does not wait for a poll. If an upstream
+     * Job fails or is cancelled, the Job is cancelled, and so are its own downstream Jobs. Jobs which
+     * do not depend on each other run in parallel. Jobs of the graph are not deduplicated
+     *
+     * @param jobGraph graph of the Jobs to be submitted
+     * @return stage completed with the results {@link JobResult} of all the Jobs in the order of the graph,
+     * once every Job reached its terminal state
+     */
+
+    public CompletionStage<List<JobResult>> submitJobGraph(JobGraph jobGraph) {
+        if (jobGraph == null) {
+            logger.warn("Unable to submit job graph, job graph is null");
+            return CompletableFuture.failedStage(new RejectedExecutionException("job graph is null"));
+        }
+
+        Map<Job, JobHandle> handles = new LinkedHashMap<>();
+        List<JobHandle> rootHandles = new ArrayList<>();
+
+        for (Job job : jobGraph.getJobs()) {
+            JobHandle handle = new JobHandle(job);
+            handles.put(job, handle);
+
+            List<Job> upstreamJobs = jobGraph.getUpstreamJobs(job);
+            if (upstreamJobs.isEmpty()) {
+                rootHandles.add(handle);
+                continue;
+            }
+
+            // Waiting jobs are registered, so that they can be cancelled before they are queued
+            job.setJobStatus(JobStatus.WAITING);
+            publishState(job, JobStatus.WAITING);
+            jobRegistry.register(handle);
+
+            AtomicInteger pendingUpstreamJobs = new AtomicInteger(upstreamJobs.size());
+            for (Job upstreamJob : upstreamJobs) {
+                handles.get(upstreamJob).getCompletion().thenAccept(result -> {
+                    if (result.getStatus() != JobStatus.SUCCESS) {
+                        cancelDownstreamJob(handle, result);
+                    } else if (pendingUpstreamJobs.decrementAndGet() == 0) {
+                        releaseDownstreamJob(handle);
+                    }
+                });
+            }
+        }
+
+        // Rejected root jobs are cancelled, so that their downstream jobs are cancelled as well
+        for (JobHandle handle : rootHandles) {
+            if (!enqueueJob(handle) && handle.cancel(false)) {
+                handle.complete(JobResult.notRun(handle.getJob(), JobStatus.CANCELLED));
+                publishState(handle.getJob(), JobStatus.CANCELLED);
+            }
+        }
+
+        List<CompletableFuture<JobResult>> completions = new ArrayList<>(handles.size());
+        for (JobHandle handle : handles.values()) {
+            completions.add(handle.getCompletion().toCompletableFuture());
+        }
+        return CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<JobResult> results = new ArrayList<>(completions.size());
+                    for (CompletableFuture<JobResult> completion : completions) {
+                        results.add(completion.join());
+                    }
+                    return results;
+                });
+    }
+
+    /**
+     * Queues a Job of a job graph after all of its upstream Jobs have succeeded, unless it was cancelled
+     */
+
+    private void releaseDownstreamJob(JobHandle handle) {
+        if (handle.isDone()) {
+            return;
+        }
+
+        Job job = handle.getJob();
+        job.setJobStatus(JobStatus.QUEUED);
+        publishState(job, JobStatus.QUEUED);
+        if (handle.isDue()) {
+            queue.put(handle);
+        } else {
+            scheduleFirstRun(handle);
+        }
+    }
+
+    /**
+     * Cancels a Job of a job graph after one of its upstream Jobs did not succeed
+     */
+
+    private void cancelDownstreamJob(JobHandle handle, JobResult upstreamResult) {
+        if (!handle.cancel(false)) {
+            return;
+        }
+
+        Job job = handle.getJob();
+        handle.complete(JobResult.notRun(job, JobStatus.CANCELLED));
+        publishState(job, JobStatus.CANCELLED);
+        jobRegistry.retire(handle);
+        logger.info("Job \"{}\" (id {}) was cancelled, upstream job with id {} completed with {} status",
+                job.getJobName(), job.getJobId(), upstreamResult.getJob().getJobId(), upstreamResult.getStatus());
+    }
+
+    private boolean enqueueJob(JobHandle handle) {
+        Job job = handle.getJob();
+        JobStatus previousStatus = job.getJobStatus();
+
+        // Durable jobs are recorded before they become visible to the dispatcher
+        if (!journalSubmit(job)) {
+            releaseDedupKey(handle);
+            rejectedJobCount.increment();
+            return false;
+        }
+
+        // Status is set before the job becomes visible to the dispatcher, so that it cannot overwrite RUNNING
+        job.setJobStatus(JobStatus.QUEUED);
+        publishState(job, JobStatus.QUEUED);
+        jobRegistry.register(handle);
+
+        boolean admitted;
+        try {
+            admitted = admitJob(handle);
+        } catch (Exception e) {
+            jobRegistry.unregister(handle);
+            releaseDedupKey(handle);
+            journalStatus(job, JobStatus.CANCELLED);
+            job.setJobStatus(previousStatus);
+            publishState(job, previousStatus);
+            logger.warn("Unable to add job \"{}\" (id {}) to the queue, job status was not changed",
+                    job.getJobName(), job.getJobId());
+            logger.debug("An exception occurred: ", e);
+            return false;
+        }
+
+        if (!admitted) {
+            jobRegistry.unregister(handle);
+            releaseDedupKey(handle);
+            journalStatus(job, JobStatus.CANCELLED);
+            job.setJobStatus(previousStatus);
+            publishState(job, previousStatus);
+            rejectedJobCount.increment();
+            logger.warn("Job queue is full, job \"{}\" (id {}) was rejected", job.getJobName(), job.getJobId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Claims the dedup key of the Job being scheduled, or merges the Job into the Job in flight
+     * with the same key, or drops it, according to the configured dedup policy
+     *
+     * @return null if the Job claimed its key and has to be queued, or the handle of the Job in flight
+     */
+
+    private JobHandle claimDedupKey(JobHandle handle) {
+        Job job = handle.getJob();
+        DedupPolicy policy = props.getDedupPolicy();
+
+        JobHandle inFlight = jobDeduplicator.claim(handle, policy);
+        if (inFlight == null) {
+            handle.getCompletion().whenComplete((result, e) -> jobDeduplicator.release(handle));
+            return null;
+        }
+
+        JobStatus status = policy == DedupPolicy.MERGE ? JobStatus.MERGED : JobStatus.DROPPED;
+        job.setJobStatus(status);
+        publishState(job, status);
+        deduplicatedJobCount.increment();
+        logger.debug("Job \"{}\" (id {}) was {} for job with id {} and dedup key {}", job.getJobName(),
+                job.getJobId(), status, inFlight.getJob().getJobId(), job.getDedupKey());
+        return inFlight;
+    }
+
+    private void releaseDedupKey(JobHandle handle) {
+        if (handle.getJob().getDedupKey() != null) {
+            jobDeduplicator.release(handle);
+        }
+    }
+
+    /**
+     * Adds a batch of Jobs to the JobScheduler queue and changes their status to QUEUED
+     * Jobs are added in the iteration order under a single queue lock acquisition, until the queue is full
+     * The configured queue overflow policy {@link QueueOverflowPolicy} is applied to the rest of the jobs
+     * within the batch, and durable jobs are recorded in the journal once per batch. Jobs merged into Jobs
+     * in flight with the same dedup keys are listed as accepted, and dropped ones as rejected
+     *
+     * @param jobs Jobs to be queued
+     * @return the batch result listing accepted and rejected Jobs
+     */
+
+    public BatchResult scheduleJobs(Collection<Job> jobs) {
+        List<Job> acceptedJobs = new ArrayList<>();
+        List<Job> rejectedJobs = new ArrayList<>();
+
+        if (jobs == null) {
+            logger.warn("Unable to schedule jobs, job collection is null");
+            return new BatchResult(acceptedJobs, rejectedJobs);
+        }
+
+        List<JobHandle> claimedHandles = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            if (job == null) {
+                logger.warn("Unable to schedule job, job is null");
+                continue;
+            }
+
+            JobHandle handle = new JobHandle(job);
+            if (job.getDedupKey() != null && claimDedupKey(handle) != null) {
+                (job.getJobStatus() == JobStatus.MERGED ? acceptedJobs : rejectedJobs).add(job);
+                continue;
+            }
+            claimedHandles.add(handle);
+        }
+
+        // Durable jobs are recorded in a single journal batch before they become visible to the dispatcher
+        Set<Job> unrecordedJobs = journalSubmitAll(claimedHandles);
+
+        List<JobHandle> handles = new ArrayList<>(claimedHandles.size());
+        List<JobStatus> previousStatuses = new ArrayList<>(claimedHandles.size());
+
+        for (JobHandle handle : claimedHandles) {
+            Job job = handle.getJob();
+            if (unrecordedJobs.contains(job)) {
+                releaseDedupKey(handle);
+                rejectedJobs.add(job);
+                rejectedJobCount.increment();
+                continue;
+            }
+
+            JobStatus previousStatus = job.getJobStatus();
+            job.setJobStatus(JobStatus.QUEUED);
+            publishState(job, JobStatus.QUEUED);
+            jobRegistry.register(handle);
+
+            // Jobs which are not due wait on the job timer, only due jobs take queue slots
+            if (!handle.isDue()) {
+                scheduleFirstRun(handle);
+                acceptedJobs.add(job);
+                continue;
+            }
+            handles.add(handle);
+            previousStatuses.add(previousStatus);
+        }
+
+        int queued = queue.offerAll(handles);
+        for (int i = 0; i < queued; i++) {
+            acceptedJobs.add(handles.get(i).getJob());
+        }
+
+        // The overflow policy is applied to the jobs which did not fit, sharing one BLOCK deadline
+        List<Job> overflowRejectedJobs = new ArrayList<>();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getQueueOfferTimeoutMs());
+
+        for (int i = queued; i < handles.size(); i++) {
+            JobHandle handle = handles.get(i);
+            Job job = handle.getJob();
+
+            boolean admitted;
+            try {
+                admitted = admitOverflow(handle, deadlineNanos);
+            } catch (Exception e) {
+                logger.debug("An exception occurred: ", e);
+                admitted = false;
+            }
+
+            if (admitted) {
+                acceptedJobs.add(job);
+                continue;
+            }
+
+            jobRegistry.unregister(handle);
+            releaseDedupKey(handle);
+            job.setJobStatus(previousStatuses.get(i));
+            publishState(job, previousStatuses.get(i));
+            rejectedJobCount.increment();
+            overflowRejectedJobs.add(job);
+        }
+
+        if (!overflowRejectedJobs.isEmpty()) {
+            journalStatusAll(overflowRejectedJobs, JobStatus.CANCELLED);
+            rejectedJobs.addAll(overflowRejectedJobs);
+            logger.warn("Job queue is full, {} jobs of a batch of {} jobs were rejected",
+                    overflowRejectedJobs.size(), jobs.size());
+        }
+
+        logger.debug("Scheduled a batch of {} jobs, {} jobs rejected", jobs.size(), rejectedJobs.size());
+        return new BatchResult(acceptedJobs, rejectedJobs);
+    }
+
+    private boolean admitJob(JobHandle handle) {
+        if (!handle.isDue()) {
+            scheduleFirstRun(handle);
+            return true;
+        }
+        if (queue.offer(handle)) {
+            return true;
+        }
+        return admitOverflow(handle, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(props.getQueueOfferTimeoutMs()));
+    }
+
+    /**
+     * Applies the configured queue overflow policy {@link QueueOverflowPolicy} to a due job
+     * which did not fit in the queue
+     *
+     * @param deadlineNanos the {@link System#nanoTime()} until which the BLOCK policy waits for a free slot
+     * @return true if the job was queued or run, false if it has to be rejected
+     */
+
+    private boolean admitOverflow(JobHandle handle, long deadlineNanos) {
+        switch (props.getQueueOverflowPolicy()) {
+            case BLOCK:
+                try {
+                    return queue.offer(handle, Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_LOWEST:
+                JobHandle dropped = queue.offerEvictingLowest(handle);
+                if (dropped == handle) {
+                    return false;
+                }
+                if (dropped != null) {
+                    dropJob(dropped);
+                }
+                return true;
+            case CALLER_RUNS:
+                return runInCaller(handle);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Runs a job in the caller thread when the queue is full, like a worker would: within the limit
+     * of the job name {@link JobLimiter}, recording the run in the metrics
+     *
+     * @return true if the job was run, or false if it is recurring or over its limit, so that it is rejected
+     */
+
+    private boolean runInCaller(JobHandle handle) {
+        if (handle.getJob().getJobSchedule() != JobSchedule.IMMEDIATE || !jobLimiter.tryAcquireNow(handle)) {
+            return false;
+        }
+
+        boolean ran;
+        try {
+            ran = executeJob(handle);
+        } finally {
+            jobLimiter.release(handle);
+        }
+        if (ran) {
+            finishRun(handle);
+        }
+        return true;
+    }
+
+    private void dropJob(JobHandle handle) {
+        Job job = handle.getJob();
+
+        handle.cancel(false);
+        job.setJobStatus(JobStatus.DROPPED);
+        handle.complete(JobResult.notRun(job, JobStatus.DROPPED));
+        journalStatus(job, JobStatus.DROPPED);
+        publishState(job, JobStatus.DROPPED);
+        jobRegistry.retire(handle);
+        shedJobCount.increment();
+        logger.warn("Job queue is full, job \"{}\" (id {}) with {} priority was dropped",
+                job.getJobName(), job.getJobId(), job.getJobPriority().name());
+    }
+
+    /**
+     * Records the submission of a durable job in the journal, if enabled
+     *
+     * @return false if the job could not be recorded
+     */
+
+    private boolean journalSubmit(Job job) {
+        if (job.getJobDescriptor() == null || jobJournal == null) {
+            return true;
+        }
+
+        try {
+            jobJournal.recordSubmit(job, System.currentTimeMillis());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Unable to record job \"{}\" (id {}) in the job journal, job was rejected",
+                    job.getJobName(), job.getJobId());
+            logger.debug("An exception occurred: ", e);
+            return false;
+        }
+    }
+
+    /**
+     * Records the submissions of the durable jobs of a batch in the journal, if enabled
+     *
+     * @return the jobs which could not be recorded
+     */
+
+    private Set<Job> journalSubmitAll(List<JobHandle> handles) {
+        if (jobJournal == null) {
+            return Collections.emptySet();
+        }
+
+        List<Job> durableJobs = new ArrayList<>();
+        for (JobHandle handle : handles) {
+            if (handle.getJob().getJobDescriptor() != null) {
+                durableJobs.add(handle.getJob());
+            }
+        }
+        if (durableJobs.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Job> failedJobs;
+        try {
+            failedJobs = jobJournal.recordSubmitAll(durableJobs, System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.debug("An exception occurred: ", e);
+            failedJobs = durableJobs;
+        }
+        if (!failedJobs.isEmpty()) {
+            logger.warn("Unable to record {} jobs of a batch in the job journal, jobs were rejected",
+                    failedJobs.size());
+        }
+        Set<Job> unrecordedJobs = Collections.newSetFromMap(new IdentityHashMap<>());
+        unrecordedJobs.addAll(failedJobs);
+        return unrecordedJobs;
+    }
+
+    private void journalStatus(Job job, JobStatus status) {
+        if (job.getJobDescriptor() == null || jobJournal == null) {
+            return;
+        }
+
+        try {
+            jobJournal.recordStatus(job, status, System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("Unable to record {} status of job \"{}\" (id {}) in the job journal",
+                    status, job.getJobName(), job.getJobId());
+            logger.debug("An exception occurred: ", e);
+        }
+    }
+
+    private void journalStatusAll(List<Job> jobs, JobStatus status) {
+        if (jobJournal == null) {
+            return;
+        }
+
+        List<Job> durableJobs = new ArrayList<>();
+        for (Job job : jobs) {
+            if (job.getJobDescriptor() != null) {
+                durableJobs.add(job);
+            }
+        }
+        if (durableJobs.isEmpty()) {
+            return;
+        }
+
+        try {
+            jobJournal.recordStatusAll(durableJobs, status, System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("Unable to record {} status of {} jobs in the job journal", status, durableJobs.size());
+            logger.debug("An exception occurred: ", e);
+        }
+    }
+
+    /**
+     * Publishes a status transition of the job to the job state sinks, if any
+     */
+
+    private void publishState(Job job, JobStatus status) {
+        JobStateBuffer buffer = stateBuffer;
+        if (buffer != null) {
+            buffer.offer(job, status, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Cancels a Job in any state: queued, waiting for its delay or upstream Jobs, parked over
+     * its limit, or running. A queued Job is removed from the queue right away
+     *
+     * @param jobId Id of the Job to be cancelled
+     * @param mayInterruptIfRunning if true, the specified Job can be interrupted if running
+     * @return true if the Job was successfully cancelled, or false otherwise
+     */
+    public boolean cancelJob(String jobId, boolean mayInterruptIfRunning) {
+
+        if (jobId == null) {
+            logger.warn("Unable to cancel job, jobId is null");
+            return false;
+        }
+
+        return cancelJob(parseJobId(jobId), mayInterruptIfRunning);
+    }
+
+    /**
+     * Cancels a Job like {@link #cancelJob(String, boolean)}, looking it up by its numeric id
+     * without rendering the id as a string
+     *
+     * @param id numeric id of the Job to be cancelled {@link Job#getId()}
+     * @param mayInterruptIfRunning if true, the specified Job can be interrupted if running
+     * @return true if the Job was successfully cancelled, or false otherwise
+     */
+
+    public boolean cancelJob(long id, boolean mayInterruptIfRunning) {
+        JobHandle jobHandle = jobRegistry.get(id);
+        boolean cancelled = false;
+
+        if (jobHandle != null) {
+            cancelled = cancelJobs(Collections.singletonList(jobHandle), mayInterruptIfRunning) == 1;
+        }
+
+        if (cancelled) {
+            logger.info("Job with id {} was successfully cancelled", id);
+        } else {
+            logger.warn("Job with id {} cannot be cancelled - it may be completed," +
+                    "cancelled before or does not exist", id);
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Cancels all the Jobs with the name which are not completed yet, like {@link #cancelJob(long, boolean)}
+     *
+     * @param jobName name of the Jobs to be cancelled
+     * @param mayInterruptIfRunning if true, the running Jobs can be interrupted
+     * @return number of the Jobs cancelled
+     */
+
+    public int cancelByName(String jobName, boolean mayInterruptIfRunning) {
+        if (jobName == null) {
+            logger.warn("Unable to cancel jobs, jobName is null");
+            return 0;
+        }
+
+        int cancelled = cancelJobs(findPendingJobs(job -> jobName.equals(job.getJobName())), mayInterruptIfRunning);
+        logger.info("{} jobs \"{}\" were cancelled", cancelled, jobName);
+        return cancelled;
+    }
+
+    /**
+     * Cancels all the Jobs with the tag {@link Job#setTags(String...)} which are not completed yet,
+     * e.g. the Jobs of a tenant, like {@link #cancelJob(long, boolean)}
+     *
+     * @param tag tag of the Jobs to be cancelled
+     * @param mayInterruptIfRunning if true, the running Jobs can be interrupted
+     * @return number of the Jobs cancelled
+     */
+
+    public int cancelByTag(String tag, boolean mayInterruptIfRunning) {
+        if (tag == null) {
+            logger.warn("Unable to cancel jobs, tag is null");
+            return 0;
+        }
+
+        int cancelled = cancelJobs(findPendingJobs(job -> job.getTags().contains(tag)), mayInterruptIfRunning);
+        logger.info("{} jobs with tag {} were cancelled", cancelled, tag);
+        return cancelled;
+    }
+
+    private List<JobHandle> findPendingJobs(Predicate<Job> filter) {
+        List<JobHandle> handles = new ArrayList<>();
+        for (JobHandle handle : jobRegistry.handles()) {
+            if (!handle.isDone() && filter.test(handle.getJob())) {
+                handles.add(handle);
+            }
+        }
+        return handles;
+    }
+
+    /**
+     * Cancels the Jobs, removing the queued ones from the queue under a single lock acquisition
+     * and unlinking the parked ones from their limits, so that the memory they hold is released right away
+     * Jobs waiting for their delay have their timers cancelled, and running Jobs complete
+     * when their runs return
+     * Running Jobs are interrupted only once all the Jobs are cancelled and removed from the queue,
+     * so that a worker freed by an interrupted Job does not start a Job which is being cancelled
+     * Queued Jobs granted a run by their limit {@link JobLimiter} release the run, as they will
+     * never reach the dispatcher
+     *
+     * @return number of the Jobs cancelled
+     */
+
+    private int cancelJobs(List<JobHandle> handles, boolean mayInterruptIfRunning) {
+        List<JobHandle> cancelledHandles = new ArrayList<>(handles.size());
+        for (JobHandle handle : handles) {
+            if (handle.cancel()) {
+                cancelledHandles.add(handle);
+            }
+        }
+
+        if (cancelledHandles.isEmpty()) {
+            return 0;
+        }
+
+        for (JobHandle handle : queue.removeAll(cancelledHandles)) {
+            jobLimiter.release(handle);
+        }
+        for (JobHandle handle : cancelledHandles) {
+            jobLimiter.unpark(handle);
+        }
+
+        if (mayInterruptIfRunning) {
+            for (JobHandle handle : cancelledHandles) {
+                handle.interruptRun();
+            }
+        }
+
+        for (JobHandle handle : cancelledHandles) {
+            Job job = handle.getJob();
+            handle.complete(JobResult.notRun(job, JobStatus.CANCELLED));
+            journalStatus(job, JobStatus.CANCELLED);
+            publishState(job, JobStatus.CANCELLED);
+            jobRegistry.retire(handle);
+        }
+        return cancelledHandles.size();
+    }
+
+    /**
+     * Checks, if a Job has finished its execution due to normal termination,
+     * exception or cancellation
+     * Completed jobs are checked within the configured retention time, after which
+     * they are treated as unknown
+     *
+     * @param jobId Id of the Job to be checked
+     * @return true if the Job is completed, or false otherwise
+     */
+
+    public boolean checkIfJobIsDone(String jobId) {
+        if (jobId == null) {
+            logger.warn("Unable to check job status, jobId is null");
+            return false;
+        }
+
+        return checkIfJobIsDone(parseJobId(jobId));
+    }
+
+    /**
+     * Checks, if a Job has finished its execution like {@link #checkIfJobIsDone(String)},
+     * looking it up by its numeric id without rendering the id as a string
+     *
+     * @param id numeric id of the Job to be checked {@link Job#getId()}
+     * @return true if the Job is completed, or false otherwise
+     */
+
+    public boolean checkIfJobIsDone(long id) {
+        JobHandle jobHandle = jobRegistry.get(id);
+        boolean isDone = false;
+
+        if (jobHandle != null) {
+            isDone = jobHandle.isDone();
+        }
+
+        return isDone;
+    }
+
+    /**
+     * Parses a string job id into the numeric id the jobs are registered by
+     * Durable Jobs recovered with the UUID ids of earlier versions are looked up by their string ids
+     *
+     * @return the numeric id, or -1 (which no Job has) if the id is not numeric and no such Job is registered
+     */
+
+    private long parseJobId(String jobId) {
+        try {
+            return Long.parseLong(jobId);
+        } catch (NumberFormatException e) {
+            JobHandle handle = jobRegistry.getByLegacyId(jobId);
+            return handle == null ? -1L : handle.getJob().getId();
+        }
+    }
+
+    /**
+     * Registers a task type of durable jobs
+     * Task types have to be registered before the scheduler is started, so that the durable jobs
+     * recorded in the journal can be recovered
+     *
+     * @param taskType name of the task type
+     * @param taskFactory factory creating the tasks from the task arguments {@link JobTaskFactory}
+     * @return true if the task type was registered, or false otherwise
+     */
+
+    public boolean registerTaskType(String taskType, JobTaskFactory taskFactory) {
+        if (taskType == null || taskFactory == null) {
+            logger.warn("Unable to register task type, task type or factory is null");
+            return false;
+        }
+
+        taskFactories.put(taskType, taskFactory);
+        return true;
+    }
+
+    /**
+     * Registers a sink of the job status transitions {@link JobStateSink}
+     * Transitions are buffered and written to the sinks in batches by a background thread, once per
+     * configured batch window, the transitions of a job within a window being coalesced into its latest
+     * status. Sinks have to be registered before the scheduler is started, and are closed when it is stopped
+     *
+     * @param stateSink sink of the job status transitions
+     * @return true if the sink was registered, or false otherwise
+     */
+
+    public boolean registerStateSink(JobStateSink stateSink) {
+        if (stateSink == null) {
+            logger.warn("Unable to register job state sink, sink is null");
+            return false;
+        }
+        if (jobSchedulerStarted != null) {
+            logger.warn("Unable to register job state sink, job scheduler was started");
+            return false;
+        }
+
+        addStateSink(stateSink);
+        return true;
+    }
+
+    private synchronized void addStateSink(JobStateSink stateSink) {
+        stateSinks.add(stateSink);
+        if (stateBuffer == null) {
+            stateBuffer = new JobStateBuffer(props.getStateBufferSize(), props.getStateBatchWindowMs(), stateSinks);
+        }
+    }
+
+    /**
+     * Sets the limit of the runs of the jobs with the specified name {@link JobLimit}, replacing
+     * the previous limit, if any
+     * Jobs over the limit are parked when taken from the queue, without holding a worker, and are
+     * returned to the queue in the order they arrived when the limit allows them to run
+     *
+     * @param jobName name of the limited jobs
+     * @param jobLimit the limit, or null to remove the limit of the jobs
+     * @return true if the limit was set, or false otherwise
+     */
+
+    public boolean setJobLimit(String jobName, JobLimit jobLimit) {
+        if (jobName == null) {
+            logger.warn("Unable to set job limit, job name is null");
+            return false;
+        }
+
+        jobLimiter.setLimit(jobName, jobLimit);
+        return true;
+    }
+
+    /**
+     * Applies new properties to the job scheduler without a restart, e.g. to retune its capacity
+     * during an incident without losing the queued jobs
+     * The worker pool size (or the elastic pool settings), the queue size, overflow policy and aging,
+     * the job limits, the deduplication policy, the run timeouts and the run log rate are applied live.
+     * The properties returned by {@link #getProps()} are swapped once all of them are applied
+     * Properties fixed at startup (e.g. the execution mode or the journal) cannot be changed,
+     * and new properties changing any of them are rejected as a whole
+     *
+     * @param props new job scheduler properties {@link Props}
+     * @return true if the properties were applied, or false otherwise
+     */
+
+    public synchronized boolean reconfigure(Props props) {
+        if (props == null) {
+            logger.warn("Unable to reconfigure job scheduler, props are null");
+            return false;
+        }
+
+        Props previousProps = this.props;
+        List<String> startupPropertyKeys = new ArrayList<>();
+        STARTUP_PROPERTIES.forEach((key, property) -> {
+            if (!Objects.equals(property.apply(previousProps), property.apply(props))) {
+                startupPropertyKeys.add(key);
+            }
+        });
+        if (!startupPropertyKeys.isEmpty()) {
+            logger.warn("Unable to reconfigure job scheduler, properties {} cannot be changed without a restart",
+                    startupPropertyKeys);
+            return false;
+        }
+
+        queue.reconfigure(props.getJobQueueSize(), props.getQueueAgingMs());
+
+        // Only the limits set by the previous properties are removed, not the ones set with setJobLimit
+        for (String jobName : previousProps.getJobLimits().keySet()) {
+            if (!props.getJobLimits().containsKey(jobName)) {
+                jobLimiter.setLimit(jobName, null);
+            }
+        }
+        props.getJobLimits().forEach(jobLimiter::setLimit);
+
+        this.runTimeoutsMs = runTimeoutsMs(props);
+        if (props.getRunLogRatePerSec() != previousProps.getRunLogRatePerSec()) {
+            this.runLogLimiter = new RunLogLimiter(props.getRunLogRatePerSec());
+        }
+
+        this.props = props;
+        reconfigureWorkerPool(props);
+
+        logger.info("Job scheduler reconfigured with {}", props);
+        return true;
+    }
+
+    /**
+     * Resizes the worker pool to the new size, or within the new elastic pool bounds,
+     * starting or stopping the elastic pool controller if it was enabled or disabled
+     */
+
+    private void reconfigureWorkerPool(Props props) {
+        ElasticPoolController controller = elasticPoolController;
+        if (props.isElasticPoolEnabled() && controller != null) {
+            controller.reconfigure(props.getElasticPoolMinSize(), props.getElasticPoolMaxSize(),
+                    props.getElasticPoolTargetWaitMs(), props.getElasticPoolCpuSaturation());
+            resizeWorkerPool(controller.clamp(workerPool.getCapacity()));
+            return;
+        }
+
+        // The timer task of a replaced controller stops at its next interval
+        elasticPoolController = null;
+        if (props.isElasticPoolEnabled() && Boolean.TRUE.equals(jobSchedulerStarted)) {
+            startElasticPool();
+            return;
+        }
+
+        int workerCount = props.getExecutionMode() == ExecutionMode.VIRTUAL
+                ? props.getVirtualConcurrencyLimit()
+                : props.getJobThreadPoolSize();
+        if (!resizeWorkerPool(workerCount)) {
+            logger.warn("Worker pool cannot be resized in {} execution mode, pool size is not changed",
+                    props.getExecutionMode());
+        }
+    }
+
+    /**
+     * Watches a properties file, reconfiguring the job scheduler {@link #reconfigure(Props)} each time
+     * the file changes, until the job scheduler is stopped
+     * The file is looked up on the filesystem first, then on the classpath, e.g. "/jms.properties",
+     * as long as the classpath resource is a file (not packed in a jar). Properties missing from the file
+     * have the default values, and files with invalid values are ignored. Changes of the watched
+     * file path itself are ignored as well
+     *
+     * @param propertiesFilePath path to the properties file
+     * @return true if the file is watched, or false otherwise
+     */
+
+    public synchronized boolean watchConfig(String propertiesFilePath) {
+        if (propertiesFilePath == null) {
+            logger.warn("Unable to watch properties file, path is null");
+            return false;
+        }
+        if (configWatcher != null) {
+            logger.warn("Properties file {} is already watched", configWatcher.getFile());
+            return false;
+        }
+
+        Path file = ConfigWatcher.resolve(propertiesFilePath);
+        if (file == null) {
+            logger.warn("Unable to watch properties file {}, no such file on the filesystem or the classpath",
+                    propertiesFilePath);
+            return false;
+        }
+
+        try {
+            configWatcher = ConfigWatcher.watch(file, this::reconfigure);
+        } catch (IOException e) {
+            logger.warn("Unable to watch properties file {}", file);
+            logger.debug("An exception occurred: ", e);
+            return false;
+        }
+        logger.info("Watching properties file {} for changes", configWatcher.getFile());
+        return true;
+    }
+
+    /**
+     * Creates a new durable Job of a registered task type, which is recorded in the job journal
+     * (if enabled) when scheduled, and recovered after a restart until it is completed or cancelled
+     *
+     * @param taskType name of the registered task type
+     * @param taskArgs arguments passed to the task type factory
+     * @param jobName job name
+     * @param jobPriority job priority {@link JobPriority}
+     * @param initialDelayMs delay before the Job first run in milliseconds, or 0
+     * @param periodMs delay after each consecutive Job run in milliseconds, or 0 for non-periodic jobs
+     * @return a durable Job with the specified parameters
+     * @throws IllegalArgumentException if the task type is not registered or the job parameters are invalid
+     */
+
+    public Job newDurableJob(String taskType,
+                             String taskArgs,
+                             String jobName,
+                             JobPriority jobPriority,
+                             long initialDelayMs,
+                             long periodMs) throws IllegalArgumentException {
+        JobTaskFactory taskFactory = taskType == null ? null : taskFactories.get(taskType);
+        if (taskFactory == null) {
+            throw new IllegalArgumentException("task type " + taskType + " is not registered");
+        }
+
+        JobDescriptor descriptor = JobDescriptor.newDescriptor(Long.toString(Job.getJobIdGenerator().nextId()),
+                taskType, taskArgs, jobName, jobPriority, initialDelayMs, periodMs);
+        return Job.newDurableJob(descriptor, taskFactory.newTask(taskArgs));
+    }
+
+    /**
+     * Looks up the result of the last run of a callable Job {@link CallableJob}
+     * Results are retained for the configured retention time, up to the configured number
+     * of results and their total estimated size, least recently used results being evicted first
+     *
+     * @param jobId Id of the callable Job
+     * @return the Job result {@link JobResult} with the computed value, or null if the Job
+     * has not completed a run or its result was evicted
+     */
+
+    public JobResult getJobResult(String jobId) {
+        if (jobId == null) {
+            logger.warn("Unable to get job result, jobId is null");
+            return null;
+        }
+
+        return getJobResult(parseJobId(jobId));
+    }
+
+    /**
+     * Looks up the result of the last run of a callable Job like {@link #getJobResult(String)},
+     * by its numeric id without rendering the id as a string
+     *
+     * @param id numeric id of the callable Job {@link Job#getId()}
+     * @return the Job result {@link JobResult} with the computed value, or null if the Job
+     * has not completed a run or its result was evicted
+     */
+
+    public JobResult getJobResult(long id) {
+        return jobResultStore.get(id);
+    }
+
+    /**
+     * @return number of workers, which changes with the load if the elastic pool is enabled
+     */
+
+    public int getWorkerCount() {
+        return workerPool.getCapacity();
+    }
+
+    /**
+     * @return number of jobs waiting in the queue
+     */
+
+    public int getQueuedJobCount() {
+        return queue.size();
+    }
+
+    /**
+     * Lists the jobs which failed after exhausting the attempts of their retry policies
+     * {@link RetryPolicy}, or failed with an exception which is not retried
+     * The dead-letter queue is bounded, the oldest dead letters being evicted when it is full
+     *
+     * @return the dead letters {@link DeadLetter}, oldest first
+     */
+
+    public List<DeadLetter> getDeadLetters() {
+        return deadLetterQueue.snapshot();
+    }
+
+    /**
+     * Removes all the dead letters from the dead-letter queue, e.g. to resubmit their jobs
+     *
+     * @return the removed dead letters {@link DeadLetter}, oldest first
+     */
+
+    public List<DeadLetter> drainDeadLetters() {
+        return deadLetterQueue.drain();
+    }
+
+    /**
+     * Looks up the Job in flight (queued, waiting for its delay or running) with the dedup key
+     *
+     * @param dedupKey dedup key of the Job
+     * @return the Job in flight, or null if there is none
+     */
+
+    public Job getInFlightJob(String dedupKey) {
+        if (dedupKey == null) {
+            logger.warn("Unable to get job in flight, dedup key is null");
+            return null;
+        }
+
+        JobHandle inFlight = jobDeduplicator.get(dedupKey);
+        return inFlight == null ? null : inFlight.getJob();
+    }
+
+    /**
+     * @return number of jobs parked over the limits of their names {@link JobLimit}
+     */
+
+    public int getParkedJobCount() {
+        return jobLimiter.getParkedJobCount();
+    }
+
+    /**
+     * @return number of jobs which were not admitted to the queue because it was full
+     */
+
+    public long getRejectedJobCount() {
+        return rejectedJobCount.sum();
+    }
+
+    /**
+     * @return number of queued jobs which were dropped to make room for jobs with a higher priority
+     */
+
+    public long getShedJobCount() {
+        return shedJobCount.sum();
+    }
+
+    /**
+     * @return number of jobs which were merged into or dropped for jobs in flight with the same dedup keys
+     */
+
+    public long getDeduplicatedJobCount() {
+        return deduplicatedJobCount.sum();
+    }
+
+    /**
+     * Takes a snapshot of the job scheduler metrics: queue depth, wait and run time
+     * per job priority, and run counts per job name
+     *
+     * @return the metrics snapshot {@link SchedulerMetrics}
+     */
+
+    public SchedulerMetrics getMetrics() {
+        int[] sizeByPriority = queue.sizeByPriority();
+        Map<JobPriority, Integer> queueDepthByPriority = new EnumMap<>(JobPriority.class);
+        for (JobPriority priority : JobPriority.values()) {
+            queueDepthByPriority.put(priority, sizeByPriority[priority.ordinal()]);
+        }
+
+        return new SchedulerMetrics(Collections.unmodifiableMap(queueDepthByPriority),
+                jobMetrics.getRunningJobCount(),
+                rejectedJobCount.sum(),
+                shedJobCount.sum(),
+                jobMetrics.waitTimeSnapshots(),
+                jobMetrics.runTimeSnapshots(),
+                jobMetrics.jobNameStats());
+    }
+
+    /**
+     * @return name of the JMX MBean exposing the job scheduler metrics {@link SchedulerMetricsMXBean}
+     */
+
+    public String getMetricsBeanName() {
+        return metricsBeanName;
     }
 
     public Props getProps() {
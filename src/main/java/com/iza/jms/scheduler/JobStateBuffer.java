@@ -0,0 +1,206 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Buffer of the job status transitions written to the job state sinks {@link JobStateSink}
+ * Transitions are published into a bounded ring buffer of preallocated slots, which costs the publishing
+ * thread a compare-and-set and no I/O. A single flusher thread drains the buffer once per batch window
+ * (or as soon as the buffer is half full), coalesces the transitions by job, so that only the latest
+ * status of each job is kept, and writes them to every sink in a single batch
+ * When the buffer is full, new transitions are dropped and counted, rather than blocking the job runs
+ */
+
+class JobStateBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStateBuffer.class);
+
+    private final Slot[] slots;
+    private final int mask;
+    private final List<JobStateSink> sinks;
+    private final ScheduledExecutorService flushExecutor;
+
+    private final AtomicLong tailSequence = new AtomicLong();
+    private final LongAdder droppedCount = new LongAdder();
+
+    // Written by the flusher thread only
+    private volatile long headSequence;
+    private long reportedDroppedCount;
+
+    private volatile boolean closed;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param batchWindowMs interval of writing the batches in milliseconds
+     * @param sinks sinks the batches are written to
+     */
+
+    JobStateBuffer(int capacity, long batchWindowMs, List<JobStateSink> sinks) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        this.sinks = sinks;
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jms-state-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flush, batchWindowMs, batchWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes a transition of the job to the status
+     *
+     * @return false if the transition was dropped, because the buffer is full or closed
+     */
+
+    boolean offer(Job job, JobStatus status, long timestampMs) {
+        if (closed) {
+            return false;
+        }
+
+        long sequence;
+        do {
+            sequence = tailSequence.get();
+            if (sequence - headSequence >= slots.length) {
+                droppedCount.increment();
+                return false;
+            }
+        } while (!tailSequence.compareAndSet(sequence, sequence + 1L));
+
+        // Ids are rendered by the flusher thread
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.job = job;
+        slot.status = status;
+        slot.timestampMs = timestampMs;
+        slot.sequence = sequence + 1L;
+
+        if (sequence - headSequence == slots.length >> 1) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * @return number of transitions dropped because the buffer was full
+     */
+
+    long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Stops the flusher thread, writes the transitions left in the buffer and closes the sinks
+     */
+
+    void close() {
+        closed = true;
+        flushExecutor.shutdown();
+
+        try {
+            if (!flushExecutor.awaitTermination(10L, TimeUnit.SECONDS)) {
+                logger.warn("Job state flusher did not stop, job state sinks are closed without the last batch");
+            } else {
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (JobStateSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close job state sink {}", sink.getClass().getSimpleName());
+                logger.debug("An exception occurred: ", e);
+            }
+        }
+    }
+
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Job state flusher is stopped, transitions are written on close");
+        }
+    }
+
+    /**
+     * Drains the published transitions, coalescing them by job, and writes them to the sinks
+     * Called by the flusher thread, or by the closing thread after the flusher has stopped
+     */
+
+    private synchronized void flush() {
+        Map<String, JobStateTransition> transitions = new LinkedHashMap<>();
+        long head = headSequence;
+
+        while (true) {
+            Slot slot = slots[(int) (head & mask)];
+            if (slot.sequence != head + 1L) {
+                break;
+            }
+
+            Job job = slot.job;
+            transitions.put(job.getJobId(), new JobStateTransition(job.getJobId(), job.getJobName(), slot.status,
+                    slot.timestampMs));
+            slot.job = null;
+            head++;
+            headSequence = head;
+        }
+
+        long dropped = droppedCount.sum();
+        if (dropped > reportedDroppedCount) {
+            logger.warn("Job state buffer is full, {} job state transitions were dropped",
+                    dropped - reportedDroppedCount);
+            reportedDroppedCount = dropped;
+        }
+
+        if (transitions.isEmpty()) {
+            return;
+        }
+
+        List<JobStateTransition> batch = new ArrayList<>(transitions.values());
+        for (JobStateSink sink : sinks) {
+            try {
+                sink.write(batch);
+            } catch (Exception e) {
+                logger.warn("Unable to write {} job state transitions to sink {}", batch.size(),
+                        sink.getClass().getSimpleName());
+                logger.debug("An exception occurred: ", e);
+            }
+        }
+    }
+
+    /**
+     * Slot of the ring buffer, holding the transition published with the sequence number one below
+     * the slot's sequence
+     */
+
+    private static class Slot {
+
+        private volatile long sequence;
+        private Job job;
+        private JobStatus status;
+        private long timestampMs;
+    }
+}
@@ -0,0 +1,33 @@
+package com.iza.jms.scheduler;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sink of the job status transitions of the job scheduler {@link JobScheduler}, e.g. a persistence
+ * or audit backend
+ * Transitions are not written one by one: they are collected in a buffer and written in batches
+ * by a single background thread, once per batch window. Transitions of a job within the same window
+ * are coalesced, so that only the latest status of the job is written
+ */
+
+public interface JobStateSink {
+
+    /**
+     * Writes a batch of transitions, at most one per job
+     *
+     * @param transitions transitions in the order the jobs first changed their status within the window
+     * @throws IOException if the batch cannot be written, the batch is then discarded
+     */
+
+    void write(List<JobStateTransition> transitions) throws IOException;
+
+    /**
+     * Closes the sink after the last batch is written, when the job scheduler is stopped
+     *
+     * @throws IOException if the sink cannot be closed
+     */
+
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,53 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.JobStatus;
+
+/**
+ * Transition of a job to a new status, written to the job state sinks {@link JobStateSink}
+ * of the job scheduler {@link JobScheduler}
+ */
+
+public class JobStateTransition {
+
+    private final String jobId;
+    private final String jobName;
+    private final JobStatus status;
+    private final long timestampMs;
+
+    JobStateTransition(String jobId, String jobName, JobStatus status, long timestampMs) {
+        this.jobId = jobId;
+        this.jobName = jobName;
+        this.status = status;
+        this.timestampMs = timestampMs;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return time of the transition in milliseconds since the epoch
+     */
+
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    @Override
+    public String toString() {
+        return "JobStateTransition{" +
+                "jobId='" + jobId + '\'' +
+                ", jobName='" + jobName + '\'' +
+                ", status=" + status +
+                ", timestampMs=" + timestampMs +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Factory of the tasks of a durable job type, registered with the job scheduler {@link JobScheduler}
+ * under the task type name, so that durable jobs can be recreated from their descriptors
+ * {@link com.iza.jms.job.JobDescriptor} after a restart
+ */
+
+@FunctionalInterface
+public interface JobTaskFactory {
+
+    /**
+     * @param taskArgs task arguments of the job descriptor
+     * @return the runnable task of the job
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+
+    Runnable newTask(String taskArgs) throws IllegalArgumentException;
+}
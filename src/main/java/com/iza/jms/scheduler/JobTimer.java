@@ -0,0 +1,45 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Timer used by the job scheduler {@link JobScheduler} to run short tasks after a delay,
+ * e.g. to return delayed and periodic jobs to the queue when they are due
+ * Timer tasks are run on the timer thread, so they must not block
+ */
+
+interface JobTimer {
+
+    /**
+     * Schedules a task to be run once after the specified delay
+     * The task is never run before the delay has passed
+     *
+     * @param task task to be run
+     * @param delayMs delay in milliseconds
+     * @return timeout which allows cancelling the task
+     * @throws RejectedExecutionException if the timer is stopped
+     */
+
+    Timeout schedule(Runnable task, long delayMs) throws RejectedExecutionException;
+
+    /**
+     * Stops the timer, discarding the pending tasks
+     */
+
+    void stop();
+
+    /**
+     * Pending timer task
+     */
+
+    interface Timeout {
+
+        /**
+         * Cancels the task if it was not run yet
+         *
+         * @return true if the task was cancelled, or false if it was already run or cancelled
+         */
+
+        boolean cancel();
+    }
+}
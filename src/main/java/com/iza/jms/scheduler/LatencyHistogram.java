@@ -0,0 +1,130 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with log-linear buckets (as in HdrHistogram)
+ * Every power of two range is split into 32 linear sub-buckets, so that any recorded value is
+ * reported with a relative error of about 3%, while a histogram takes a fixed amount of memory
+ * regardless of the number of recorded values. Values are recorded with a single atomic increment,
+ * and snapshots may be taken concurrently with recording
+ */
+
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+
+        counts.incrementAndGet(bucketIndex(value));
+        totalNanos.add(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the histogram
+     * Values recorded during the snapshot may be partially reflected in it
+     */
+
+    LatencySnapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+            count += bucketCounts[i];
+        }
+
+        long max = maxNanos.get();
+        long mean = count == 0L ? 0L : totalNanos.sum() / count;
+
+        return new LatencySnapshot(count, mean, max,
+                valueAtPercentile(bucketCounts, count, max, 50.0),
+                valueAtPercentile(bucketCounts, count, max, 90.0),
+                valueAtPercentile(bucketCounts, count, max, 99.0),
+                valueAtPercentile(bucketCounts, count, max, 99.9));
+    }
+
+    /**
+     * Adds the numbers of the values recorded since the previous call to the interval bucket counts,
+     * so that percentiles of a time window are computed without resetting the histogram
+     *
+     * @param previousCounts bucket counts at the previous call, updated to the current counts
+     * @param intervalCounts bucket counts the values recorded since the previous call are added to
+     */
+
+    void addIntervalCounts(long[] previousCounts, long[] intervalCounts) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            intervalCounts[i] += count - previousCounts[i];
+            previousCounts[i] = count;
+        }
+    }
+
+    /**
+     * @return new array of bucket counts, e.g. for {@link #addIntervalCounts(long[], long[])}
+     */
+
+    static long[] newBucketCounts() {
+        return new long[BUCKET_COUNT];
+    }
+
+    /**
+     * @return value at the percentile of the values counted in the buckets, or 0 if there are none
+     */
+
+    static long valueAtPercentile(long[] bucketCounts, double percentile) {
+        long count = 0L;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        return valueAtPercentile(bucketCounts, count, Long.MAX_VALUE, percentile);
+    }
+
+    private static long valueAtPercentile(long[] bucketCounts, long count, long max, double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values below 64 have a bucket each, larger values v with the highest bit at position
+     * (SUB_BUCKET_BITS + shift) share a bucket with the values having the same v >>> shift
+     */
+
+    static int bucketIndex(long value) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1L) << shift) - 1L;
+    }
+}
@@ -0,0 +1,86 @@
+package com.iza.jms.scheduler;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of a latency histogram of the job scheduler {@link JobScheduler}
+ * Percentiles are approximate, with a relative error of about 3%
+ */
+
+public class LatencySnapshot {
+
+    private final long count;
+    private final long meanNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+
+    @ConstructorProperties({"count", "meanNanos", "maxNanos", "p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos"})
+    public LatencySnapshot(long count,
+                           long meanNanos,
+                           long maxNanos,
+                           long p50Nanos,
+                           long p90Nanos,
+                           long p99Nanos,
+                           long p999Nanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+    }
+
+    /**
+     * @return number of recorded values
+     */
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{" +
+                "count=" + count +
+                ", meanMs=" + toMillis(meanNanos) +
+                ", p50Ms=" + toMillis(p50Nanos) +
+                ", p90Ms=" + toMillis(p90Nanos) +
+                ", p99Ms=" + toMillis(p99Nanos) +
+                ", p999Ms=" + toMillis(p999Nanos) +
+                ", maxMs=" + toMillis(maxNanos) +
+                '}';
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+}
@@ -0,0 +1,32 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Policy applied by the job scheduler {@link JobScheduler} when a job is scheduled
+ * while the job queue is full
+ */
+
+public enum QueueOverflowPolicy {
+
+    /**
+     * The new job is rejected right away
+     */
+    REJECT,
+
+    /**
+     * The caller waits for space in the queue up to the configured offer timeout,
+     * and the new job is rejected if the queue is still full
+     */
+    BLOCK,
+
+    /**
+     * The queued job with the lowest priority is dropped to make room for the new job
+     * If the new job does not have a higher priority than every queued job, it is rejected
+     */
+    DROP_LOWEST,
+
+    /**
+     * The new job is run in the caller thread, throttling the caller
+     * Jobs with a delay cannot be run this way and are rejected
+     */
+    CALLER_RUNS
+}
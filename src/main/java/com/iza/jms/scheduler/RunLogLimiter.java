@@ -0,0 +1,63 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiter of the job run log lines of the job scheduler {@link JobScheduler}
+ * At most the configured number of lines is logged per second, and the lines over the rate are
+ * counted, so that jobs run at short periods do not flood the log. Checking the rate neither
+ * locks nor allocates
+ */
+
+class RunLogLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    private final int maxLinesPerSec;
+    private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger windowLineCount = new AtomicInteger();
+    private final LongAdder suppressedLineCount = new LongAdder();
+
+    /**
+     * @param maxLinesPerSec maximum number of lines logged per second, or 0 to log no lines
+     */
+
+    RunLogLimiter(int maxLinesPerSec) {
+        this.maxLinesPerSec = maxLinesPerSec;
+    }
+
+    /**
+     * Acquires a line in the current one-second window
+     *
+     * @return true if the line may be logged, or false if it is suppressed
+     */
+
+    boolean tryAcquire() {
+        if (maxLinesPerSec == 0) {
+            return false;
+        }
+
+        long nowNanos = System.nanoTime();
+        long startNanos = windowStartNanos.get();
+        if (nowNanos - startNanos >= WINDOW_NANOS && windowStartNanos.compareAndSet(startNanos, nowNanos)) {
+            windowLineCount.set(0);
+        }
+
+        if (windowLineCount.incrementAndGet() <= maxLinesPerSec) {
+            return true;
+        }
+        suppressedLineCount.increment();
+        return false;
+    }
+
+    /**
+     * @return number of the lines suppressed since the last call
+     */
+
+    long takeSuppressedLineCount() {
+        return suppressedLineCount.sumThenReset();
+    }
+}
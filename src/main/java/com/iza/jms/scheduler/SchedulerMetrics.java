@@ -0,0 +1,95 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.JobPriority;
+
+import java.util.Map;
+
+/**
+ * Point-in-time snapshot of the job scheduler {@link JobScheduler} metrics
+ * Wait time is measured from the moment a job is queued and due (its delay has passed)
+ * to the start of its run, and run time is the duration of the job's task
+ */
+
+public class SchedulerMetrics {
+
+    private final Map<JobPriority, Integer> queueDepthByPriority;
+    private final int runningJobCount;
+    private final long rejectedJobCount;
+    private final long shedJobCount;
+    private final Map<JobPriority, LatencySnapshot> waitTimeByPriority;
+    private final Map<JobPriority, LatencySnapshot> runTimeByPriority;
+    private final Map<String, JobNameStats> jobNameStats;
+
+    SchedulerMetrics(Map<JobPriority, Integer> queueDepthByPriority,
+                     int runningJobCount,
+                     long rejectedJobCount,
+                     long shedJobCount,
+                     Map<JobPriority, LatencySnapshot> waitTimeByPriority,
+                     Map<JobPriority, LatencySnapshot> runTimeByPriority,
+                     Map<String, JobNameStats> jobNameStats) {
+        this.queueDepthByPriority = queueDepthByPriority;
+        this.runningJobCount = runningJobCount;
+        this.rejectedJobCount = rejectedJobCount;
+        this.shedJobCount = shedJobCount;
+        this.waitTimeByPriority = waitTimeByPriority;
+        this.runTimeByPriority = runTimeByPriority;
+        this.jobNameStats = jobNameStats;
+    }
+
+    /**
+     * @return number of jobs waiting in the queue per job priority
+     */
+
+    public Map<JobPriority, Integer> getQueueDepthByPriority() {
+        return queueDepthByPriority;
+    }
+
+    /**
+     * @return total number of jobs waiting in the queue
+     */
+
+    public int getQueueDepth() {
+        return queueDepthByPriority.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getRunningJobCount() {
+        return runningJobCount;
+    }
+
+    public long getRejectedJobCount() {
+        return rejectedJobCount;
+    }
+
+    public long getShedJobCount() {
+        return shedJobCount;
+    }
+
+    public Map<JobPriority, LatencySnapshot> getWaitTimeByPriority() {
+        return waitTimeByPriority;
+    }
+
+    public Map<JobPriority, LatencySnapshot> getRunTimeByPriority() {
+        return runTimeByPriority;
+    }
+
+    /**
+     * @return run statistics per job name, sorted by the name
+     */
+
+    public Map<String, JobNameStats> getJobNameStats() {
+        return jobNameStats;
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerMetrics{" +
+                "queueDepthByPriority=" + queueDepthByPriority +
+                ", runningJobCount=" + runningJobCount +
+                ", rejectedJobCount=" + rejectedJobCount +
+                ", shedJobCount=" + shedJobCount +
+                ", waitTimeByPriority=" + waitTimeByPriority +
+                ", runTimeByPriority=" + runTimeByPriority +
+                ", jobNameStats=" + jobNameStats +
+                '}';
+    }
+}
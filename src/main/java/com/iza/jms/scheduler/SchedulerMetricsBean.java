@@ -0,0 +1,65 @@
+package com.iza.jms.scheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the JMX management interface {@link SchedulerMetricsMXBean}
+ * Each attribute is read from a new metrics snapshot of the job scheduler
+ */
+
+class SchedulerMetricsBean implements SchedulerMetricsMXBean {
+
+    private final JobScheduler jobScheduler;
+
+    SchedulerMetricsBean(JobScheduler jobScheduler) {
+        this.jobScheduler = jobScheduler;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return jobScheduler.getQueuedJobCount();
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepthByPriority() {
+        return byName(jobScheduler.getMetrics().getQueueDepthByPriority());
+    }
+
+    @Override
+    public int getRunningJobCount() {
+        return jobScheduler.getMetrics().getRunningJobCount();
+    }
+
+    @Override
+    public long getRejectedJobCount() {
+        return jobScheduler.getRejectedJobCount();
+    }
+
+    @Override
+    public long getShedJobCount() {
+        return jobScheduler.getShedJobCount();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getWaitTimeByPriority() {
+        return byName(jobScheduler.getMetrics().getWaitTimeByPriority());
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getRunTimeByPriority() {
+        return byName(jobScheduler.getMetrics().getRunTimeByPriority());
+    }
+
+    @Override
+    public Map<String, JobNameStats> getJobNameStats() {
+        return jobScheduler.getMetrics().getJobNameStats();
+    }
+
+    // JMX open types only allow maps with simple keys, so enum keys are replaced with their names
+    private static <K extends Enum<K>, V> Map<String, V> byName(Map<K, V> values) {
+        Map<String, V> named = new LinkedHashMap<>();
+        values.forEach((key, value) -> named.put(key.name(), value));
+        return named;
+    }
+}
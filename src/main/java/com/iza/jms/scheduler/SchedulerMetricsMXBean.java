@@ -0,0 +1,28 @@
+package com.iza.jms.scheduler;
+
+import java.util.Map;
+
+/**
+ * JMX management interface exposing the job scheduler {@link JobScheduler} metrics
+ * Registered under the "com.iza.jms:type=JobScheduler,name=jobScheduler-N" object name
+ * while the scheduler is running, see {@link SchedulerMetrics} for the meaning of the values
+ */
+
+public interface SchedulerMetricsMXBean {
+
+    int getQueueDepth();
+
+    Map<String, Integer> getQueueDepthByPriority();
+
+    int getRunningJobCount();
+
+    long getRejectedJobCount();
+
+    long getShedJobCount();
+
+    Map<String, LatencySnapshot> getWaitTimeByPriority();
+
+    Map<String, LatencySnapshot> getRunTimeByPriority();
+
+    Map<String, JobNameStats> getJobNameStats();
+}
@@ -0,0 +1,20 @@
+package com.iza.jms.scheduler;
+
+/**
+ * Engine of the timer used by the job scheduler {@link JobScheduler} for job delays
+ */
+
+public enum TimerEngine {
+
+    /**
+     * Single-threaded scheduled executor, scheduling and cancelling a delay costs O(log n)
+     * for n pending delays
+     */
+    EXECUTOR,
+
+    /**
+     * Hierarchical timing wheel, scheduling and cancelling a delay costs O(1),
+     * delays are rounded up to the configured timer tick
+     */
+    TIMING_WHEEL
+}
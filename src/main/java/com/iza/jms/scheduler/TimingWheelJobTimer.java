@@ -0,0 +1,265 @@
+package com.iza.jms.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Job timer {@link JobTimer} based on a hashed hierarchical timing wheel
+ * Time is divided into ticks of the configured duration. Each wheel level has a fixed number of
+ * buckets, a bucket of the lowest level holding the tasks due at one tick, and a bucket of a higher
+ * level holding the tasks due within a whole turn of the level below it. When a lower level completes
+ * a turn, the next bucket of the higher level is cascaded into it
+ * Scheduling and cancelling a task costs O(1) regardless of the number of pending tasks: callers
+ * only hand the task over to the timer thread through lock-free queues, and the timer thread links
+ * and unlinks tasks in the buckets. Tasks are run on the timer thread at the first tick after their
+ * delay has passed, so they may be run up to one tick late, but never early
+ */
+
+class TimingWheelJobTimer implements JobTimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelJobTimer.class);
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEEL_LEVELS = 4;
+    private static final long MAX_DELTA_TICKS = (1L << (WHEEL_BITS * WHEEL_LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Bucket[][] wheels = new Bucket[WHEEL_LEVELS][WHEEL_SIZE];
+
+    private final Queue<WheelTimeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final Bucket expiredTimeouts = new Bucket();
+
+    private final Thread timerThread;
+    private volatile boolean stopped;
+    private boolean timerThreadStarted;
+
+    // Accessed by the timer thread only
+    private long currentTick;
+
+    TimingWheelJobTimer(long tickMs) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.startNanos = System.nanoTime();
+
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+
+        this.timerThread = new Thread(this::runTicks, "jms-timing-wheel");
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delayMs) throws RejectedExecutionException {
+        if (stopped) {
+            throw new RejectedExecutionException("timer is stopped");
+        }
+        startTimerThread();
+
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMs));
+        long deadlineTick = (deadlineNanos - startNanos + tickNanos - 1) / tickNanos;
+
+        WheelTimeout timeout = new WheelTimeout(this, task, deadlineTick);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        timerThread.interrupt();
+    }
+
+    private synchronized void startTimerThread() {
+        if (!timerThreadStarted) {
+            timerThreadStarted = true;
+            timerThread.start();
+        }
+    }
+
+    private void runTicks() {
+        while (!stopped) {
+            long sleepNanos = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0L) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            currentTick++;
+            cascade();
+            transferPendingTimeouts();
+            removeCancelledTimeouts();
+            expireTimeouts(wheels[0][(int) (currentTick & WHEEL_MASK)]);
+            expireTimeouts(expiredTimeouts);
+        }
+    }
+
+    /**
+     * Moves the tasks of the higher level buckets, which became due within the next turn
+     * of the level below, to the lower levels
+     */
+
+    private void cascade() {
+        for (int level = 1; level < WHEEL_LEVELS; level++) {
+            if (((currentTick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0) {
+                return;
+            }
+
+            Bucket bucket = wheels[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+            WheelTimeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.state == WheelTimeout.PENDING) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void place(WheelTimeout timeout) {
+        long deltaTicks = timeout.deadlineTick - currentTick;
+
+        if (deltaTicks <= 0L) {
+            expiredTimeouts.add(timeout);
+            return;
+        }
+
+        // Tasks due beyond the range of the highest level are placed at its end and cascaded again later
+        long tick = deltaTicks > MAX_DELTA_TICKS ? currentTick + MAX_DELTA_TICKS : timeout.deadlineTick;
+        int level = 0;
+        while (level < WHEEL_LEVELS - 1 && deltaTicks >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+
+        wheels[level][(int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(timeout);
+    }
+
+    private void expireTimeouts(Bucket bucket) {
+        WheelTimeout timeout;
+        while ((timeout = bucket.poll()) != null) {
+            if (!WheelTimeout.STATE_UPDATER.compareAndSet(timeout, WheelTimeout.PENDING, WheelTimeout.EXPIRED)) {
+                continue;
+            }
+
+            try {
+                timeout.task.run();
+            } catch (Throwable e) {
+                logger.warn("Timer task failed with an exception", e);
+            }
+        }
+    }
+
+    /**
+     * Task scheduled on the timing wheel, linked into a bucket by the timer thread
+     */
+
+    private static class WheelTimeout implements Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+        private final TimingWheelJobTimer timer;
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile int state = PENDING;
+
+        // Accessed by the timer thread only
+        private Bucket bucket;
+        private WheelTimeout previous;
+        private WheelTimeout next;
+
+        private WheelTimeout(TimingWheelJobTimer timer, Runnable task, long deadlineTick) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+    }
+
+    /**
+     * Doubly-linked list of the tasks due at the same tick (or within the same turn of a lower level)
+     */
+
+    private static class Bucket {
+
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private WheelTimeout poll() {
+            WheelTimeout timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.iza.jms.scheduler;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Permits of the workers of the job scheduler {@link JobScheduler}, one per job handed to the worker pool
+ * The number of permits follows the capacity of the worker pool when the pool is resized. Permits
+ * removed while held by the running jobs leave a negative balance, which the jobs pay off as they
+ * complete, so that no more jobs than the new capacity run once they have
+ */
+
+class WorkerPermits extends Semaphore {
+
+    WorkerPermits(int permits) {
+        super(permits);
+    }
+
+    /**
+     * Adds or removes permits after the worker pool capacity changed
+     *
+     * @param delta number of the permits to add, or to remove if negative
+     */
+
+    void resize(int delta) {
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+    }
+
+    /**
+     * Acquires all the available permits, keeping a negative balance in place
+     *
+     * @return number of the permits acquired, 0 if the balance is negative
+     */
+
+    int drainAvailable() {
+        int drained = drainPermits();
+        if (drained < 0) {
+            reducePermits(-drained);
+            return 0;
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,62 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.JobPriority;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of workers which run jobs dispatched by the job scheduler {@link JobScheduler}
+ * The scheduler hands at most {@link #getCapacity()} jobs to the pool at once, keeping
+ * the rest of the jobs in its priority queue
+ */
+
+interface WorkerPool {
+
+    /**
+     * @return maximum number of jobs the pool is handed at once
+     */
+
+    int getCapacity();
+
+    /**
+     * Changes the number of workers of the pool, e.g. by the elastic pool controller
+     * {@link ElasticPoolController}. Workers over the new capacity stop once they are idle
+     *
+     * @param capacity new maximum number of jobs the pool is handed at once
+     * @return true if the pool was resized, or false if the pool cannot be resized
+     */
+
+    boolean resize(int capacity);
+
+    /**
+     * Runs a job task on one of the workers
+     *
+     * @param task job task, which handles its own exceptions
+     * @param priority priority of the job
+     * @throws RejectedExecutionException if the pool is shut down
+     */
+
+    void execute(Runnable task, JobPriority priority) throws RejectedExecutionException;
+
+    /**
+     * Stops accepting new tasks, letting the accepted tasks complete
+     */
+
+    void shutdown();
+
+    /**
+     * Waits for the accepted tasks to complete after shutdown
+     *
+     * @return true if the tasks completed, or false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Stops the pool right away, interrupting running tasks and discarding pending ones
+     */
+
+    void shutdownNow();
+}
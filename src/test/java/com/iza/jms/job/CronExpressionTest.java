@@ -0,0 +1,79 @@
+package com.iza.jms.job;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.*;
+
+public class CronExpressionTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+
+    @Test
+    public void nextFireTimeMsTestSteps() {
+        CronExpression cron = CronExpression.parse("*/15 * * * *", UTC);
+
+        assertEquals(at(2021, 9, 15, 10, 15, 0), cron.nextFireTimeMs(at(2021, 9, 15, 10, 0, 0)));
+        assertEquals(at(2021, 9, 15, 10, 15, 0), cron.nextFireTimeMs(at(2021, 9, 15, 10, 14, 59) + 999L));
+        assertEquals(at(2021, 9, 15, 11, 0, 0), cron.nextFireTimeMs(at(2021, 9, 15, 10, 45, 0)));
+    }
+
+    @Test
+    public void nextFireTimeMsTestDays() {
+        // 15.09.2021 is a Wednesday
+        CronExpression weekdays = CronExpression.parse("0 30 9 ? * MON-FRI", UTC);
+        assertEquals(at(2021, 9, 20, 9, 30, 0), weekdays.nextFireTimeMs(at(2021, 9, 17, 10, 0, 0)));
+
+        // Restricted day of month and day of week match either of them
+        CronExpression either = CronExpression.parse("0 0 1 * SUN", UTC);
+        assertEquals(at(2021, 9, 19, 0, 0, 0), either.nextFireTimeMs(at(2021, 9, 15, 0, 0, 0)));
+        assertEquals(at(2021, 10, 1, 0, 0, 0), either.nextFireTimeMs(at(2021, 9, 26, 0, 0, 0)));
+
+        CronExpression leapDay = CronExpression.parse("@yearly", UTC);
+        assertEquals(at(2022, 1, 1, 0, 0, 0), leapDay.nextFireTimeMs(at(2021, 9, 15, 0, 0, 0)));
+        assertEquals(at(2024, 2, 29, 12, 0, 0),
+                CronExpression.parse("0 12 29 2 *", UTC).nextFireTimeMs(at(2021, 9, 15, 0, 0, 0)));
+    }
+
+    @Test
+    public void nextFireTimeMsTestDaylightSaving() {
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        CronExpression cron = CronExpression.parse("0 30 2 * * *", zone);
+
+        // 02:30 does not exist on 28.03.2021 and is moved forward by the gap
+        long gapFireMs = cron.nextFireTimeMs(at(zone, 2021, 3, 28, 0, 0));
+        assertEquals(at(zone, 2021, 3, 28, 3, 30), gapFireMs);
+
+        // 02:30 happens twice on 31.10.2021, but fires once
+        long overlapFireMs = cron.nextFireTimeMs(at(zone, 2021, 10, 31, 0, 0));
+        assertEquals(at(zone, 2021, 10, 31, 2, 30), overlapFireMs);
+        assertEquals(at(zone, 2021, 11, 1, 2, 30), cron.nextFireTimeMs(overlapFireMs));
+        assertEquals(at(zone, 2021, 11, 1, 2, 30), cron.nextFireTimeMs(overlapFireMs + 3600000L));
+    }
+
+    @Test
+    public void parseTestInvalid() {
+        String[] expressions = {"* * * *", "60 * * * *", "* * * * * * *", "5-1 * * * *", "* * * FOO *",
+                "*/0 * * * *", "0 0 30 2 *", "L * * * *"};
+
+        for (String expression : expressions) {
+            try {
+                CronExpression.parse(expression, UTC);
+                fail("expression should be invalid: " + expression);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static long at(ZoneId zone, int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,72 @@
+package com.iza.jms.job;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class JobIdGeneratorTest {
+
+    @Test
+    public void sequenceTest() throws InterruptedException {
+        assertUniqueIds(JobIdGenerator.sequence());
+    }
+
+    @Test
+    public void snowflakeTest() throws InterruptedException {
+        JobIdGenerator generator = JobIdGenerator.snowflake(5);
+        assertUniqueIds(generator);
+
+        // Ids increase across threads, and carry the node id in bits 12 to 21
+        long first = generator.nextId();
+        long second = generator.nextId();
+        assertTrue(second > first);
+        assertEquals(5L, (second >>> 12) & 1023L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snowflakeTestInvalidNodeId() {
+        JobIdGenerator.snowflake(1024);
+    }
+
+    @Test
+    public void getJobIdTest() {
+        Job job = Job.newJob(() -> { return; });
+        assertEquals(Long.toString(job.getId()), job.getJobId());
+
+        JobDescriptor descriptor = JobDescriptor.newDescriptor("3b1f7a5e-uuid", "task", "args", "job",
+                JobPriority.LOW, 0L, 0L);
+        Job durableJob = Job.newDurableJob(descriptor, () -> { return; });
+        assertEquals("3b1f7a5e-uuid", durableJob.getJobId());
+        assertTrue(durableJob.getId() > 0L);
+    }
+
+    private static void assertUniqueIds(JobIdGenerator generator) throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicBoolean increasing = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int i = 0; i < 4; i++) {
+            new Thread(() -> {
+                long previousId = 0L;
+                for (int j = 0; j < 10000; j++) {
+                    long id = generator.nextId();
+                    if (id <= previousId) {
+                        increasing.set(false);
+                    }
+                    ids.add(id);
+                    previousId = id;
+                }
+                done.countDown();
+            }).start();
+        }
+
+        done.await();
+        assertTrue(increasing.get());
+        assertEquals(40000, ids.size());
+    }
+}
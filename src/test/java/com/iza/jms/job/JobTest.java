@@ -22,6 +22,11 @@ public class JobTest {
         Job job = Job.newJob(() -> { return; }, "job", JobPriority.LOW, 100, -1);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void newCronJobTestInvalidExpression() {
+        Job job = Job.newCronJob(() -> { return; }, "job", JobPriority.LOW, "0 25 * * *");
+    }
+
     @Test
     public void runTestSuccess() {
         Job job = Mockito.spy(Job.newJob(() -> {
@@ -37,6 +42,7 @@ public class JobTest {
         job.run();
 
         assertEquals(JobStatus.SUCCESS, job.getJobStatus());
+        assertNull(job.getJobException());
         Mockito.verify(job).setJobStatus(JobStatus.RUNNING);
     }
 
@@ -51,6 +57,18 @@ public class JobTest {
         job.run();
 
         assertEquals(JobStatus.FAILED, job.getJobStatus());
+        assertTrue(job.getJobException() instanceof NullPointerException);
         Mockito.verify(job).setJobStatus(JobStatus.RUNNING);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void runTestCallable() {
+        CallableJob<Integer> job = CallableJob.newJob(() -> 42, "job", JobPriority.LOW);
+
+        job.run();
+
+        assertEquals(JobStatus.SUCCESS, job.getJobStatus());
+        assertEquals(Integer.valueOf(42), job.getJobValue());
+        assertNull(job.getJobRunnable());
+    }
+}
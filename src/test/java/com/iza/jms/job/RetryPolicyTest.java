@@ -0,0 +1,51 @@
+package com.iza.jms.job;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void getBackoffMsTest() {
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxAttempts(10)
+                .initialBackoffMs(100L)
+                .maxBackoffMs(1000L)
+                .jitter(0.0)
+                .build();
+
+        assertEquals(100L, retryPolicy.getBackoffMs(1));
+        assertEquals(400L, retryPolicy.getBackoffMs(3));
+        assertEquals(1000L, retryPolicy.getBackoffMs(9));
+
+        RetryPolicy jitteredPolicy = RetryPolicy.builder().initialBackoffMs(1000L).jitter(0.5).build();
+        for (int i = 0; i < 100; i++) {
+            long backoffMs = jitteredPolicy.getBackoffMs(1);
+            assertTrue(backoffMs >= 500L && backoffMs <= 1000L);
+        }
+    }
+
+    @Test
+    public void shouldRetryTest() {
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxAttempts(3)
+                .retryOn(UncheckedIOException.class)
+                .build();
+        UncheckedIOException retryable = new UncheckedIOException(new IOException("connection reset"));
+
+        assertTrue(retryPolicy.shouldRetry(1, retryable));
+        assertTrue(retryPolicy.shouldRetry(2, retryable));
+        assertFalse(retryPolicy.shouldRetry(3, retryable));
+        assertFalse(retryPolicy.shouldRetry(1, new IllegalStateException()));
+        assertTrue(RetryPolicy.builder().build().shouldRetry(1, new IllegalStateException()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void buildTestInvalidJitter() {
+        RetryPolicy.builder().jitter(1.5).build();
+    }
+}
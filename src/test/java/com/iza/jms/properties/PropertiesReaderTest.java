@@ -1,11 +1,26 @@
 package com.iza.jms.properties;
 
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.scheduler.DedupPolicy;
+import com.iza.jms.scheduler.ExecutionMode;
+import com.iza.jms.scheduler.QueueOverflowPolicy;
+import com.iza.jms.scheduler.TimerEngine;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.Assert.*;
 
 public class PropertiesReaderTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void readPropertiesTestCorrect() {
         Props props = PropertiesReader.readProperties("/jms-test-1.properties");
@@ -13,6 +28,37 @@ public class PropertiesReaderTest {
         assertEquals(1, props.getJobThreadPoolSize());
         assertEquals(50, props.getJobQueueSize());
         assertEquals(1, props.getSchedulerShutdownTimeoutSec());
+        assertEquals(QueueOverflowPolicy.REJECT, props.getQueueOverflowPolicy());
+        assertEquals(1000L, props.getQueueOfferTimeoutMs());
+    }
+
+    @Test
+    public void readPropertiesTestOverflowPolicy() {
+        Props props = PropertiesReader.readProperties("/jms-test-5.properties");
+
+        assertEquals(2, props.getJobThreadPoolSize());
+        assertEquals(10, props.getJobQueueSize());
+        assertEquals(QueueOverflowPolicy.DROP_LOWEST, props.getQueueOverflowPolicy());
+        assertEquals(250L, props.getQueueOfferTimeoutMs());
+        assertEquals(TimerEngine.TIMING_WHEEL, props.getTimerEngine());
+        assertEquals(5L, props.getTimerTickMs());
+        assertEquals(ExecutionMode.VIRTUAL, props.getExecutionMode());
+        assertEquals(500, props.getVirtualConcurrencyLimit());
+        assertEquals(2, props.getJobLimits().get("pingJob").getMaxConcurrentRuns());
+        assertEquals(0.5, props.getJobLimits().get("reportJob").getMaxStartsPerSecond(), 0.0);
+        assertEquals(DedupPolicy.DROP, props.getDedupPolicy());
+        assertEquals(10000L, (long) props.getRunTimeoutsMs().get(JobPriority.HIGH));
+        assertEquals(60000L, (long) props.getRunTimeoutsMs().get(JobPriority.LOW));
+        assertNull(props.getRunTimeoutsMs().get(JobPriority.MEDIUM));
+    }
+
+    @Test
+    public void readPropertiesTestUnknownOverflowPolicy() {
+        Props props = PropertiesReader.readProperties("/jms-test-6.properties");
+
+        assertEquals(10, props.getJobThreadPoolSize());
+        assertEquals(100, props.getJobQueueSize());
+        assertEquals(QueueOverflowPolicy.REJECT, props.getQueueOverflowPolicy());
     }
 
     @Test
@@ -50,4 +96,24 @@ public class PropertiesReaderTest {
         assertEquals(100, props.getJobQueueSize());
         assertEquals(10, props.getSchedulerShutdownTimeoutSec());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readPropertiesFileTest() throws IOException {
+        Path file = folder.newFile("jms.properties").toPath();
+        Files.write(file, "THREAD_POOL_SIZE=4\nQUEUE_SIZE=20".getBytes(StandardCharsets.UTF_8));
+
+        Props props = PropertiesReader.readPropertiesFile(file);
+
+        assertEquals(4, props.getJobThreadPoolSize());
+        assertEquals(20, props.getJobQueueSize());
+        assertEquals(10, props.getSchedulerShutdownTimeoutSec());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readPropertiesFileTestInvalid() throws IOException {
+        Path file = folder.newFile("jms.properties").toPath();
+        Files.write(file, "THREAD_POOL_SIZE=-1".getBytes(StandardCharsets.UTF_8));
+
+        PropertiesReader.readPropertiesFile(file);
+    }
+}
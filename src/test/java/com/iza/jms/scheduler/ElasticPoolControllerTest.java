@@ -0,0 +1,59 @@
+package com.iza.jms.scheduler;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ElasticPoolControllerTest {
+
+    private final AtomicInteger queuedJobCount = new AtomicInteger();
+    private final AtomicInteger runningJobCount = new AtomicInteger();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private double cpuLoad;
+
+    private final ElasticPoolController controller = new ElasticPoolController(2, 20, 100L, 0.9,
+            queuedJobCount::get, runningJobCount::get, new LatencyHistogram[] {waitTimes}, () -> cpuLoad);
+
+    @Test
+    public void nextWorkerCountTestGrow() {
+        queuedJobCount.set(100);
+        runningJobCount.set(8);
+        waitTimes.record(TimeUnit.MILLISECONDS.toNanos(500L));
+
+        assertEquals(10, controller.nextWorkerCount(8));
+
+        // Waits below the target in the last interval do not grow the pool
+        waitTimes.record(TimeUnit.MILLISECONDS.toNanos(10L));
+        assertEquals(10, controller.nextWorkerCount(10));
+
+        // Jobs queued while no job started, e.g. with every worker stuck, grow the pool up to the bound
+        assertEquals(20, controller.nextWorkerCount(18));
+    }
+
+    @Test
+    public void nextWorkerCountTestCpuSaturated() {
+        queuedJobCount.set(100);
+        cpuLoad = 0.95;
+
+        assertEquals(12, controller.nextWorkerCount(16));
+        assertEquals(2, controller.nextWorkerCount(2));
+    }
+
+    @Test
+    public void nextWorkerCountTestIdle() {
+        runningJobCount.set(2);
+
+        // The pool shrinks only after several idle intervals in a row
+        assertEquals(10, controller.nextWorkerCount(10));
+        assertEquals(10, controller.nextWorkerCount(10));
+        assertEquals(6, controller.nextWorkerCount(10));
+        assertEquals(4, controller.nextWorkerCount(6));
+
+        runningJobCount.set(0);
+        assertEquals(2, controller.nextWorkerCount(4));
+        assertEquals(2, controller.nextWorkerCount(2));
+    }
+}
@@ -0,0 +1,142 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobDescriptor;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.job.JobStatus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class JobJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void openTestReplay() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JobJournal journal = JobJournal.open(directory, 4096, 10L);
+
+        Job immediateJob = newDurableJob(0L, 0L);
+        Job delayedJob = newDurableJob(5000L, 0L);
+        Job periodicJob = newDurableJob(0L, 1000L);
+
+        journal.recordSubmit(immediateJob, 1000L);
+        journal.recordSubmit(delayedJob, 1000L);
+        journal.recordSubmit(periodicJob, 1000L);
+        journal.recordStatus(immediateJob, JobStatus.SUCCESS, 2000L);
+        journal.recordStatus(periodicJob, JobStatus.FAILED, 3000L);
+        journal.close();
+
+        // Completed runs of periodic jobs only move their next run
+        Collection<JobJournal.JournalEntry> pendingJobs = JobJournal.open(directory, 4096, 10L).getPendingJobs();
+
+        assertEquals(2, pendingJobs.size());
+        for (JobJournal.JournalEntry entry : pendingJobs) {
+            if (entry.getDescriptor().getJobId().equals(delayedJob.getJobId())) {
+                assertEquals(5000L, entry.getRemainingDelayMs(1000L));
+                assertEquals("args", entry.getDescriptor().getTaskArgs());
+            } else {
+                assertEquals(periodicJob.getJobId(), entry.getDescriptor().getJobId());
+                assertEquals(500L, entry.getRemainingDelayMs(3500L));
+            }
+        }
+    }
+
+    @Test
+    public void recordSubmitAllTest() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JobJournal journal = JobJournal.open(directory, 4096, 10L);
+
+        Job firstJob = newDurableJob(0L, 0L);
+        Job secondJob = newDurableJob(5000L, 0L);
+        Job thirdJob = newDurableJob(0L, 0L);
+
+        assertTrue(journal.recordSubmitAll(Arrays.asList(firstJob, secondJob, thirdJob), 1000L).isEmpty());
+        journal.recordStatusAll(Arrays.asList(firstJob, thirdJob), JobStatus.CANCELLED, 2000L);
+        journal.close();
+
+        // Jobs which cannot be recorded are returned to the caller
+        assertEquals(Collections.singletonList(firstJob),
+                journal.recordSubmitAll(Collections.singletonList(firstJob), 3000L));
+
+        Collection<JobJournal.JournalEntry> pendingJobs = JobJournal.open(directory, 4096, 10L).getPendingJobs();
+
+        assertEquals(1, pendingJobs.size());
+        assertEquals(secondJob.getJobId(), pendingJobs.iterator().next().getDescriptor().getJobId());
+    }
+
+    @Test
+    public void recordTestCompaction() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JobJournal journal = JobJournal.open(directory, 4096, 10L);
+
+        for (int i = 0; i < 200; i++) {
+            Job job = newDurableJob(0L, 0L);
+            journal.recordSubmit(job, 1000L);
+            if (i % 4 != 0) {
+                journal.recordStatus(job, JobStatus.CANCELLED, 1000L);
+            }
+        }
+
+        // Full segments are replaced with a snapshot of the pending jobs in the background
+        Thread.sleep(200);
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() <= 3);
+        }
+        assertEquals(50, JobJournal.open(directory, 4096, 10L).getPendingJobs().size());
+    }
+
+    @Test
+    public void openTestTornRecord() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JobJournal journal = JobJournal.open(directory, 4096, 10L);
+        journal.recordSubmit(newDurableJob(0L, 0L), 1000L);
+        journal.close();
+
+        // A record with a wrong checksum ends the replay of the segment
+        try (FileChannel channel = FileChannel.open(directory.resolve("journal-1.log"), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            buffer.putInt(100).putInt(12345);
+            buffer.flip();
+            channel.write(buffer, findEnd(directory.resolve("journal-1.log")));
+        }
+
+        assertEquals(1, JobJournal.open(directory, 4096, 10L).getPendingJobs().size());
+    }
+
+    private static long findEnd(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            if (length == 0) {
+                return buffer.position() - 4;
+            }
+            buffer.position(buffer.position() + 4 + length);
+        }
+        return buffer.position();
+    }
+
+    private static Job newDurableJob(long initialDelayMs, long periodMs) {
+        JobDescriptor descriptor = JobDescriptor.newDescriptor(UUID.randomUUID().toString(), "task", "args",
+                "job", JobPriority.LOW, initialDelayMs, periodMs);
+        return Job.newDurableJob(descriptor, () -> { return; });
+    }
+}
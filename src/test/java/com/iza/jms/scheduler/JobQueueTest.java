@@ -0,0 +1,169 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobPriority;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JobQueueTest {
+
+    private static final Comparator<JobHandle> priorityComparator =
+            Comparator.comparing((JobHandle handle) -> handle.getJob().getJobPriority());
+
+    @Test
+    public void offerAllTestPriorityOrder() throws InterruptedException {
+        JobQueue queue = new JobQueue(100, 0L);
+        queue.offer(newHandle(JobPriority.MEDIUM));
+
+        List<JobHandle> batch = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            batch.add(newHandle(JobPriority.values()[i % 3]));
+        }
+
+        assertEquals(30, queue.offerAll(batch));
+        assertEquals(31, queue.size());
+
+        List<JobHandle> taken = new ArrayList<>();
+        assertEquals(31, queue.drainTo(taken, 100));
+
+        for (int i = 1; i < taken.size(); i++) {
+            assertTrue(priorityComparator.compare(taken.get(i - 1), taken.get(i)) <= 0);
+        }
+    }
+
+    @Test
+    public void offerAllTestCapacity() {
+        JobQueue queue = new JobQueue(5, 0L);
+        queue.offer(newHandle(JobPriority.LOW));
+
+        List<JobHandle> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(newHandle(JobPriority.HIGH));
+        }
+
+        assertEquals(4, queue.offerAll(batch));
+        assertEquals(5, queue.size());
+        assertFalse(queue.offer(newHandle(JobPriority.HIGH)));
+
+        // Previously admitted jobs are returned to the queue regardless of its capacity
+        queue.put(newHandle(JobPriority.HIGH));
+        assertEquals(6, queue.size());
+    }
+
+    @Test
+    public void drainToTestMaxJobs() throws InterruptedException {
+        JobQueue queue = new JobQueue(10, 0L);
+        JobHandle high = newHandle(JobPriority.HIGH);
+        queue.offer(newHandle(JobPriority.LOW));
+        queue.offer(high);
+        queue.offer(newHandle(JobPriority.MEDIUM));
+
+        List<JobHandle> taken = new ArrayList<>();
+        assertEquals(1, queue.drainTo(taken, 1));
+        assertSame(high, taken.get(0));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void offerEvictingLowestTest() throws InterruptedException {
+        JobQueue queue = new JobQueue(3, 0L);
+        JobHandle low = newHandle(JobPriority.LOW);
+        queue.offer(newHandle(JobPriority.MEDIUM));
+        queue.offer(low);
+        queue.offer(newHandle(JobPriority.HIGH));
+
+        JobHandle medium = newHandle(JobPriority.MEDIUM);
+        assertSame(low, queue.offerEvictingLowest(medium));
+
+        JobHandle anotherMedium = newHandle(JobPriority.MEDIUM);
+        assertSame(anotherMedium, queue.offerEvictingLowest(anotherMedium));
+        assertEquals(3, queue.size());
+
+        List<JobHandle> taken = new ArrayList<>();
+        queue.drainTo(taken, 3);
+        assertFalse(taken.contains(low));
+    }
+
+    @Test
+    public void drainToTestFifoWithinPriority() throws InterruptedException {
+        JobQueue queue = new JobQueue(10, 0L);
+        List<JobHandle> mediumJobs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            JobHandle medium = newHandle(JobPriority.MEDIUM);
+            mediumJobs.add(medium);
+            queue.offer(medium);
+            queue.offer(newHandle(JobPriority.LOW));
+        }
+
+        List<JobHandle> taken = new ArrayList<>();
+        queue.drainTo(taken, 5);
+        assertEquals(mediumJobs, taken);
+    }
+
+    @Test
+    public void removeAllTest() throws InterruptedException {
+        JobQueue queue = new JobQueue(5, 0L);
+        List<JobHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            JobHandle handle = newHandle(JobPriority.MEDIUM);
+            handles.add(handle);
+            queue.offer(handle);
+        }
+
+        // Head, middle and tail of the lane are unlinked, jobs not in the queue are skipped
+        List<JobHandle> removed = Arrays.asList(handles.get(0), handles.get(2), handles.get(4),
+                newHandle(JobPriority.MEDIUM));
+        assertEquals(3, queue.removeAll(removed).size());
+        assertEquals(0, queue.removeAll(removed).size());
+        assertEquals(2, queue.size());
+        assertTrue(queue.offer(newHandle(JobPriority.LOW)));
+
+        List<JobHandle> taken = new ArrayList<>();
+        queue.drainTo(taken, 2);
+        assertEquals(Arrays.asList(handles.get(1), handles.get(3)), taken);
+    }
+
+    @Test
+    public void drainToTestAging() throws InterruptedException {
+        JobQueue queue = new JobQueue(10, 200L);
+        JobHandle low = newHandle(JobPriority.LOW);
+        queue.offer(low);
+        Thread.sleep(250);
+
+        // The low job is promoted to MEDIUM, ahead of a new MEDIUM job but not of a HIGH one
+        JobHandle high = newHandle(JobPriority.HIGH);
+        queue.offer(newHandle(JobPriority.MEDIUM));
+        queue.offer(high);
+
+        List<JobHandle> taken = new ArrayList<>();
+        queue.drainTo(taken, 2);
+        assertSame(high, taken.get(0));
+        assertSame(low, taken.get(1));
+    }
+
+    @Test
+    public void reconfigureTestAging() throws InterruptedException {
+        JobQueue queue = new JobQueue(10, 0L);
+        JobHandle low = newHandle(JobPriority.LOW);
+        JobHandle medium = newHandle(JobPriority.MEDIUM);
+        queue.offer(low);
+        queue.offer(medium);
+
+        // Jobs queued while aging was off are aged from the time they were queued
+        queue.reconfigure(10, 10000L);
+
+        List<JobHandle> taken = new ArrayList<>();
+        queue.drainTo(taken, 2);
+        assertEquals(Arrays.asList(medium, low), taken);
+    }
+
+    private static JobHandle newHandle(JobPriority priority) {
+        return new JobHandle(Job.newJob(() -> { return; }, "job", priority));
+    }
+}
@@ -0,0 +1,53 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class JobRegistryTest {
+
+    @Test
+    public void retireTestCountEviction() {
+        JobRegistry registry = new JobRegistry(60000L, 2);
+
+        JobHandle[] handles = new JobHandle[4];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = new JobHandle(Job.newJob(() -> { return; }));
+            registry.register(handles[i]);
+        }
+
+        registry.retire(handles[0]);
+        registry.retire(handles[1]);
+        assertEquals(4, registry.size());
+
+        // The oldest retired job is evicted first
+        registry.retire(handles[2]);
+        assertEquals(3, registry.size());
+        assertNull(registry.get(handles[0].getJob().getId()));
+        assertSame(handles[1], registry.get(handles[1].getJob().getId()));
+        assertSame(handles[3], registry.get(handles[3].getJob().getId()));
+    }
+
+    @Test
+    public void evictExpiredTest() throws InterruptedException {
+        JobRegistry registry = new JobRegistry(50L, 100);
+
+        JobHandle activeHandle = new JobHandle(Job.newJob(() -> { return; }));
+        JobHandle retiredHandle = new JobHandle(Job.newJob(() -> { return; }));
+        registry.register(activeHandle);
+        registry.register(retiredHandle);
+
+        registry.retire(retiredHandle);
+        registry.evictExpired();
+        assertSame(retiredHandle, registry.get(retiredHandle.getJob().getId()));
+
+        Thread.sleep(75);
+        registry.evictExpired();
+
+        // Jobs which are not retired are never evicted
+        assertNull(registry.get(retiredHandle.getJob().getId()));
+        assertSame(activeHandle, registry.get(activeHandle.getJob().getId()));
+        assertEquals(1, registry.size());
+    }
+}
@@ -0,0 +1,77 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.CallableJob;
+import com.iza.jms.job.JobStatus;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class JobResultStoreTest {
+
+    @Test
+    public void putTestLeastRecentlyUsedEviction() {
+        JobResultStore store = new JobResultStore(2, Long.MAX_VALUE, 60000L);
+
+        JobResult[] results = new JobResult[3];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = newResult("value" + i);
+        }
+
+        store.put(results[0]);
+        store.put(results[1]);
+
+        // Reading the first result makes the second one the least recently used
+        assertSame(results[0], store.get(jobId(results[0])));
+        store.put(results[2]);
+
+        assertEquals(2, store.size());
+        assertSame(results[0], store.get(jobId(results[0])));
+        assertNull(store.get(jobId(results[1])));
+        assertSame(results[2], store.get(jobId(results[2])));
+    }
+
+    @Test
+    public void putTestMemoryLimit() {
+        long resultBytes = JobResultStore.estimateSize(new byte[1000]);
+        JobResultStore store = new JobResultStore(100, 2 * resultBytes, 60000L);
+
+        JobResult first = newResult(new byte[1000]);
+        store.put(first);
+        store.put(newResult(new byte[1000]));
+        assertEquals(2 * resultBytes, store.getTotalBytes());
+
+        store.put(newResult(new byte[1000]));
+        assertEquals(2, store.size());
+        assertNull(store.get(jobId(first)));
+
+        // Results larger than the limit are not stored at all
+        assertFalse(store.put(newResult(new byte[5000])));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void evictExpiredTest() throws InterruptedException {
+        JobResultStore store = new JobResultStore(100, Long.MAX_VALUE, 50L);
+
+        JobResult result = newResult("value");
+        store.put(result);
+        assertSame(result, store.get(jobId(result)));
+
+        Thread.sleep(75);
+        store.evictExpired();
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.getTotalBytes());
+        assertNull(store.get(jobId(result)));
+    }
+
+    private static JobResult newResult(Object value) {
+        return new JobResult(CallableJob.newJob(() -> value), JobStatus.SUCCESS, Duration.ZERO, value, null);
+    }
+
+    private static long jobId(JobResult result) {
+        return result.getJob().getId();
+    }
+}
@@ -1,15 +1,39 @@
 package com.iza.jms.scheduler;
 
+import com.iza.jms.job.CallableJob;
 import com.iza.jms.job.Job;
+import com.iza.jms.job.JobDescriptor;
 import com.iza.jms.job.JobPriority;
 import com.iza.jms.job.JobStatus;
+import com.iza.jms.job.RetryPolicy;
+import com.iza.jms.properties.Props;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
 import org.mockito.Mockito;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.*;
 
 public class JobSchedulerTest {
@@ -19,6 +43,9 @@ public class JobSchedulerTest {
     @Rule
     public TestName testName = new TestName();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setUp() {
 
@@ -135,6 +162,68 @@ public class JobSchedulerTest {
         assertTrue(jobScheduler.checkIfJobIsDone(job.getJobId()));
     }
 
+    @Test
+    public void scheduleJobTestTimingWheel() throws InterruptedException {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .timerEngine(TimerEngine.TIMING_WHEEL)
+                .timerTickMs(5)
+                .build());
+        scheduler.start();
+
+        AtomicInteger periodicRuns = new AtomicInteger();
+        Job delayedJob = Job.newJob(() -> { return; }, "delayedJob", JobPriority.LOW, 100);
+        Job periodicJob = Job.newJob(periodicRuns::incrementAndGet, "periodicJob", JobPriority.LOW, 50, 50);
+
+        scheduler.scheduleJob(delayedJob);
+        scheduler.scheduleJob(periodicJob);
+
+        Thread.sleep(50);
+        assertEquals(JobStatus.QUEUED, delayedJob.getJobStatus());
+        assertFalse(scheduler.checkIfJobIsDone(delayedJob.getJobId()));
+
+        Thread.sleep(100);
+        assertEquals(JobStatus.SUCCESS, delayedJob.getJobStatus());
+        assertTrue(scheduler.checkIfJobIsDone(delayedJob.getJobId()));
+        assertFalse(scheduler.checkIfJobIsDone(periodicJob.getJobId()));
+        assertTrue(periodicRuns.get() >= 2);
+
+        assertTrue(scheduler.cancelJob(periodicJob.getJobId(), false));
+        assertTrue(scheduler.checkIfJobIsDone(periodicJob.getJobId()));
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void scheduleJobTestVirtual() throws InterruptedException {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobQueueSize(1000)
+                .executionMode(ExecutionMode.VIRTUAL)
+                .virtualConcurrencyLimit(1000)
+                .build());
+        scheduler.start();
+
+        // Blocking jobs run concurrently far beyond the thread pool size
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            jobs.add(Job.newJob(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        assertTrue(scheduler.scheduleJobs(jobs).isFullyAccepted());
+
+        Thread.sleep(500);
+        for (Job job : jobs) {
+            assertEquals(JobStatus.SUCCESS, job.getJobStatus());
+        }
+
+        scheduler.stop();
+    }
+
     @Test
     public void scheduleJobTestPriority() throws InterruptedException {
         Job jobLow = Job.newJob(() -> {
@@ -196,6 +285,712 @@ public class JobSchedulerTest {
         assertTrue(jobScheduler.checkIfJobIsDone(jobHigh.getJobId()));
     }
 
+    @Test
+    public void scheduleJobTestPriorityWhenWorkersBusy() throws InterruptedException {
+        Job jobRunning = Job.newJob(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }, "jobRunning", JobPriority.LOW);
+
+        Job jobLow = Job.newJob(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }, "jobLow", JobPriority.LOW);
+
+        Job jobHigh = Job.newJob(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }, "jobHigh", JobPriority.HIGH);
+
+        // The only worker is busy, so the jobs scheduled next have to wait in the queue
+        jobScheduler.scheduleJob(jobRunning);
+        Thread.sleep(25);
+        assertEquals(JobStatus.RUNNING, jobRunning.getJobStatus());
+
+        // Low priority job arrives first, but the high priority job should be run before it
+        jobScheduler.scheduleJob(jobLow);
+        Thread.sleep(10);
+        jobScheduler.scheduleJob(jobHigh);
+
+        Thread.sleep(100);
+        assertEquals(JobStatus.SUCCESS, jobRunning.getJobStatus());
+        assertEquals(JobStatus.QUEUED, jobLow.getJobStatus());
+        assertEquals(JobStatus.RUNNING, jobHigh.getJobStatus());
+
+        Thread.sleep(100);
+        assertEquals(JobStatus.RUNNING, jobLow.getJobStatus());
+        assertEquals(JobStatus.SUCCESS, jobHigh.getJobStatus());
+    }
+
+    @Test
+    public void scheduleJobTestQueueFullReject() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.REJECT);
+
+        Job job = Job.newJob(() -> { return; });
+
+        assertFalse(scheduler.scheduleJob(job));
+        assertEquals(JobStatus.CREATED, job.getJobStatus());
+        assertEquals(2, scheduler.getQueuedJobCount());
+        assertEquals(1, scheduler.getRejectedJobCount());
+    }
+
+    @Test
+    public void scheduleJobTestQueueFullBlock() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.BLOCK);
+
+        Job job = Job.newJob(() -> { return; });
+
+        long startTime = System.currentTimeMillis();
+        assertFalse(scheduler.scheduleJob(job));
+        assertTrue(System.currentTimeMillis() - startTime >= 50);
+        assertEquals(1, scheduler.getRejectedJobCount());
+    }
+
+    @Test
+    public void scheduleJobTestQueueFullDropLowest() {
+        Job jobLow1 = Job.newJob(() -> { return; }, "jobLow1", JobPriority.LOW);
+        Job jobLow2 = Job.newJob(() -> { return; }, "jobLow2", JobPriority.LOW);
+        Job jobHigh = Job.newJob(() -> { return; }, "jobHigh", JobPriority.HIGH);
+        Job jobMedium = Job.newJob(() -> { return; }, "jobMedium", JobPriority.MEDIUM);
+
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobQueueSize(2)
+                .queueOverflowPolicy(QueueOverflowPolicy.DROP_LOWEST)
+                .build());
+
+        assertTrue(scheduler.scheduleJob(jobLow1));
+        assertTrue(scheduler.scheduleJob(jobLow2));
+
+        // The last queued low priority job makes room for the high priority one
+        assertTrue(scheduler.scheduleJob(jobHigh));
+        assertEquals(JobStatus.QUEUED, jobLow1.getJobStatus());
+        assertEquals(JobStatus.DROPPED, jobLow2.getJobStatus());
+
+        assertTrue(scheduler.scheduleJob(jobMedium));
+        assertEquals(JobStatus.DROPPED, jobLow1.getJobStatus());
+
+        // No queued job has a lower priority than the new one
+        assertFalse(scheduler.scheduleJob(Job.newJob(() -> { return; }, "job", JobPriority.MEDIUM)));
+
+        assertEquals(2, scheduler.getQueuedJobCount());
+        assertEquals(2, scheduler.getShedJobCount());
+        assertEquals(1, scheduler.getRejectedJobCount());
+    }
+
+    @Test
+    public void scheduleJobTestDelayedWhileWorkersBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        jobScheduler.scheduleJob(Job.newJob(() -> awaitRelease(started, release), "busyJob", JobPriority.HIGH));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // The delay passes while the only worker is busy, so the job runs as soon as the worker is free
+        CompletableFuture<JobResult> delayedJob = jobScheduler.submitJob(Job.newJob(() -> { return; },
+                "delayedJob", JobPriority.LOW, 100)).toCompletableFuture();
+        Thread.sleep(300);
+        release.countDown();
+
+        assertEquals(JobStatus.SUCCESS, delayedJob.get(50, TimeUnit.MILLISECONDS).getStatus());
+    }
+
+    @Test
+    public void scheduleJobTestQueueFullCallerRuns() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.CALLER_RUNS);
+
+        Thread callerThread = Thread.currentThread();
+        Thread[] runnerThread = new Thread[1];
+        Job job = Job.newJob(() -> runnerThread[0] = Thread.currentThread());
+
+        assertTrue(scheduler.scheduleJob(job));
+        assertEquals(callerThread, runnerThread[0]);
+        assertEquals(JobStatus.SUCCESS, job.getJobStatus());
+        assertTrue(scheduler.checkIfJobIsDone(job.getJobId()));
+
+        // Delayed jobs wait for their delay on the timer, so they do not need a queue slot yet
+        Job delayedJob = Job.newJob(() -> { return; }, "job", JobPriority.LOW, 100);
+        assertTrue(scheduler.scheduleJob(delayedJob));
+        assertEquals(JobStatus.QUEUED, delayedJob.getJobStatus());
+        assertEquals(0, scheduler.getRejectedJobCount());
+    }
+
+    @Test
+    public void scheduleJobTestQueueFullCallerRunsLimit() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.CALLER_RUNS);
+        assertTrue(scheduler.setJobLimit("pingJob", JobLimit.newLimit(0, 1.0)));
+        AtomicInteger pingRuns = new AtomicInteger();
+
+        // The caller runs jobs within the limit of their name, and jobs over the limit are rejected
+        assertTrue(scheduler.scheduleJob(Job.newJob(pingRuns::incrementAndGet, "pingJob", JobPriority.LOW)));
+        assertFalse(scheduler.scheduleJob(Job.newJob(pingRuns::incrementAndGet, "pingJob", JobPriority.LOW)));
+        assertEquals(1, pingRuns.get());
+        assertEquals(1, scheduler.getRejectedJobCount());
+        assertEquals(1L, scheduler.getMetrics().getWaitTimeByPriority().get(JobPriority.LOW).getCount());
+    }
+
+    @Test
+    public void scheduleJobsTest() throws InterruptedException {
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            jobs.add(Job.newJob(() -> { return; }));
+        }
+
+        BatchResult result = jobScheduler.scheduleJobs(jobs);
+
+        assertTrue(result.isFullyAccepted());
+        assertEquals(jobs, result.getAcceptedJobs());
+
+        Thread.sleep(100);
+        for (Job job : jobs) {
+            assertEquals(JobStatus.SUCCESS, job.getJobStatus());
+            assertTrue(jobScheduler.checkIfJobIsDone(job.getJobId()));
+        }
+    }
+
+    @Test
+    public void scheduleJobsTestQueueFull() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.REJECT);
+
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            jobs.add(Job.newJob(() -> { return; }));
+        }
+
+        BatchResult result = scheduler.scheduleJobs(jobs);
+
+        assertFalse(result.isFullyAccepted());
+        assertTrue(result.getAcceptedJobs().isEmpty());
+        assertEquals(jobs, result.getRejectedJobs());
+        assertEquals(JobStatus.CREATED, jobs.get(0).getJobStatus());
+        assertEquals(10, scheduler.getRejectedJobCount());
+
+        // Part of the batch which fits into the queue is accepted
+        scheduler = JobScheduler.newJobScheduler(Props.builder().jobQueueSize(5).build());
+        result = scheduler.scheduleJobs(jobs);
+
+        assertEquals(jobs.subList(0, 5), result.getAcceptedJobs());
+        assertEquals(jobs.subList(5, 10), result.getRejectedJobs());
+        assertEquals(JobStatus.QUEUED, jobs.get(4).getJobStatus());
+        assertEquals(JobStatus.CREATED, jobs.get(5).getJobStatus());
+        assertEquals(5, scheduler.getQueuedJobCount());
+    }
+
+    @Test
+    public void scheduleJobsTestQueueFullDropLowest() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.DROP_LOWEST);
+
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jobs.add(Job.newJob(() -> { return; }, "highJob", JobPriority.HIGH));
+        }
+
+        BatchResult result = scheduler.scheduleJobs(jobs);
+
+        // The overflow policy is applied to the rest of the batch, not to jobs scheduled one by one again
+        assertEquals(jobs.subList(0, 2), result.getAcceptedJobs());
+        assertEquals(jobs.subList(2, 3), result.getRejectedJobs());
+        assertEquals(JobStatus.CREATED, jobs.get(2).getJobStatus());
+        assertEquals(2, scheduler.getShedJobCount());
+        assertEquals(1, scheduler.getRejectedJobCount());
+        assertEquals(2, scheduler.getQueuedJobCount());
+    }
+
+    @Test
+    public void submitJobTest() throws Exception {
+        CompletableFuture<JobResult> success = jobScheduler.submitJob(Job.newJob(() -> { return; }))
+                .toCompletableFuture();
+        CompletableFuture<JobResult> failure = jobScheduler.submitJob(Job.newJob(() -> {
+            throw new IllegalStateException();
+        })).toCompletableFuture();
+
+        JobResult result = success.get(1, TimeUnit.SECONDS);
+        assertEquals(JobStatus.SUCCESS, result.getStatus());
+        assertNull(result.getException());
+        assertFalse(result.getRunTime().isNegative());
+
+        result = failure.get(1, TimeUnit.SECONDS);
+        assertEquals(JobStatus.FAILED, result.getStatus());
+        assertTrue(result.getException() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void submitJobTestPeriodic() throws Exception {
+        List<JobResult> runs = new ArrayList<>();
+        Job job = Job.newJob(() -> { return; }, "job", JobPriority.LOW, 0, 20);
+
+        CompletableFuture<JobResult> completion = jobScheduler.submitJob(job, result -> {
+            synchronized (runs) {
+                runs.add(result);
+            }
+        }).toCompletableFuture();
+
+        Thread.sleep(110);
+        assertFalse(completion.isDone());
+        synchronized (runs) {
+            assertTrue(runs.size() >= 3);
+            assertEquals(JobStatus.SUCCESS, runs.get(0).getStatus());
+        }
+
+        // Periodic jobs only complete when cancelled
+        assertTrue(jobScheduler.cancelJob(job.getJobId(), false));
+        assertEquals(JobStatus.CANCELLED, completion.get(1, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void submitJobTestRejected() throws InterruptedException {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.REJECT);
+
+        CompletableFuture<JobResult> completion = scheduler.submitJob(Job.newJob(() -> { return; }))
+                .toCompletableFuture();
+
+        try {
+            completion.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void getJobResultTest() throws Exception {
+        CallableJob<String> job = CallableJob.newJob(() -> "result", "job", JobPriority.HIGH);
+        CallableJob<String> failingJob = CallableJob.newJob(() -> {
+            throw new IOException();
+        });
+
+        assertEquals("result", jobScheduler.submitJob(job).toCompletableFuture()
+                .get(1, TimeUnit.SECONDS).getValue(String.class));
+        jobScheduler.submitJob(failingJob).toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        assertEquals("result", jobScheduler.getJobResult(job.getJobId()).getValue());
+        assertEquals(JobStatus.FAILED, jobScheduler.getJobResult(failingJob.getJobId()).getStatus());
+        assertNull(jobScheduler.getJobResult(failingJob.getJobId()).getValue());
+
+        // Results are only stored for callable jobs
+        Job runnableJob = Job.newJob(() -> { return; });
+        jobScheduler.submitJob(runnableJob).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertNull(jobScheduler.getJobResult(runnableJob.getJobId()));
+    }
+
+    @Test
+    public void newDurableJobTestRecovery() throws InterruptedException {
+        Props props = Props.builder().journalDir(folder.getRoot().getPath()).build();
+        AtomicInteger runs = new AtomicInteger();
+
+        JobScheduler scheduler = JobScheduler.newJobScheduler(props);
+        scheduler.registerTaskType("count", args -> () -> runs.addAndGet(Integer.parseInt(args)));
+        scheduler.start();
+
+        Job completedJob = scheduler.newDurableJob("count", "1", "completedJob", JobPriority.HIGH, 0, 0);
+        Job periodicJob = scheduler.newDurableJob("count", "100", "periodicJob", JobPriority.LOW, 50, 50);
+        Job cancelledJob = scheduler.newDurableJob("count", "10", "cancelledJob", JobPriority.LOW, 50, 0);
+        assertTrue(scheduler.scheduleJob(completedJob));
+        assertTrue(scheduler.scheduleJob(periodicJob));
+        assertTrue(scheduler.scheduleJob(cancelledJob));
+
+        Thread.sleep(25);
+        assertTrue(scheduler.cancelJob(cancelledJob.getJobId(), false));
+        Thread.sleep(50);
+        scheduler.stop();
+        assertTrue(runs.get() >= 101);
+        assertEquals(1, runs.get() % 100);
+
+        // Only the periodic job is pending, so it is the only job recovered and run again
+        scheduler = JobScheduler.newJobScheduler(props);
+        scheduler.registerTaskType("count", args -> () -> runs.addAndGet(Integer.parseInt(args)));
+        scheduler.start();
+        Thread.sleep(100);
+        scheduler.stop();
+
+        assertTrue(runs.get() >= 201);
+        assertEquals(1, runs.get() % 100);
+    }
+
+    @Test
+    public void newDurableJobTestRecoveryLegacyId() throws IOException {
+        Props props = Props.builder().journalDir(folder.getRoot().getPath()).build();
+        String legacyId = UUID.randomUUID().toString();
+
+        // Journals of earlier versions recorded UUID job ids
+        JobJournal journal = JobJournal.open(folder.getRoot().toPath(), props.getJournalSegmentSize(),
+                props.getJournalFlushIntervalMs());
+        JobDescriptor descriptor = JobDescriptor.newDescriptor(legacyId, "count", "1", "legacyJob",
+                JobPriority.LOW, 10000, 0);
+        journal.recordSubmit(Job.newDurableJob(descriptor, () -> { return; }), System.currentTimeMillis());
+        journal.close();
+
+        JobScheduler scheduler = JobScheduler.newJobScheduler(props);
+        scheduler.registerTaskType("count", args -> () -> { return; });
+        scheduler.start();
+
+        // The recovered job is found by the id it was recorded with
+        assertFalse(scheduler.checkIfJobIsDone(legacyId));
+        assertTrue(scheduler.cancelJob(legacyId, false));
+        assertTrue(scheduler.checkIfJobIsDone(legacyId));
+        assertFalse(scheduler.cancelJob(UUID.randomUUID().toString(), false));
+        scheduler.stop();
+    }
+
+    @Test
+    public void scheduleJobTestFixedRate() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        Job job = Job.newFixedRateJob(() -> {
+            runs.incrementAndGet();
+            try {
+                Thread.sleep(60);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "fixedRateJob", JobPriority.LOW, 0, 100);
+
+        assertTrue(jobScheduler.scheduleJob(job));
+        Thread.sleep(450);
+        jobScheduler.cancelJob(job.getJobId(), false);
+
+        // Runs start every 100 ms, while a fixed delay would only start them every 160 ms
+        assertTrue(runs.get() >= 4);
+    }
+
+    @Test
+    public void scheduleJobTestCron() throws InterruptedException {
+        List<Long> runTimes = Collections.synchronizedList(new ArrayList<>());
+        Job job = Job.newCronJob(() -> runTimes.add(System.currentTimeMillis()), "cronJob", JobPriority.LOW,
+                "* * * * * *", 200);
+
+        assertTrue(jobScheduler.scheduleJob(job));
+        Thread.sleep(2300);
+        jobScheduler.cancelJob(job.getJobId(), false);
+
+        // Runs fire every second, delayed by up to 200 ms of jitter
+        assertTrue(runTimes.size() >= 2);
+        for (long runTime : runTimes) {
+            assertTrue(runTime % 1000L < 300L);
+        }
+    }
+
+    @Test
+    public void setJobLimitTestConcurrency() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(2)
+                .jobLimit("pingJob", JobLimit.newLimit(1, 0.0))
+                .build());
+        AtomicInteger runningPingJobs = new AtomicInteger();
+        AtomicInteger maxRunningPingJobs = new AtomicInteger();
+
+        List<CompletableFuture<JobResult>> pingJobs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            pingJobs.add(scheduler.submitJob(Job.newJob(() -> {
+                maxRunningPingJobs.accumulateAndGet(runningPingJobs.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                runningPingJobs.decrementAndGet();
+            }, "pingJob", JobPriority.HIGH)).toCompletableFuture());
+        }
+        CompletableFuture<JobResult> emailJob = scheduler.submitJob(
+                Job.newJob(() -> { return; }, "emailJob", JobPriority.LOW)).toCompletableFuture();
+        scheduler.start();
+
+        // Parked ping jobs do not hold the second worker, so the email job does not wait for them
+        emailJob.get(50, TimeUnit.MILLISECONDS);
+        assertEquals(2, scheduler.getParkedJobCount());
+
+        for (CompletableFuture<JobResult> pingJob : pingJobs) {
+            assertEquals(JobStatus.SUCCESS, pingJob.get(1, TimeUnit.SECONDS).getStatus());
+        }
+        assertEquals(1, maxRunningPingJobs.get());
+        assertEquals(0, scheduler.getParkedJobCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void setJobLimitTestRate() throws Exception {
+        assertTrue(jobScheduler.setJobLimit("reportJob", JobLimit.newLimit(0, 20.0)));
+        List<Long> startTimes = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<JobResult>> reportJobs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            reportJobs.add(jobScheduler.submitJob(Job.newJob(() -> startTimes.add(System.nanoTime()),
+                    "reportJob", JobPriority.LOW)).toCompletableFuture());
+        }
+        for (CompletableFuture<JobResult> reportJob : reportJobs) {
+            reportJob.get(2, TimeUnit.SECONDS);
+        }
+
+        // A burst of 20 jobs starts at once, the other 10 at 20 starts per second
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(startTimes.get(29) - startTimes.get(0));
+        assertTrue(elapsedMs >= 400L);
+        assertTrue(elapsedMs < 1500L);
+    }
+
+    @Test
+    public void scheduleJobTestRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Job job = Job.newJob(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("service unavailable");
+            }
+        }, "retriedJob", JobPriority.LOW);
+        job.setRetryPolicy(RetryPolicy.builder().maxAttempts(3).initialBackoffMs(100L).jitter(0.0).build());
+
+        List<JobStatus> runStatuses = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<JobResult> completion = jobScheduler.submitJob(job,
+                result -> runStatuses.add(result.getStatus())).toCompletableFuture();
+
+        Thread.sleep(25);
+        assertEquals(JobStatus.RETRYING, job.getJobStatus());
+        assertFalse(jobScheduler.checkIfJobIsDone(job.getJobId()));
+
+        assertEquals(JobStatus.SUCCESS, completion.get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(3, attempts.get());
+        assertEquals(List.of(JobStatus.FAILED, JobStatus.FAILED, JobStatus.SUCCESS), runStatuses);
+        assertTrue(jobScheduler.getDeadLetters().isEmpty());
+    }
+
+    @Test
+    public void scheduleJobTestDeadLetter() throws Exception {
+        Job exhaustedJob = Job.newJob(() -> {
+            throw new IllegalStateException("service unavailable");
+        }, "exhaustedJob", JobPriority.LOW);
+        exhaustedJob.setRetryPolicy(RetryPolicy.builder().maxAttempts(2).initialBackoffMs(10L).build());
+
+        Job notRetriedJob = Job.newJob(() -> {
+            throw new IllegalArgumentException("invalid argument");
+        }, "notRetriedJob", JobPriority.LOW);
+        notRetriedJob.setRetryPolicy(RetryPolicy.builder().retryOn(IllegalStateException.class).build());
+
+        assertEquals(JobStatus.FAILED,
+                jobScheduler.submitJob(exhaustedJob).toCompletableFuture().get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(JobStatus.FAILED,
+                jobScheduler.submitJob(notRetriedJob).toCompletableFuture().get(1, TimeUnit.SECONDS).getStatus());
+
+        List<DeadLetter> deadLetters = jobScheduler.drainDeadLetters();
+        assertEquals(2, deadLetters.size());
+        assertEquals(exhaustedJob, deadLetters.get(0).getJob());
+        assertEquals(2, deadLetters.get(0).getAttempts());
+        assertEquals(1, deadLetters.get(1).getAttempts());
+        assertTrue(deadLetters.get(1).getLastResult().getException() instanceof IllegalArgumentException);
+        assertTrue(jobScheduler.getDeadLetters().isEmpty());
+    }
+
+    @Test
+    public void scheduleJobTestDedupMerge() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder().jobThreadPoolSize(1).build());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch runStarted = new CountDownLatch(1);
+        CountDownLatch releaseRun = new CountDownLatch(1);
+
+        List<CompletableFuture<JobResult>> completions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Job job = Job.newJob(() -> {
+                runs.incrementAndGet();
+                runStarted.countDown();
+                try {
+                    releaseRun.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "refreshCache", JobPriority.LOW);
+            job.setDedupKey("refresh-cache-users");
+            completions.add(scheduler.submitJob(job).toCompletableFuture());
+        }
+        Job queuedJob = scheduler.getInFlightJob("refresh-cache-users");
+        assertEquals(4, scheduler.getDeduplicatedJobCount());
+        scheduler.start();
+
+        // A job submitted while the job in flight runs is queued, and later duplicates are merged into it
+        assertTrue(runStarted.await(1, TimeUnit.SECONDS));
+        Job followUpJob = Job.newJob(runs::incrementAndGet, "refreshCache", JobPriority.LOW);
+        followUpJob.setDedupKey("refresh-cache-users");
+        assertTrue(scheduler.scheduleJob(followUpJob));
+        Job mergedJob = Job.newJob(runs::incrementAndGet, "refreshCache", JobPriority.LOW);
+        mergedJob.setDedupKey("refresh-cache-users");
+        assertTrue(scheduler.scheduleJob(mergedJob));
+        assertEquals(JobStatus.MERGED, mergedJob.getJobStatus());
+        assertEquals(followUpJob, scheduler.getInFlightJob("refresh-cache-users"));
+        releaseRun.countDown();
+
+        for (CompletableFuture<JobResult> completion : completions) {
+            assertEquals(queuedJob, completion.get(1, TimeUnit.SECONDS).getJob());
+        }
+        Thread.sleep(100);
+        assertEquals(2, runs.get());
+        assertNull(scheduler.getInFlightJob("refresh-cache-users"));
+        scheduler.stop();
+    }
+
+    @Test
+    public void submitJobTestDedupDrop() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .dedupPolicy(DedupPolicy.DROP)
+                .build());
+        CountDownLatch releaseRun = new CountDownLatch(1);
+        Job job = Job.newJob(() -> {
+            try {
+                releaseRun.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "refreshCache", JobPriority.LOW);
+        job.setDedupKey("refresh-cache-users");
+        Job duplicateJob = Job.newJob(() -> { return; }, "refreshCache", JobPriority.LOW);
+        duplicateJob.setDedupKey("refresh-cache-users");
+
+        CompletableFuture<JobResult> completion = scheduler.submitJob(job).toCompletableFuture();
+        assertFalse(scheduler.scheduleJob(duplicateJob));
+        assertEquals(JobStatus.DROPPED, duplicateJob.getJobStatus());
+        scheduler.start();
+
+        // Jobs are dropped while the job in flight runs as well, their callers getting its stage
+        CompletableFuture<JobResult> duplicateCompletion = scheduler.submitJob(duplicateJob).toCompletableFuture();
+        releaseRun.countDown();
+        JobResult result = duplicateCompletion.get(1, TimeUnit.SECONDS);
+        assertEquals(job, result.getJob());
+        assertEquals(result, completion.get());
+        scheduler.stop();
+    }
+
+    @Test
+    public void submitJobGraphTest() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder().jobThreadPoolSize(2).build());
+        List<String> steps = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch transformsStarted = new CountDownLatch(2);
+
+        Job extract = Job.newJob(() -> steps.add("extract"), "extract", JobPriority.LOW);
+        Job transformUsers = Job.newJob(() -> awaitTransforms(steps, "transformUsers", transformsStarted),
+                "transformUsers", JobPriority.LOW);
+        Job transformOrders = Job.newJob(() -> awaitTransforms(steps, "transformOrders", transformsStarted),
+                "transformOrders", JobPriority.LOW);
+        Job load = Job.newJob(() -> steps.add("load"), "load", JobPriority.LOW);
+
+        JobGraph jobGraph = JobGraph.builder()
+                .addJob(extract)
+                .addJob(transformUsers, extract)
+                .addJob(transformOrders, extract)
+                .addJob(load, transformUsers, transformOrders)
+                .build();
+        CompletableFuture<List<JobResult>> completion = scheduler.submitJobGraph(jobGraph).toCompletableFuture();
+        assertEquals(JobStatus.WAITING, load.getJobStatus());
+        scheduler.start();
+
+        // Transforms only complete when both of them have started, so they have to run in parallel
+        List<JobResult> results = completion.get(1, TimeUnit.SECONDS);
+        assertEquals(4, results.size());
+        for (JobResult result : results) {
+            assertEquals(JobStatus.SUCCESS, result.getStatus());
+        }
+        assertEquals("extract", steps.get(0));
+        assertEquals("load", steps.get(3));
+        scheduler.stop();
+    }
+
+    @Test
+    public void submitJobGraphTestUpstreamFailed() throws Exception {
+        Job extract = Job.newJob(() -> {
+            throw new IllegalStateException("source unavailable");
+        }, "extract", JobPriority.LOW);
+        Job transform = Job.newJob(() -> { return; }, "transform", JobPriority.LOW);
+        Job load = Job.newJob(() -> { return; }, "load", JobPriority.LOW);
+        Job report = Job.newJob(() -> { return; }, "report", JobPriority.LOW);
+
+        JobGraph jobGraph = JobGraph.builder()
+                .addJob(extract)
+                .addJob(transform, extract)
+                .addJob(load, transform)
+                .addJob(report)
+                .build();
+        List<JobResult> results = jobScheduler.submitJobGraph(jobGraph).toCompletableFuture()
+                .get(1, TimeUnit.SECONDS);
+
+        // Failure is propagated downstream as cancellation, independent jobs are not affected
+        assertEquals(JobStatus.FAILED, results.get(0).getStatus());
+        assertEquals(JobStatus.CANCELLED, results.get(1).getStatus());
+        assertEquals(JobStatus.CANCELLED, load.getJobStatus());
+        assertEquals(JobStatus.SUCCESS, results.get(3).getStatus());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void submitJobGraphTestUnknownUpstreamJob() {
+        Job extract = Job.newJob(() -> { return; }, "extract", JobPriority.LOW);
+        Job transform = Job.newJob(() -> { return; }, "transform", JobPriority.LOW);
+
+        JobGraph.builder().addJob(transform, extract);
+    }
+
+    @Test
+    public void registerStateSinkTest() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder().stateBatchWindowMs(10L).build());
+        List<JobStateTransition> transitions = Collections.synchronizedList(new ArrayList<>());
+        assertTrue(scheduler.registerStateSink(transitions::addAll));
+
+        Job job = Job.newJob(() -> { return; }, "job", JobPriority.LOW);
+        scheduler.start();
+        scheduler.submitJob(job).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertFalse(scheduler.registerStateSink(transitions::addAll));
+        scheduler.stop();
+
+        // Transitions are coalesced within a window, so the last one is the job's terminal status
+        assertFalse(transitions.isEmpty());
+        JobStateTransition lastTransition = transitions.get(transitions.size() - 1);
+        assertEquals(job.getJobId(), lastTransition.getJobId());
+        assertEquals(JobStatus.SUCCESS, lastTransition.getStatus());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newDurableJobTestUnknownTaskType() {
+        jobScheduler.newDurableJob("unknown", "", "job", JobPriority.LOW, 0, 0);
+    }
+
+    @Test
+    public void getMetricsTest() throws Exception {
+        jobScheduler.scheduleJob(Job.newJob(() -> { return; }, "okJob", JobPriority.HIGH));
+        jobScheduler.scheduleJob(Job.newJob(() -> { return; }, "okJob", JobPriority.HIGH));
+        jobScheduler.scheduleJob(Job.newJob(() -> { throw new RuntimeException(); }, "failingJob", JobPriority.LOW));
+        Thread.sleep(100);
+
+        SchedulerMetrics metrics = jobScheduler.getMetrics();
+
+        assertEquals(2, metrics.getJobNameStats().get("okJob").getSucceededCount());
+        assertEquals(0, metrics.getJobNameStats().get("okJob").getFailedCount());
+        assertEquals(1, metrics.getJobNameStats().get("failingJob").getFailedCount());
+        assertEquals(2, metrics.getWaitTimeByPriority().get(JobPriority.HIGH).getCount());
+        assertEquals(1, metrics.getRunTimeByPriority().get(JobPriority.LOW).getCount());
+        assertEquals(0, metrics.getRunTimeByPriority().get(JobPriority.MEDIUM).getCount());
+        assertEquals(0, metrics.getRunningJobCount());
+
+        // Metrics are also exposed as an MBean while the scheduler is running
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(jobScheduler.getMetricsBeanName());
+        assertEquals(0, server.getAttribute(name, "QueueDepth"));
+        assertEquals(3, ((TabularData) server.getAttribute(name, "RunTimeByPriority")).size());
+
+        jobScheduler.stop();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void getMetricsTestQueueDepth() {
+        JobScheduler scheduler = newQueueFullScheduler(QueueOverflowPolicy.DROP_LOWEST);
+        scheduler.scheduleJob(Job.newJob(() -> { return; }, "job", JobPriority.HIGH));
+
+        SchedulerMetrics metrics = scheduler.getMetrics();
+
+        assertEquals(1, (int) metrics.getQueueDepthByPriority().get(JobPriority.HIGH));
+        assertEquals(1, (int) metrics.getQueueDepthByPriority().get(JobPriority.LOW));
+        assertEquals(2, metrics.getQueueDepth());
+        assertEquals(1, metrics.getShedJobCount());
+    }
+
     @Test
     public void cancelJob() throws InterruptedException {
         Job job = Job.newJob(() -> {
@@ -220,6 +1015,318 @@ public class JobSchedulerTest {
         assertEquals(JobStatus.SUCCESS, job.getJobStatus());
     }
 
+    @Test
+    public void cancelJobTestQueued() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobQueueSize(2)
+                .build());
+
+        // Scheduler is not started, so the job stays in the queue
+        Job job = Job.newJob(() -> { return; });
+        CompletableFuture<JobResult> completion = scheduler.submitJob(job).toCompletableFuture();
+        assertEquals(1, scheduler.getQueuedJobCount());
+
+        assertTrue(scheduler.cancelJob(job.getJobId(), false));
+        assertEquals(JobStatus.CANCELLED, completion.get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, scheduler.getQueuedJobCount());
+        assertTrue(scheduler.checkIfJobIsDone(job.getJobId()));
+        assertFalse(scheduler.cancelJob(job.getJobId(), false));
+    }
+
+    @Test
+    public void cancelByTagTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Job runningJob = Job.newJob(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "running", JobPriority.HIGH);
+        runningJob.setTags("tenant-a");
+        jobScheduler.scheduleJob(runningJob);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        List<Job> tenantJobs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Job job = i < 5 ? Job.newJob(() -> { return; }, "queued", JobPriority.LOW)
+                    : Job.newJob(() -> { return; }, "queued", JobPriority.LOW, 1000);
+            job.setTags("tenant-a", "batch");
+            tenantJobs.add(job);
+        }
+        Job otherJob = Job.newJob(() -> { return; }, "queued", JobPriority.LOW, 1000);
+        otherJob.setTags("tenant-b");
+
+        assertTrue(jobScheduler.scheduleJobs(tenantJobs).isFullyAccepted());
+        assertTrue(jobScheduler.scheduleJob(otherJob));
+
+        // The running job is interrupted, queued and delayed jobs are removed
+        assertEquals(11, jobScheduler.cancelByTag("tenant-a", true));
+        for (Job job : tenantJobs) {
+            assertEquals(JobStatus.CANCELLED, job.getJobStatus());
+            assertTrue(jobScheduler.checkIfJobIsDone(job.getJobId()));
+        }
+        assertFalse(jobScheduler.checkIfJobIsDone(otherJob.getJobId()));
+        assertEquals(0, jobScheduler.cancelByTag("tenant-a", true));
+
+        assertEquals(1, jobScheduler.cancelByName("queued", false));
+        assertEquals(JobStatus.CANCELLED, otherJob.getJobStatus());
+        assertEquals(0, jobScheduler.cancelByName(null, false));
+    }
+
+    @Test
+    public void cancelJobTestParkedJob() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(2)
+                .jobLimit("pingJob", JobLimit.newLimit(1, 0.0))
+                .build());
+        scheduler.start();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.scheduleJob(Job.newJob(() -> awaitRelease(started, release), "pingJob", JobPriority.LOW));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        Job firstParked = Job.newJob(() -> { return; }, "pingJob", JobPriority.LOW);
+        Job secondParked = Job.newJob(() -> { return; }, "pingJob", JobPriority.LOW);
+        scheduler.scheduleJob(firstParked);
+        scheduler.scheduleJob(secondParked);
+        awaitParkedJobCount(scheduler, 2);
+
+        // A cancelled job leaves its limit right away, while the limit stays saturated
+        assertTrue(scheduler.cancelJob(secondParked.getJobId(), false));
+        assertEquals(1, scheduler.getParkedJobCount());
+        assertTrue(scheduler.cancelJob(firstParked.getJobId(), false));
+        assertEquals(0, scheduler.getParkedJobCount());
+
+        release.countDown();
+        scheduler.stop();
+    }
+
+    @Test
+    public void cancelJobTestGrantedParkedJob() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(2)
+                .jobLimit("pingJob", JobLimit.newLimit(1, 0.0))
+                .build());
+        scheduler.start();
+
+        CountDownLatch pingStarted = new CountDownLatch(1);
+        CountDownLatch pingRelease = new CountDownLatch(1);
+        CompletableFuture<JobResult> runningPing = scheduler.submitJob(Job.newJob(
+                () -> awaitRelease(pingStarted, pingRelease), "pingJob", JobPriority.LOW)).toCompletableFuture();
+        assertTrue(pingStarted.await(1, TimeUnit.SECONDS));
+
+        Job parkedPing = Job.newJob(() -> { return; }, "pingJob", JobPriority.LOW);
+        scheduler.scheduleJob(parkedPing);
+        awaitParkedJobCount(scheduler, 1);
+
+        // Both workers are busy and a higher priority job waits, so the granted ping job stays queued
+        CountDownLatch otherStarted = new CountDownLatch(1);
+        CountDownLatch otherRelease = new CountDownLatch(1);
+        scheduler.scheduleJob(Job.newJob(() -> awaitRelease(otherStarted, otherRelease), "otherJob", JobPriority.LOW));
+        assertTrue(otherStarted.await(1, TimeUnit.SECONDS));
+        scheduler.scheduleJob(Job.newJob(() -> awaitRelease(new CountDownLatch(1), otherRelease),
+                "otherJob", JobPriority.HIGH));
+
+        pingRelease.countDown();
+        assertEquals(JobStatus.SUCCESS, runningPing.get(1, TimeUnit.SECONDS).getStatus());
+        awaitParkedJobCount(scheduler, 0);
+
+        assertTrue(scheduler.cancelJob(parkedPing.getJobId(), false));
+        otherRelease.countDown();
+
+        // The run granted to the cancelled job is released, so new ping jobs still run
+        CompletableFuture<JobResult> nextPing = scheduler.submitJob(Job.newJob(() -> { return; }, "pingJob",
+                JobPriority.LOW)).toCompletableFuture();
+        assertEquals(JobStatus.SUCCESS, nextPing.get(1, TimeUnit.SECONDS).getStatus());
+        scheduler.stop();
+    }
+
+    @Test
+    public void submitJobTestTimeout() throws Exception {
+        Job hungJob = Job.newJob(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "hungJob", JobPriority.HIGH);
+        hungJob.setTimeoutMs(50);
+        Job nextJob = Job.newJob(() -> { return; }, "nextJob", JobPriority.LOW);
+
+        CompletableFuture<JobResult> completion = jobScheduler.submitJob(hungJob).toCompletableFuture();
+        CompletableFuture<JobResult> nextCompletion = jobScheduler.submitJob(nextJob).toCompletableFuture();
+
+        // The single worker is reclaimed from the hung job for the next one
+        assertEquals(JobStatus.TIMED_OUT, completion.get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(JobStatus.TIMED_OUT, hungJob.getJobStatus());
+        assertEquals(JobStatus.SUCCESS, nextCompletion.get(1, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void submitJobTestDefaultTimeoutByPriority() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(2)
+                .runTimeoutMs(JobPriority.LOW, 50)
+                .build());
+        scheduler.start();
+
+        Runnable task = () -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        CompletableFuture<JobResult> lowCompletion = scheduler.submitJob(Job.newJob(task, "lowJob", JobPriority.LOW))
+                .toCompletableFuture();
+        CompletableFuture<JobResult> highCompletion = scheduler.submitJob(Job.newJob(task, "highJob", JobPriority.HIGH))
+                .toCompletableFuture();
+
+        assertEquals(JobStatus.TIMED_OUT, lowCompletion.get(1, TimeUnit.SECONDS).getStatus());
+        assertEquals(JobStatus.SUCCESS, highCompletion.get(1, TimeUnit.SECONDS).getStatus());
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void elasticPoolTest() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .elasticPoolEnabled(true)
+                .elasticPoolMinSize(1)
+                .elasticPoolMaxSize(4)
+                .elasticPoolIntervalMs(50)
+                .elasticPoolTargetWaitMs(0)
+                .elasticPoolCpuSaturation(1000.0)
+                .build());
+        scheduler.start();
+
+        List<CompletableFuture<JobResult>> completions = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            completions.add(scheduler.submitJob(Job.newJob(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            })).toCompletableFuture());
+        }
+
+        // The pool grows while jobs are queued, and shrinks back once it is idle
+        Thread.sleep(250);
+        assertEquals(4, scheduler.getWorkerCount());
+
+        for (CompletableFuture<JobResult> completion : completions) {
+            assertEquals(JobStatus.SUCCESS, completion.get(2, TimeUnit.SECONDS).getStatus());
+        }
+        Thread.sleep(500);
+        assertEquals(1, scheduler.getWorkerCount());
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void reconfigureTest() {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .jobQueueSize(2)
+                .build());
+
+        // Scheduler is not started, so the queue stays full
+        assertTrue(scheduler.scheduleJob(Job.newJob(() -> { return; })));
+        assertTrue(scheduler.scheduleJob(Job.newJob(() -> { return; })));
+        assertFalse(scheduler.scheduleJob(Job.newJob(() -> { return; })));
+
+        Props props = Props.builder()
+                .jobThreadPoolSize(3)
+                .jobQueueSize(3)
+                .build();
+        assertTrue(scheduler.reconfigure(props));
+
+        assertSame(props, scheduler.getProps());
+        assertEquals(3, scheduler.getWorkerCount());
+        assertTrue(scheduler.scheduleJob(Job.newJob(() -> { return; })));
+        assertEquals(3, scheduler.getQueuedJobCount());
+    }
+
+    @Test
+    public void reconfigureTestStartupProperty() {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .build());
+        Props props = scheduler.getProps();
+
+        assertFalse(scheduler.reconfigure(Props.builder()
+                .jobThreadPoolSize(2)
+                .executionMode(ExecutionMode.VIRTUAL)
+                .build()));
+        assertFalse(scheduler.reconfigure(null));
+
+        assertSame(props, scheduler.getProps());
+        assertEquals(1, scheduler.getWorkerCount());
+    }
+
+    @Test
+    public void reconfigureTestRunTimeout() throws Exception {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .build());
+        scheduler.start();
+
+        assertTrue(scheduler.reconfigure(Props.builder()
+                .jobThreadPoolSize(1)
+                .runTimeoutMs(JobPriority.LOW, 50)
+                .build()));
+
+        CompletableFuture<JobResult> completion = scheduler.submitJob(Job.newJob(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        })).toCompletableFuture();
+        assertEquals(JobStatus.TIMED_OUT, completion.get(1, TimeUnit.SECONDS).getStatus());
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void watchConfigTest() throws Exception {
+        Path file = folder.newFile("jms.properties").toPath();
+        Files.write(file, "THREAD_POOL_SIZE=1".getBytes(StandardCharsets.UTF_8));
+
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobThreadPoolSize(1)
+                .configWatchFile(file.toString())
+                .build());
+        scheduler.start();
+        assertFalse(scheduler.watchConfig(file.toString()));
+
+        Files.write(file, "THREAD_POOL_SIZE=3\nQUEUE_SIZE=20".getBytes(StandardCharsets.UTF_8));
+        awaitWorkerCount(scheduler, 3);
+        assertEquals(20, scheduler.getProps().getJobQueueSize());
+
+        // Invalid files are ignored, and the next valid one is applied
+        Files.write(file, "THREAD_POOL_SIZE=-1".getBytes(StandardCharsets.UTF_8));
+        Thread.sleep(500);
+        assertEquals(3, scheduler.getWorkerCount());
+
+        Files.write(file, "THREAD_POOL_SIZE=2".getBytes(StandardCharsets.UTF_8));
+        awaitWorkerCount(scheduler, 2);
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void watchConfigTestNoFile() {
+        assertFalse(jobScheduler.watchConfig(null));
+        assertFalse(jobScheduler.watchConfig("/no-such-jms.properties"));
+    }
+
     @Test
     public void checkIfJobIsDone() throws InterruptedException {
         Job job = Job.newJob(() -> {
@@ -240,4 +1347,55 @@ public class JobSchedulerTest {
         assertTrue(jobScheduler.checkIfJobIsDone(job.getJobId()));
         assertEquals(JobStatus.SUCCESS, job.getJobStatus());
     }
-}
\ No newline at end of file
+
+    private static JobScheduler newQueueFullScheduler(QueueOverflowPolicy policy) {
+        JobScheduler scheduler = JobScheduler.newJobScheduler(Props.builder()
+                .jobQueueSize(2)
+                .queueOverflowPolicy(policy)
+                .queueOfferTimeoutMs(50)
+                .build());
+
+        // Scheduler is not started, so the queue stays full
+        scheduler.scheduleJob(Job.newJob(() -> { return; }));
+        scheduler.scheduleJob(Job.newJob(() -> { return; }));
+
+        return scheduler;
+    }
+
+    private static void awaitRelease(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitParkedJobCount(JobScheduler scheduler, int parkedJobCount) throws InterruptedException {
+        long deadlineMs = System.currentTimeMillis() + 1000L;
+        while (scheduler.getParkedJobCount() != parkedJobCount && System.currentTimeMillis() < deadlineMs) {
+            Thread.sleep(5);
+        }
+        assertEquals(parkedJobCount, scheduler.getParkedJobCount());
+    }
+
+    private static void awaitWorkerCount(JobScheduler scheduler, int workerCount) throws InterruptedException {
+        long deadlineMs = System.currentTimeMillis() + 10000L;
+        while (scheduler.getWorkerCount() != workerCount && System.currentTimeMillis() < deadlineMs) {
+            Thread.sleep(50);
+        }
+        assertEquals(workerCount, scheduler.getWorkerCount());
+    }
+
+    private static void awaitTransforms(List<String> steps, String step, CountDownLatch transformsStarted) {
+        steps.add(step);
+        transformsStarted.countDown();
+        try {
+            if (!transformsStarted.await(500, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("transforms did not run in parallel");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.iza.jms.scheduler;
+
+import com.iza.jms.job.Job;
+import com.iza.jms.job.JobPriority;
+import com.iza.jms.job.JobStatus;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+
+public class JobStateBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void offerTestCoalescing() {
+        List<List<JobStateTransition>> batches = Collections.synchronizedList(new ArrayList<>());
+        JobStateBuffer buffer = new JobStateBuffer(65536, 3600000L, Collections.singletonList(batches::add));
+
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            jobs.add(Job.newJob(() -> { return; }, "job" + i, JobPriority.LOW));
+        }
+        for (JobStatus status : new JobStatus[]{JobStatus.QUEUED, JobStatus.RUNNING, JobStatus.SUCCESS}) {
+            for (Job job : jobs) {
+                assertTrue(buffer.offer(job, status, 1000L));
+            }
+        }
+        buffer.close();
+
+        // Transitions of the same window are written at once, only the latest status of each job
+        assertEquals(1, batches.size());
+        List<JobStateTransition> batch = batches.get(0);
+        assertEquals(1000, batch.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(jobs.get(i).getJobId(), batch.get(i).getJobId());
+            assertEquals(JobStatus.SUCCESS, batch.get(i).getStatus());
+        }
+    }
+
+    @Test
+    public void offerTestBufferFull() {
+        List<JobStateTransition> transitions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch sinkReleased = new CountDownLatch(1);
+        JobStateBuffer buffer = new JobStateBuffer(4, 3600000L, Collections.singletonList(batch -> {
+            try {
+                sinkReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            transitions.addAll(batch);
+        }));
+
+        // Flush requested when the buffer is half full drains it once, then waits for the sink
+        int offered = 0;
+        while (buffer.getDroppedCount() == 0L && offered < 1000) {
+            buffer.offer(Job.newJob(() -> { return; }), JobStatus.QUEUED, 1000L);
+            offered++;
+        }
+        sinkReleased.countDown();
+        buffer.close();
+
+        assertEquals(1L, buffer.getDroppedCount());
+        assertEquals(offered - 1, transitions.size());
+        assertFalse(buffer.offer(Job.newJob(() -> { return; }), JobStatus.QUEUED, 1000L));
+    }
+
+    @Test
+    public void writeTestFileSink() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("states.log");
+        Job job = Job.newJob(() -> { return; }, "fileJob", JobPriority.HIGH);
+
+        JobStateSink sink = FileJobStateSink.open(file);
+        sink.write(Collections.singletonList(new JobStateTransition(job.getJobId(), job.getJobName(),
+                JobStatus.SUCCESS, 1000L)));
+        sink.close();
+
+        assertEquals(Collections.singletonList("1000\t" + job.getJobId() + "\tSUCCESS\tfileJob"),
+                Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeTestJdbcSink() throws Exception {
+        Connection connection = Mockito.mock(Connection.class);
+        DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        ResultSet tables = Mockito.mock(ResultSet.class);
+        Statement statement = Mockito.mock(Statement.class);
+        PreparedStatement insert = Mockito.mock(PreparedStatement.class);
+
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getTables(any(), any(), eq(JdbcJobStateSink.TABLE_NAME), any())).thenReturn(tables);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(connection.prepareStatement(anyString())).thenReturn(insert);
+
+        JobStateSink sink = JdbcJobStateSink.open(connection);
+        Mockito.verify(statement).executeUpdate(startsWith("CREATE TABLE " + JdbcJobStateSink.TABLE_NAME));
+
+        List<JobStateTransition> transitions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            transitions.add(new JobStateTransition("id" + i, "job", JobStatus.SUCCESS, 1000L));
+        }
+        sink.write(transitions);
+
+        // The whole batch is inserted with a single statement execution and commit
+        Mockito.verify(insert, Mockito.times(100)).addBatch();
+        Mockito.verify(insert).executeBatch();
+        Mockito.verify(connection).commit();
+    }
+}
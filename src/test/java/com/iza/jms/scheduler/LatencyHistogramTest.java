@@ -0,0 +1,59 @@
+package com.iza.jms.scheduler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketIndexTest() {
+        // Every value lies within the bounds of its bucket, which are within ~3% of the value
+        long[] values = {0L, 1L, 31L, 32L, 63L, 64L, 65L, 1000L, 123456789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) - value <= value / 32);
+        }
+    }
+
+    @Test
+    public void snapshotTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getCount());
+
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000L);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500L, snapshot.getMeanNanos());
+        assertEquals(1000000L, snapshot.getMaxNanos());
+        assertEquals(500000.0, snapshot.getP50Nanos(), 500000.0 * 0.04);
+        assertEquals(990000.0, snapshot.getP99Nanos(), 990000.0 * 0.04);
+        assertTrue(snapshot.getP999Nanos() <= snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void addIntervalCountsTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] previousCounts = LatencyHistogram.newBucketCounts();
+        long[] intervalCounts = LatencyHistogram.newBucketCounts();
+
+        histogram.record(1000000L);
+        histogram.addIntervalCounts(previousCounts, intervalCounts);
+        assertEquals(1000000L, LatencyHistogram.valueAtPercentile(intervalCounts, 99.0), 1000000L / 32);
+
+        // Only the values recorded since the previous call are counted in the next interval
+        intervalCounts = LatencyHistogram.newBucketCounts();
+        histogram.record(10L);
+        histogram.addIntervalCounts(previousCounts, intervalCounts);
+        assertEquals(10L, LatencyHistogram.valueAtPercentile(intervalCounts, 99.0));
+
+        intervalCounts = LatencyHistogram.newBucketCounts();
+        histogram.addIntervalCounts(previousCounts, intervalCounts);
+        assertEquals(0L, LatencyHistogram.valueAtPercentile(intervalCounts, 99.0));
+    }
+}
@@ -0,0 +1,33 @@
+package com.iza.jms.scheduler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunLogLimiterTest {
+
+    @Test
+    public void tryAcquireTest() throws InterruptedException {
+        RunLogLimiter limiter = new RunLogLimiter(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.takeSuppressedLineCount());
+        assertEquals(0, limiter.takeSuppressedLineCount());
+
+        // Lines are logged again in the next window
+        Thread.sleep(1100);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void tryAcquireTestDisabled() {
+        RunLogLimiter limiter = new RunLogLimiter(0);
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(0, limiter.takeSuppressedLineCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.iza.jms.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelJobTimerTest {
+
+    private TimingWheelJobTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new TimingWheelJobTimer(1L);
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void scheduleTestNotEarly() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong elapsedMs = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        timer.schedule(() -> {
+            elapsedMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            latch.countDown();
+        }, 50L);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(elapsedMs.get() >= 50L);
+    }
+
+    @Test
+    public void scheduleTestCascade() throws InterruptedException {
+        // Delays beyond one turn of the lowest wheel level (256 ticks) are cascaded from the higher level
+        CountDownLatch latch = new CountDownLatch(3);
+        AtomicLong elapsedMs = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        for (long delayMs : new long[] {10L, 300L, 600L}) {
+            timer.schedule(() -> {
+                elapsedMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                latch.countDown();
+            }, delayMs);
+        }
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(elapsedMs.get() >= 600L);
+    }
+
+    @Test
+    public void scheduleTestOrder() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        StringBuilder order = new StringBuilder();
+
+        timer.schedule(() -> { order.append("late"); latch.countDown(); }, 40L);
+        timer.schedule(() -> { order.append("early"); latch.countDown(); }, 10L);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("earlylate", order.toString());
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+
+        JobTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 20L);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+
+        Thread.sleep(60);
+        assertEquals(0, runs.get());
+
+        timeout = timer.schedule(runs::incrementAndGet, 10L);
+        Thread.sleep(60);
+        assertEquals(1, runs.get());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void scheduleTestStopped() {
+        timer.stop();
+        timer.schedule(() -> { return; }, 10L);
+    }
+}